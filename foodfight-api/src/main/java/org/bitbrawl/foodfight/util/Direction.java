@@ -1,6 +1,8 @@
 package org.bitbrawl.foodfight.util;
 
 import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 import com.google.gson.JsonDeserializationContext;
@@ -56,6 +58,22 @@ public final class Direction {
 		return new Direction(ThreadLocalRandom.current().nextDouble(TWO_PI));
 	}
 
+	/**
+	 * Returns a randomly-generated direction, drawing from the given source of
+	 * randomness. The returned directions are uniformly distributed on the
+	 * range [0, 2&pi;).
+	 * 
+	 * @param random
+	 *            the source of randomness to use
+	 * @return a random direction
+	 * @throws NullPointerException
+	 *             if random is null
+	 */
+	public static Direction random(Random random) {
+		Objects.requireNonNull(random, "random cannot be null");
+		return new Direction(random.nextDouble() * TWO_PI);
+	}
+
 	/**
 	 * Returns the measurement of this direction object, in radians, where
 	 * {@link #EAST} is 0.0 and measurements increase as they rotate
@@ -1,5 +1,7 @@
 package org.bitbrawl.foodfight.util;
 
+import java.util.Objects;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.DoubleSupplier;
 
@@ -76,7 +78,23 @@ public final class RandomScalar implements DoubleSupplier {
 	 */
 	@Override
 	public double getAsDouble() {
-		return mu * Math.exp(ThreadLocalRandom.current().nextGaussian() * sigma / mu);
+		return getAsDouble(ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Generates a value from the continuous distribution represented by this
+	 * random scalar, drawing from the given source of randomness. Two random
+	 * sources in the same state produce the same value.
+	 * 
+	 * @param random
+	 *            the source of randomness to use
+	 * @return a value from this distribution
+	 * @throws NullPointerException
+	 *             if random is null
+	 */
+	public double getAsDouble(Random random) {
+		Objects.requireNonNull(random, "random cannot be null");
+		return mu * Math.exp(random.nextGaussian() * sigma / mu);
 	}
 
 	@Override
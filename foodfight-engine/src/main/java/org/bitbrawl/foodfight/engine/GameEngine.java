@@ -13,8 +13,14 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Queue;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,19 +29,24 @@ import org.bitbrawl.foodfight.engine.config.ConfigException;
 import org.bitbrawl.foodfight.engine.config.Configuration;
 import org.bitbrawl.foodfight.engine.config.ControllerConfig;
 import org.bitbrawl.foodfight.engine.field.FieldState;
-import org.bitbrawl.foodfight.engine.field.InventoryState;
-import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.engine.field.StateAdapterFactory;
 import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+import org.bitbrawl.foodfight.engine.match.ActionTrace;
+import org.bitbrawl.foodfight.engine.match.ArrayTurnRunner;
+import org.bitbrawl.foodfight.engine.match.ColumnarTraceWriter;
+import org.bitbrawl.foodfight.engine.match.ControllerPool;
 import org.bitbrawl.foodfight.engine.match.DefaultTurnRunner;
 import org.bitbrawl.foodfight.engine.match.FieldGenerator;
+import org.bitbrawl.foodfight.engine.match.HistorySink;
 import org.bitbrawl.foodfight.engine.match.JarController;
 import org.bitbrawl.foodfight.engine.match.Match;
-import org.bitbrawl.foodfight.engine.match.MatchHistory;
+import org.bitbrawl.foodfight.engine.match.MatchRandom;
+import org.bitbrawl.foodfight.engine.match.TraceWriter;
+import org.bitbrawl.foodfight.engine.match.TurnRunner;
 import org.bitbrawl.foodfight.engine.video.ImageEncoder;
+import org.bitbrawl.foodfight.field.Field;
 import org.bitbrawl.foodfight.field.MatchType;
 import org.bitbrawl.foodfight.field.Player;
-import org.bitbrawl.foodfight.util.Direction;
-import org.bitbrawl.foodfight.util.Vector;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -43,9 +54,12 @@ import com.google.gson.GsonBuilder;
 public final class GameEngine {
 
 	private final Configuration config;
+	private final ControllerPool controllerPool;
+	private final ExecutorService dispatchExecutor = Executors.newCachedThreadPool();
 
 	public GameEngine(Configuration config) {
 		this.config = config;
+		controllerPool = new ControllerPool(config.getMatchesPerProcess(), config.getWireFormat());
 	}
 
 	public void runMatches() throws InterruptedException {
@@ -66,12 +80,44 @@ public final class GameEngine {
 			return;
 		}
 
-		for (int i = 0, n = config.getNumMatches(); i < n; i++) {
-			runMatch(matchNumber, config);
-			matchNumber++;
+		int numMatches = config.getNumMatches();
+		int numThreads = Math.min(config.getNumThreads(), numMatches);
+		AtomicInteger nextMatchNumber = new AtomicInteger(matchNumber);
+		AtomicInteger finishedMatches = new AtomicInteger();
+
+		logger.log(Level.INFO, "Running {0} matches on {1} threads", new Object[] { numMatches, numThreads });
+
+		long startTime = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		List<Future<?>> results = new ArrayList<>(numMatches);
+		try {
+
+			for (int i = 0; i < numMatches; i++)
+				results.add(executor.submit(() -> {
+					if (runMatch(nextMatchNumber.getAndIncrement()))
+						finishedMatches.incrementAndGet();
+					return null;
+				}));
+			executor.shutdown();
+
+			for (Future<?> result : results) {
+				try {
+					result.get();
+				} catch (ExecutionException e) {
+					logger.log(Level.SEVERE, "Problem running match", e.getCause());
+				}
+			}
+
+		} finally {
+			executor.shutdownNow();
+			dispatchExecutor.shutdown();
+			controllerPool.close();
 		}
 
-		logger.info("Finished");
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		int finished = finishedMatches.get();
+		logger.info(String.format("Finished %d matches in %.1f s (%.2f matches/min, %.0f turns/s)", finished, seconds,
+				finished * 60.0 / seconds, finished * (double) Field.TOTAL_TURNS / seconds));
 
 	}
 
@@ -97,7 +143,11 @@ public final class GameEngine {
 		return lastMatch + 1;
 	}
 
-	public void runMatch(int matchNumber, Configuration config) throws InterruptedException {
+	/**
+	 * Runs the match with the given number and writes its history into the
+	 * data folder. Returns whether the match was run and its history written.
+	 */
+	public boolean runMatch(int matchNumber) throws InterruptedException {
 
 		String matchName = String.format("match-%06x", matchNumber);
 
@@ -109,12 +159,17 @@ public final class GameEngine {
 			Files.createDirectories(matchData);
 		} catch (IOException e) {
 			logger.log(Level.SEVERE, "Unable to create match data directory", e);
-			return;
+			return false;
 		}
+		OptionalLong seriesSeed = config.getSeed();
+		MatchRandom random = seriesSeed.isPresent()
+				? new MatchRandom(MatchRandom.getMatchSeed(seriesSeed.getAsLong(), matchNumber))
+				: new MatchRandom();
+		logger.log(Level.INFO, "Using seed {0}", Long.toString(random.getSeed()));
 		Queue<ControllerConfig> controllerConfigs = orderRandomly(config.getControllers(),
-				matchType.getNumberOfPlayers());
+				matchType.getNumberOfPlayers(), random);
 
-		FieldState field = new FieldGenerator(matchType).get();
+		FieldState field = new FieldGenerator(matchType, random).get();
 
 		Map<Character, Controller> controllers = new HashMap<>();
 		Map<Character, String> names = new HashMap<>();
@@ -129,7 +184,7 @@ public final class GameEngine {
 			Path log = matchData.resolve("player-" + symbol + ".log");
 			Controller controller;
 			try {
-				JarController jarController = new JarController(jar, className, log);
+				JarController jarController = controllerPool.acquire(jar, className, log);
 				jarsToClose.add(jarController);
 				controller = jarController;
 			} catch (IOException e) {
@@ -139,41 +194,78 @@ public final class GameEngine {
 			controllers.put(symbol, controller);
 		}
 
-		logger.info("Running match");
-		Match match = new Match.Builder(matchNumber, field, controllers::get, names::get, new DefaultTurnRunner())
-				.build();
-		MatchHistory history = match.run();
+		GsonBuilder gsonBuilder = new GsonBuilder().enableComplexMapKeySerialization()
+				.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE);
+		Gson compactGson = gsonBuilder.create();
+		Gson gson = gsonBuilder.setPrettyPrinting().create();
 
+		// the trace and video are written while the match runs, so the match
+		// does not have to keep every state
+		List<HistorySink.Stage> stages = new ArrayList<>(3);
 		Path traceFile = matchData.resolve("trace.json");
-
 		logger.log(Level.INFO, "Writing match history to {0}", traceFile);
-
-		Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
-				.registerTypeAdapter(ScoreState.class, ScoreState.Serializer.INSTANCE)
-				.registerTypeAdapter(InventoryState.class, InventoryState.Serializer.INSTANCE)
-				.registerTypeAdapter(Vector.class, Vector.Serializer.INSTANCE)
-				.registerTypeAdapter(Direction.class, Direction.Serializer.INSTANCE).setPrettyPrinting().create();
-		try (Writer writer = Files.newBufferedWriter(traceFile, StandardOpenOption.CREATE_NEW)) {
-			gson.toJson(history, writer);
+		try {
+			stages.add(new TraceWriter(traceFile, gson, matchNumber, random.getSeed(), names::get));
 		} catch (IOException e) {
 			logger.log(Level.SEVERE, "Unable to create trace file", e);
 		}
-
+		if (config.isColumnarTrace()) {
+			try {
+				stages.add(new ColumnarTraceWriter(matchData.resolve("trace.bin"), matchNumber, random.getSeed(),
+						names::get));
+			} catch (IOException e) {
+				logger.log(Level.SEVERE, "Unable to create columnar trace file", e);
+			}
+		}
 		logger.info("Generating video");
-
 		try {
-			ImageEncoder.encode(history, names::get, matchData.resolve("video.mp4"));
+			stages.add(ImageEncoder.newStage(names::get, matchData.resolve("video.mp4"), config.getRenderThreads(),
+					config.getVideoProfile()));
 		} catch (IOException e) {
 			logger.log(Level.SEVERE, "Unable to generate video", e);
 		}
 
+		logger.info("Running match");
+		ActionTrace.Recorder recorder = new ActionTrace.Recorder(matchNumber, random.getSeed(), names::get);
+		try (HistorySink sink = new HistorySink(stages.toArray(new HistorySink.Stage[stages.size()]))) {
+			TurnRunner runner = config.isArrayTurnRunner() ? new ArrayTurnRunner() : new DefaultTurnRunner();
+			Match match = new Match.Builder(matchNumber, field, controllers::get, names::get, runner)
+					.dispatchExecutor(dispatchExecutor).random(random).recorder(recorder).uiConsumer(sink)
+					.keepHistory(false).build();
+			boolean finished = false;
+			try {
+				match.run();
+				finished = true;
+			} finally {
+				// a match that did not finish leaves no trace or video behind
+				if (!finished)
+					sink.abort();
+				for (JarController jarController : jarsToClose)
+					jarController.close();
+			}
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Unable to write match history", e);
+			return false;
+		}
+
+		Path actionsFile = matchData.resolve("actions.json");
+		logger.log(Level.INFO, "Writing action trace to {0}", actionsFile);
+		try (Writer writer = Files.newBufferedWriter(actionsFile, StandardOpenOption.CREATE_NEW)) {
+			compactGson.toJson(recorder.build(), writer);
+		} catch (IOException e) {
+			logger.log(Level.SEVERE, "Unable to create action trace file", e);
+			return false;
+		}
+
+		return true;
+
 	}
 
-	private static <E> Queue<E> orderRandomly(Collection<E> collection, int minNumber) {
+	private static <E> Queue<E> orderRandomly(Collection<E> collection, int minNumber, Random random) {
 		List<E> result = new ArrayList<>(collection);
 		while (result.size() < minNumber)
 			result.addAll(collection);
-		Collections.shuffle(result, ThreadLocalRandom.current());
+		Collections.shuffle(result, random);
 		return new LinkedList<>(result);
 	}
 
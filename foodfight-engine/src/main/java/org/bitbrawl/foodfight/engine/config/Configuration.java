@@ -15,7 +15,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.OptionalLong;
 
+import org.bitbrawl.foodfight.engine.ipc.WireFormat;
+import org.bitbrawl.foodfight.engine.video.PipelinedEncoder;
+import org.bitbrawl.foodfight.engine.video.VideoProfile;
 import org.bitbrawl.foodfight.field.MatchType;
 
 import com.google.gson.Gson;
@@ -31,15 +35,35 @@ import com.google.gson.JsonSyntaxException;
 public final class Configuration {
 
 	private final int numMatches;
+	private final int numThreads;
+	private final int matchesPerProcess;
+	private final int renderThreads;
+	private final VideoProfile.Mode videoMode;
+	private final int videoSpeedUp;
+	private final WireFormat wireFormat;
+	private final boolean columnarTrace;
+	private final boolean arrayTurnRunner;
 	private final MatchType matchType;
 	private final List<ControllerConfig> controllers;
 	private final Path data;
+	private final Long seed;
 
-	private Configuration(int numMatches, MatchType matchType, ControllerConfig[] controllers, Path data) {
+	private Configuration(int numMatches, int numThreads, int matchesPerProcess, int renderThreads,
+			VideoProfile.Mode videoMode, int videoSpeedUp, WireFormat wireFormat, boolean columnarTrace,
+			boolean arrayTurnRunner, MatchType matchType, ControllerConfig[] controllers, Path data, Long seed) {
 		this.numMatches = numMatches;
+		this.numThreads = numThreads;
+		this.matchesPerProcess = matchesPerProcess;
+		this.renderThreads = renderThreads;
+		this.videoMode = videoMode;
+		this.videoSpeedUp = videoSpeedUp;
+		this.wireFormat = wireFormat;
+		this.columnarTrace = columnarTrace;
+		this.arrayTurnRunner = arrayTurnRunner;
 		this.matchType = matchType;
 		this.controllers = controllers == null ? null : Collections.unmodifiableList(Arrays.asList(controllers));
 		this.data = data;
+		this.seed = seed;
 	}
 
 	public static Configuration getConfig(Path configFile) throws IOException, ConfigException {
@@ -90,6 +114,18 @@ public final class Configuration {
 
 		if (result.numMatches <= 0)
 			throw new ConfigException("numMatches must be at least 1");
+		if (result.numThreads <= 0)
+			throw new ConfigException("numThreads must be at least 1");
+		if (result.matchesPerProcess <= 0)
+			throw new ConfigException("matchesPerProcess must be at least 1");
+		if (result.renderThreads <= 0)
+			throw new ConfigException("renderThreads must be at least 1");
+		if (result.videoMode == null)
+			throw new ConfigException("videoMode must be FULL, EVERY_NTH_TURN or HIGHLIGHTS");
+		if (result.videoSpeedUp <= 0)
+			throw new ConfigException("videoSpeedUp must be at least 1");
+		if (result.wireFormat == null)
+			throw new ConfigException("wireFormat must be JSON, BINARY or DELTA");
 		if (result.matchType == null)
 			throw new ConfigException("matchType must be defined");
 		List<ControllerConfig> controllers = result.controllers;
@@ -108,6 +144,34 @@ public final class Configuration {
 		return numMatches;
 	}
 
+	public int getNumThreads() {
+		return numThreads;
+	}
+
+	public int getMatchesPerProcess() {
+		return matchesPerProcess;
+	}
+
+	public int getRenderThreads() {
+		return renderThreads;
+	}
+
+	public VideoProfile getVideoProfile() {
+		return new VideoProfile(videoMode, videoSpeedUp);
+	}
+
+	public WireFormat getWireFormat() {
+		return wireFormat;
+	}
+
+	public boolean isColumnarTrace() {
+		return columnarTrace;
+	}
+
+	public boolean isArrayTurnRunner() {
+		return arrayTurnRunner;
+	}
+
 	public MatchType getMatchType() {
 		return matchType;
 	}
@@ -120,6 +184,10 @@ public final class Configuration {
 		return data;
 	}
 
+	public OptionalLong getSeed() {
+		return seed == null ? OptionalLong.empty() : OptionalLong.of(seed);
+	}
+
 	private static Configuration getDefault() {
 
 		ControllerConfig[] players = new ControllerConfig[4];
@@ -130,7 +198,9 @@ public final class Configuration {
 		players[3] = new ControllerConfig("sample-walls", sampleJar, "org.bitbrawl.foodfight.sample.WallsController");
 		Path data = Paths.get("data");
 
-		return new Configuration(3, MatchType.FREE_FOR_ALL, players, data);
+		return new Configuration(3, 1, 1, PipelinedEncoder.DEFAULT_PARALLELISM,
+				VideoProfile.Mode.FULL, VideoProfile.DEFAULT_SPEED_UP, WireFormat.DELTA, false, false,
+				MatchType.FREE_FOR_ALL, players, data, null);
 
 	}
 
@@ -147,11 +217,31 @@ public final class Configuration {
 
 			JsonObject object = json.getAsJsonObject();
 			int numMatches = object.getAsJsonPrimitive("numMatches").getAsInt();
+			int numThreads = object.has("numThreads") ? object.getAsJsonPrimitive("numThreads").getAsInt() : 1;
+			int matchesPerProcess = object.has("matchesPerProcess")
+					? object.getAsJsonPrimitive("matchesPerProcess").getAsInt()
+					: 1;
+			int renderThreads = object.has("renderThreads") ? object.getAsJsonPrimitive("renderThreads").getAsInt()
+					: PipelinedEncoder.DEFAULT_PARALLELISM;
+			VideoProfile.Mode videoMode = object.has("videoMode")
+					? context.deserialize(object.getAsJsonPrimitive("videoMode"), VideoProfile.Mode.class)
+					: VideoProfile.Mode.FULL;
+			int videoSpeedUp = object.has("videoSpeedUp") ? object.getAsJsonPrimitive("videoSpeedUp").getAsInt()
+					: VideoProfile.DEFAULT_SPEED_UP;
+			WireFormat wireFormat = object.has("wireFormat")
+					? context.deserialize(object.getAsJsonPrimitive("wireFormat"), WireFormat.class)
+					: WireFormat.DELTA;
+			boolean columnarTrace = object.has("columnarTrace")
+					&& object.getAsJsonPrimitive("columnarTrace").getAsBoolean();
+			boolean arrayTurnRunner = object.has("arrayTurnRunner")
+					&& object.getAsJsonPrimitive("arrayTurnRunner").getAsBoolean();
 			MatchType matchType = context.deserialize(object.getAsJsonPrimitive("matchType"), MatchType.class);
 			ControllerConfig[] controllers = context.deserialize(object.getAsJsonArray("controllers"),
 					ControllerConfig[].class);
 			Path data = context.deserialize(object.getAsJsonPrimitive("data"), Path.class);
-			return new Configuration(numMatches, matchType, controllers, data);
+			Long seed = object.has("seed") ? object.getAsJsonPrimitive("seed").getAsLong() : null;
+			return new Configuration(numMatches, numThreads, matchesPerProcess, renderThreads, videoMode,
+					videoSpeedUp, wireFormat, columnarTrace, arrayTurnRunner, matchType, controllers, data, seed);
 
 		}
 
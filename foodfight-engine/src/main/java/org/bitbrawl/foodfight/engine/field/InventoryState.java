@@ -72,6 +72,10 @@ public class InventoryState implements Inventory {
 
 	}
 
+	Map<Player.Hand, Food.Type> getMap() {
+		return map;
+	}
+
 	@Override
 	public String toString() {
 		return map.toString();
@@ -82,9 +86,7 @@ public class InventoryState implements Inventory {
 
 		@Override
 		public JsonElement serialize(InventoryState src, Type typeOfSrc, JsonSerializationContext context) {
-			Type type = new TypeToken<Map<Player.Hand, Food.Type>>() {
-			}.getType();
-			return context.serialize(src.map, type);
+			return context.serialize(src.map, MAP_TYPE);
 		}
 
 	}
@@ -95,11 +97,12 @@ public class InventoryState implements Inventory {
 		@Override
 		public InventoryState deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
 				throws JsonParseException {
-			Type type = new TypeToken<Map<Player.Hand, Food.Type>>() {
-			}.getType();
-			return new InventoryState(context.deserialize(json, type));
+			return new InventoryState(context.deserialize(json, MAP_TYPE));
 		}
 
 	}
 
+	private static final Type MAP_TYPE = new TypeToken<Map<Player.Hand, Food.Type>>() {
+	}.getType();
+
 }
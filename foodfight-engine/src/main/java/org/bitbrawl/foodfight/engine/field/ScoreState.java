@@ -67,6 +67,10 @@ public final class ScoreState implements Score {
 
 	}
 
+	Map<Event, Integer> getCounts() {
+		return counts;
+	}
+
 	@Override
 	public String toString() {
 		return counts.toString();
@@ -77,9 +81,7 @@ public final class ScoreState implements Score {
 
 		@Override
 		public JsonElement serialize(ScoreState src, Type typeOfSrc, JsonSerializationContext context) {
-			Type type = new TypeToken<Map<Event, Integer>>() {
-			}.getType();
-			return context.serialize(src.counts, type);
+			return context.serialize(src.counts, COUNTS_TYPE);
 		}
 
 	}
@@ -90,11 +92,12 @@ public final class ScoreState implements Score {
 		@Override
 		public ScoreState deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
 				throws JsonParseException {
-			Type type = new TypeToken<Map<Event, Integer>>() {
-			}.getType();
-			Map<Event, Integer> counts = context.deserialize(json, type);
+			Map<Event, Integer> counts = context.deserialize(json, COUNTS_TYPE);
 			return new ScoreState(counts);
 		}
 	}
 
+	private static final Type COUNTS_TYPE = new TypeToken<Map<Event, Integer>>() {
+	}.getType();
+
 }
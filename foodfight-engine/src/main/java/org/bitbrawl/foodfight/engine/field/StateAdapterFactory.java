@@ -0,0 +1,616 @@
+package org.bitbrawl.foodfight.engine.field;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bitbrawl.foodfight.field.Event;
+import org.bitbrawl.foodfight.field.Food;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.field.Player;
+import org.bitbrawl.foodfight.util.Direction;
+import org.bitbrawl.foodfight.util.Vector;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming adapters for the state classes and the vectors and directions
+ * inside them. They read and write the same JSON as the tree serializers and
+ * deserializers nested in each class, without building a {@code JsonElement}
+ * for every object along the way. Enums keep the names given by their
+ * {@code SerializedName} annotations, as they would under
+ * {@link com.google.gson.GsonBuilder#enableComplexMapKeySerialization()}.
+ */
+public enum StateAdapterFactory implements TypeAdapterFactory {
+
+	INSTANCE;
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+		Class<? super T> rawType = type.getRawType();
+		if (rawType == FieldState.class)
+			return (TypeAdapter<T>) new FieldAdapter(gson);
+		if (rawType == TeamState.class)
+			return (TypeAdapter<T>) new TeamAdapter(gson);
+		if (rawType == PlayerState.class)
+			return (TypeAdapter<T>) new PlayerAdapter(gson);
+		if (rawType == TableState.class)
+			return (TypeAdapter<T>) new TableAdapter(gson);
+		if (rawType == ScoreState.class)
+			return (TypeAdapter<T>) new ScoreAdapter(gson);
+		if (rawType == InventoryState.class)
+			return (TypeAdapter<T>) new InventoryAdapter(gson);
+		if (rawType == FoodState.class)
+			return (TypeAdapter<T>) new FoodAdapter(gson);
+		if (rawType == CollisionState.class)
+			return (TypeAdapter<T>) new CollisionAdapter(gson);
+		if (rawType == Vector.class)
+			return (TypeAdapter<T>) new VectorAdapter();
+		if (rawType == Direction.class)
+			return (TypeAdapter<T>) new DirectionAdapter();
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return "StateAdapterFactory";
+	}
+
+	private static <T> void writeArray(JsonWriter out, TypeAdapter<T> adapter, Iterable<? extends T> values)
+			throws IOException {
+		out.beginArray();
+		for (T value : values)
+			adapter.write(out, value);
+		out.endArray();
+	}
+
+	private static <T> List<T> readArray(JsonReader in, TypeAdapter<T> adapter) throws IOException {
+		List<T> result = new ArrayList<>();
+		if (in.peek() == JsonToken.NULL) {
+			in.nextNull();
+			return result;
+		}
+		in.beginArray();
+		while (in.hasNext())
+			result.add(adapter.read(in));
+		in.endArray();
+		return result;
+	}
+
+	private static boolean readNull(JsonReader in) throws IOException {
+		if (in.peek() != JsonToken.NULL)
+			return false;
+		in.nextNull();
+		return true;
+	}
+
+	private static char readSymbol(JsonReader in) throws IOException {
+		String symbol = in.nextString();
+		if (symbol.length() != 1)
+			throw new JsonSyntaxException("Expected a symbol but was " + symbol);
+		return symbol.charAt(0);
+	}
+
+	// the names an enum's adapter gives its constants, for use as object keys
+	private static final class EnumNames<E extends Enum<E>> {
+
+		private final Map<E, String> names;
+		private final Map<String, E> constants = new HashMap<>();
+
+		EnumNames(Gson gson, Class<E> type) {
+			TypeAdapter<E> adapter = gson.getAdapter(type);
+			names = new EnumMap<>(type);
+			for (E constant : type.getEnumConstants()) {
+				String name = adapter.toJsonTree(constant).getAsString();
+				names.put(constant, name);
+				constants.put(name, constant);
+			}
+		}
+
+		String getName(E constant) {
+			return names.get(constant);
+		}
+
+		E getConstant(String name) {
+			E constant = constants.get(name);
+			if (constant == null)
+				throw new JsonSyntaxException("Unknown key: " + name);
+			return constant;
+		}
+
+	}
+
+	private static final class FieldAdapter extends TypeAdapter<FieldState> {
+
+		private final TypeAdapter<MatchType> matchTypes;
+		private final TypeAdapter<TeamState> teams;
+		private final TypeAdapter<FoodState> food;
+		private final TypeAdapter<CollisionState> collisions;
+
+		FieldAdapter(Gson gson) {
+			matchTypes = gson.getAdapter(MatchType.class);
+			teams = gson.getAdapter(TeamState.class);
+			food = gson.getAdapter(FoodState.class);
+			collisions = gson.getAdapter(CollisionState.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, FieldState value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("turnNumber").value(value.getTurnNumber());
+			out.name("type");
+			matchTypes.write(out, value.getMatchType());
+			out.name("teams");
+			writeArray(out, teams, value.getTeamStates());
+			out.name("food");
+			writeArray(out, food, value.getFoodStates());
+			out.name("collisions");
+			writeArray(out, collisions, value.getCollisionStates());
+			out.endObject();
+		}
+
+		@Override
+		public FieldState read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			int turnNumber = 0;
+			MatchType type = null;
+			List<TeamState> teamStates = Collections.emptyList();
+			List<FoodState> foodStates = Collections.emptyList();
+			List<CollisionState> collisionStates = Collections.emptyList();
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+				case "turnNumber":
+					turnNumber = in.nextInt();
+					break;
+				case "type":
+					type = matchTypes.read(in);
+					break;
+				case "teams":
+					teamStates = readArray(in, teams);
+					break;
+				case "food":
+					foodStates = readArray(in, food);
+					break;
+				case "collisions":
+					collisionStates = readArray(in, collisions);
+					break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return new FieldState(turnNumber, type, teamStates, foodStates, collisionStates);
+		}
+
+	}
+
+	private static final class TeamAdapter extends TypeAdapter<TeamState> {
+
+		private final TypeAdapter<PlayerState> players;
+		private final TypeAdapter<TableState> tables;
+		private final TypeAdapter<ScoreState> scores;
+
+		TeamAdapter(Gson gson) {
+			players = gson.getAdapter(PlayerState.class);
+			tables = gson.getAdapter(TableState.class);
+			scores = gson.getAdapter(ScoreState.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, TeamState value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("symbol").value(String.valueOf(value.getSymbol()));
+			out.name("players");
+			writeArray(out, players, value.getPlayerStates());
+			out.name("table");
+			tables.write(out, value.getTable());
+			out.name("score");
+			scores.write(out, value.getScore());
+			out.endObject();
+		}
+
+		@Override
+		public TeamState read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			char symbol = 0;
+			List<PlayerState> playerStates = Collections.emptyList();
+			TableState table = null;
+			ScoreState score = null;
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+				case "symbol":
+					symbol = readSymbol(in);
+					break;
+				case "players":
+					playerStates = readArray(in, players);
+					break;
+				case "table":
+					table = tables.read(in);
+					break;
+				case "score":
+					score = scores.read(in);
+					break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return new TeamState(symbol, playerStates, table, score);
+		}
+
+	}
+
+	private static final class PlayerAdapter extends TypeAdapter<PlayerState> {
+
+		private final TypeAdapter<Vector> vectors;
+		private final TypeAdapter<Direction> directions;
+		private final TypeAdapter<InventoryState> inventories;
+
+		PlayerAdapter(Gson gson) {
+			vectors = gson.getAdapter(Vector.class);
+			directions = gson.getAdapter(Direction.class);
+			inventories = gson.getAdapter(InventoryState.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, PlayerState value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("symbol").value(String.valueOf(value.getSymbol()));
+			out.name("location");
+			vectors.write(out, value.getLocation());
+			out.name("height").value(value.getHeight());
+			out.name("heading");
+			directions.write(out, value.getHeading());
+			out.name("inventory");
+			inventories.write(out, value.getInventory());
+			out.name("energy").value(value.getEnergy());
+			out.endObject();
+		}
+
+		@Override
+		public PlayerState read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			char symbol = 0;
+			Vector location = null;
+			double height = 0.0;
+			Direction heading = null;
+			InventoryState inventory = null;
+			double energy = 0.0;
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+				case "symbol":
+					symbol = readSymbol(in);
+					break;
+				case "location":
+					location = vectors.read(in);
+					break;
+				case "height":
+					height = in.nextDouble();
+					break;
+				case "heading":
+					heading = directions.read(in);
+					break;
+				case "inventory":
+					inventory = inventories.read(in);
+					break;
+				case "energy":
+					energy = in.nextDouble();
+					break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return new PlayerState(symbol, location, height, heading, inventory, energy);
+		}
+
+	}
+
+	private static final class TableAdapter extends TypeAdapter<TableState> {
+
+		private final TypeAdapter<Vector> vectors;
+		private final TypeAdapter<Food.Type> foodTypes;
+
+		TableAdapter(Gson gson) {
+			vectors = gson.getAdapter(Vector.class);
+			foodTypes = gson.getAdapter(Food.Type.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, TableState value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("location");
+			vectors.write(out, value.getLocation());
+			out.name("food");
+			writeArray(out, foodTypes, value.getFood());
+			out.endObject();
+		}
+
+		@Override
+		public TableState read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			Vector location = null;
+			List<Food.Type> food = Collections.emptyList();
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+				case "location":
+					location = vectors.read(in);
+					break;
+				case "food":
+					food = readArray(in, foodTypes);
+					break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return new TableState(location, food);
+		}
+
+	}
+
+	private static final class ScoreAdapter extends TypeAdapter<ScoreState> {
+
+		private final EnumNames<Event> events;
+
+		ScoreAdapter(Gson gson) {
+			events = new EnumNames<>(gson, Event.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, ScoreState value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			for (Map.Entry<Event, Integer> entry : value.getCounts().entrySet())
+				out.name(events.getName(entry.getKey())).value(entry.getValue());
+			out.endObject();
+		}
+
+		@Override
+		public ScoreState read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			Map<Event, Integer> counts = new EnumMap<>(Event.class);
+			in.beginObject();
+			while (in.hasNext())
+				counts.put(events.getConstant(in.nextName()), in.nextInt());
+			in.endObject();
+			return new ScoreState(counts);
+		}
+
+	}
+
+	private static final class InventoryAdapter extends TypeAdapter<InventoryState> {
+
+		private final EnumNames<Player.Hand> hands;
+		private final TypeAdapter<Food.Type> foodTypes;
+
+		InventoryAdapter(Gson gson) {
+			hands = new EnumNames<>(gson, Player.Hand.class);
+			foodTypes = gson.getAdapter(Food.Type.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, InventoryState value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			for (Map.Entry<Player.Hand, Food.Type> entry : value.getMap().entrySet()) {
+				out.name(hands.getName(entry.getKey()));
+				foodTypes.write(out, entry.getValue());
+			}
+			out.endObject();
+		}
+
+		@Override
+		public InventoryState read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			Map<Player.Hand, Food.Type> map = new EnumMap<>(Player.Hand.class);
+			in.beginObject();
+			while (in.hasNext()) {
+				Player.Hand hand = hands.getConstant(in.nextName());
+				map.put(hand, foodTypes.read(in));
+			}
+			in.endObject();
+			return new InventoryState(map);
+		}
+
+	}
+
+	private static final class FoodAdapter extends TypeAdapter<FoodState> {
+
+		private final TypeAdapter<Food.Type> foodTypes;
+		private final TypeAdapter<Vector> vectors;
+		private final TypeAdapter<Direction> directions;
+
+		FoodAdapter(Gson gson) {
+			foodTypes = gson.getAdapter(Food.Type.class);
+			vectors = gson.getAdapter(Vector.class);
+			directions = gson.getAdapter(Direction.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, FoodState value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("type");
+			foodTypes.write(out, value.getType());
+			out.name("location");
+			vectors.write(out, value.getLocation());
+			out.name("height").value(value.getHeight());
+			out.name("heading");
+			directions.write(out, value.getHeading());
+			out.endObject();
+		}
+
+		@Override
+		public FoodState read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			Food.Type type = null;
+			Vector location = null;
+			double height = 0.0;
+			Direction heading = null;
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+				case "type":
+					type = foodTypes.read(in);
+					break;
+				case "location":
+					location = vectors.read(in);
+					break;
+				case "height":
+					height = in.nextDouble();
+					break;
+				case "heading":
+					heading = directions.read(in);
+					break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return new FoodState(type, location, height, heading);
+		}
+
+	}
+
+	private static final class CollisionAdapter extends TypeAdapter<CollisionState> {
+
+		private final TypeAdapter<Vector> vectors;
+
+		CollisionAdapter(Gson gson) {
+			vectors = gson.getAdapter(Vector.class);
+		}
+
+		@Override
+		public void write(JsonWriter out, CollisionState value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginObject();
+			out.name("location");
+			vectors.write(out, value.getLocation());
+			out.name("damage").value(value.getDamage());
+			out.endObject();
+		}
+
+		@Override
+		public CollisionState read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			Vector location = null;
+			double damage = 0.0;
+			in.beginObject();
+			while (in.hasNext()) {
+				switch (in.nextName()) {
+				case "location":
+					location = vectors.read(in);
+					break;
+				case "damage":
+					damage = in.nextDouble();
+					break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return new CollisionState(location, damage);
+		}
+
+	}
+
+	private static final class VectorAdapter extends TypeAdapter<Vector> {
+
+		@Override
+		public void write(JsonWriter out, Vector value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.beginArray().value(value.getX()).value(value.getY()).endArray();
+		}
+
+		@Override
+		public Vector read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			in.beginArray();
+			double x = in.nextDouble();
+			double y = in.nextDouble();
+			while (in.hasNext())
+				in.skipValue();
+			in.endArray();
+			return Vector.cartesian(x, y);
+		}
+
+	}
+
+	private static final class DirectionAdapter extends TypeAdapter<Direction> {
+
+		@Override
+		public void write(JsonWriter out, Direction value) throws IOException {
+			if (value == null) {
+				out.nullValue();
+				return;
+			}
+			out.value(value.get());
+		}
+
+		@Override
+		public Direction read(JsonReader in) throws IOException {
+			if (readNull(in))
+				return null;
+			return new Direction(in.nextDouble());
+		}
+
+	}
+
+}
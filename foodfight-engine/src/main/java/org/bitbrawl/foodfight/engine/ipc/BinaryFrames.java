@@ -0,0 +1,16 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+final class BinaryFrames {
+
+	private BinaryFrames() {
+		throw new AssertionError("BinaryFrames is not instantiable");
+	}
+
+	static final byte TEXT = 1;
+	static final byte TURN = 2;
+	static final byte ACTION = 3;
+	static final byte DELTA = 4;
+
+	static final byte NONE = -1;
+
+}
@@ -0,0 +1,131 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+
+import net.jcip.annotations.NotThreadSafe;
+
+@NotThreadSafe
+final class BinaryMessageReader implements MessageReader {
+
+	private final DataInputStream in;
+	private byte[] frame = new byte[1024];
+	private ByteBuffer payload;
+	private int pendingTag = -1;
+	private FieldState base;
+
+	BinaryMessageReader(InputStream in) {
+		this.in = new DataInputStream(new BufferedInputStream(in));
+	}
+
+	@Override
+	public MessageType peek() throws IOException {
+		if (pendingTag < 0) {
+			pendingTag = in.read();
+			if (pendingTag < 0)
+				return MessageType.END;
+		}
+		switch (pendingTag) {
+		case BinaryFrames.TEXT:
+			return MessageType.TEXT;
+		case BinaryFrames.TURN:
+		case BinaryFrames.DELTA:
+			return MessageType.TURN;
+		case BinaryFrames.ACTION:
+			return MessageType.ACTION;
+		default:
+			throw new StreamCorruptedException("Unknown frame tag: " + pendingTag);
+		}
+	}
+
+	@Override
+	public String readText() throws IOException {
+		readFrame(BinaryFrames.TEXT);
+		try {
+			int length = payload.getInt();
+			if (length < 0 || length > payload.remaining())
+				throw new StreamCorruptedException("Invalid text length: " + length);
+			return new String(frame, payload.position(), length, StandardCharsets.UTF_8);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new StreamCorruptedException("Truncated text frame");
+		}
+	}
+
+	@Override
+	public TurnMessage readTurn() throws IOException {
+		boolean isDelta = peek() == MessageType.TURN && pendingTag == BinaryFrames.DELTA;
+		readFrame(isDelta ? BinaryFrames.DELTA : BinaryFrames.TURN);
+		try {
+			FieldState field;
+			if (isDelta) {
+				if (base == null)
+					throw new DesyncException("Received a delta without a keyframe");
+				field = FieldDelta.read(payload, base);
+				if (payload.getLong() != FieldDelta.checksum(field)) {
+					base = null;
+					throw new DesyncException("Checksum mismatch on turn " + field.getTurnNumber());
+				}
+			} else {
+				field = FieldCodec.readField(payload);
+			}
+			base = field;
+			char teamSymbol = payload.getChar();
+			char playerSymbol = payload.getChar();
+			return new TurnMessage(field, teamSymbol, playerSymbol);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			base = null;
+			throw new StreamCorruptedException("Truncated turn frame");
+		}
+	}
+
+	@Override
+	public Action readAction() throws IOException {
+		readFrame(BinaryFrames.ACTION);
+		try {
+			int ordinal = payload.get();
+			return ordinal == BinaryFrames.NONE ? null : ACTIONS[ordinal];
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new StreamCorruptedException("Invalid action frame");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private void readFrame(byte tag) throws IOException {
+		MessageType type = peek();
+		if (type == MessageType.END)
+			throw new EOFException("Expected frame " + tag);
+		if (pendingTag != tag)
+			throw new StreamCorruptedException("Expected frame " + tag + ", but was " + pendingTag);
+		pendingTag = -1;
+		try {
+			int length = in.readInt();
+			if (length < 0)
+				throw new StreamCorruptedException("Negative frame length: " + length);
+			if (length > frame.length)
+				frame = new byte[Math.max(length, frame.length * 2)];
+			in.readFully(frame, 0, length);
+			payload = ByteBuffer.wrap(frame, 0, length);
+		} catch (EOFException e) {
+			// the stream may only end between frames
+			base = null;
+			throw new StreamCorruptedException("Truncated frame " + tag);
+		}
+	}
+
+	private static final Action[] ACTIONS = Action.values();
+
+}
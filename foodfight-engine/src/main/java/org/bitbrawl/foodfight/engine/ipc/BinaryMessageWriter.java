@@ -0,0 +1,89 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+
+import net.jcip.annotations.NotThreadSafe;
+
+@NotThreadSafe
+final class BinaryMessageWriter implements MessageWriter {
+
+	private final DataOutputStream out;
+	private final ByteArrayOutputStream frame = new ByteArrayOutputStream(1024);
+	private final DataOutputStream payload = new DataOutputStream(frame);
+	private final boolean useDeltas;
+	private FieldState base;
+	private int turnsSinceKeyframe;
+
+	BinaryMessageWriter(OutputStream out, boolean useDeltas) {
+		this.out = new DataOutputStream(new BufferedOutputStream(out));
+		this.useDeltas = useDeltas;
+	}
+
+	@Override
+	public void writeText(String text) throws IOException {
+		frame.reset();
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		payload.writeInt(bytes.length);
+		payload.write(bytes);
+		writeFrame(BinaryFrames.TEXT);
+	}
+
+	@Override
+	public void writeTurn(FieldState field, char teamSymbol, char playerSymbol) throws IOException {
+		frame.reset();
+		byte tag;
+		if (useDeltas && turnsSinceKeyframe < KEYFRAME_INTERVAL && FieldDelta.canEncode(base, field)) {
+			FieldDelta.write(payload, base, field);
+			payload.writeLong(FieldDelta.checksum(field));
+			turnsSinceKeyframe++;
+			tag = BinaryFrames.DELTA;
+		} else {
+			FieldCodec.writeField(payload, field);
+			turnsSinceKeyframe = 0;
+			tag = BinaryFrames.TURN;
+		}
+		payload.writeChar(teamSymbol);
+		payload.writeChar(playerSymbol);
+		writeFrame(tag);
+		base = field;
+	}
+
+	@Override
+	public void writeAction(Action action) throws IOException {
+		frame.reset();
+		payload.writeByte(action == null ? BinaryFrames.NONE : action.ordinal());
+		writeFrame(BinaryFrames.ACTION);
+	}
+
+	@Override
+	public void resync() {
+		base = null;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	private void writeFrame(byte tag) throws IOException {
+		out.writeByte(tag);
+		out.writeInt(frame.size());
+		frame.writeTo(out);
+	}
+
+	static final int KEYFRAME_INTERVAL = 100;
+
+}
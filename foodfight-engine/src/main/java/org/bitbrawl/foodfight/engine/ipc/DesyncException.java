@@ -0,0 +1,13 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.IOException;
+
+public final class DesyncException extends IOException {
+
+	public DesyncException(String message) {
+		super(message);
+	}
+
+	private static final long serialVersionUID = 1L;
+
+}
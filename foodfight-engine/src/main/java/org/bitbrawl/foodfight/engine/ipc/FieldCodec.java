@@ -0,0 +1,207 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bitbrawl.foodfight.engine.field.CollisionState;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.FoodState;
+import org.bitbrawl.foodfight.engine.field.InventoryState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.engine.field.TableState;
+import org.bitbrawl.foodfight.engine.field.TeamState;
+import org.bitbrawl.foodfight.field.Event;
+import org.bitbrawl.foodfight.field.Food;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.field.Player;
+import org.bitbrawl.foodfight.util.Direction;
+import org.bitbrawl.foodfight.util.Vector;
+
+final class FieldCodec {
+
+	private FieldCodec() {
+		throw new AssertionError("FieldCodec is not instantiable");
+	}
+
+	static void writeField(DataOutput out, FieldState field) throws IOException {
+
+		out.writeInt(field.getTurnNumber());
+		out.writeByte(field.getMatchType().ordinal());
+
+		Set<TeamState> teams = field.getTeamStates();
+		out.writeByte(teams.size());
+		for (TeamState team : teams) {
+			out.writeChar(team.getSymbol());
+			Set<PlayerState> players = team.getPlayerStates();
+			out.writeByte(players.size());
+			for (PlayerState player : players)
+				writePlayer(out, player);
+			writeTable(out, team.getTable());
+			writeScore(out, team.getScore());
+		}
+
+		Set<FoodState> food = field.getFoodStates();
+		out.writeShort(food.size());
+		for (FoodState piece : food)
+			writeFood(out, piece);
+
+		writeCollisions(out, field.getCollisionStates());
+
+	}
+
+	static FieldState readField(ByteBuffer in) {
+
+		int turnNumber = in.getInt();
+		MatchType type = MATCH_TYPES[in.get()];
+
+		int numTeams = in.get();
+		List<TeamState> teams = new ArrayList<>(numTeams);
+		for (int i = 0; i < numTeams; i++) {
+			char symbol = in.getChar();
+			int numPlayers = in.get();
+			List<PlayerState> players = new ArrayList<>(numPlayers);
+			for (int j = 0; j < numPlayers; j++)
+				players.add(readPlayer(in));
+			TableState table = readTable(in);
+			ScoreState score = readScore(in);
+			teams.add(new TeamState(symbol, players, table, score));
+		}
+
+		int numFood = in.getShort();
+		List<FoodState> food = new ArrayList<>(numFood);
+		for (int i = 0; i < numFood; i++)
+			food.add(readFood(in));
+
+		return new FieldState(turnNumber, type, teams, food, readCollisions(in));
+
+	}
+
+	static void writePlayer(DataOutput out, PlayerState player) throws IOException {
+		out.writeChar(player.getSymbol());
+		writeVector(out, player.getLocation());
+		out.writeDouble(player.getHeight());
+		out.writeDouble(player.getHeading().get());
+		InventoryState inventory = player.getInventory();
+		for (Player.Hand hand : HANDS)
+			writeFoodType(out, inventory.get(hand));
+		out.writeDouble(player.getEnergy());
+	}
+
+	static PlayerState readPlayer(ByteBuffer in) {
+		char symbol = in.getChar();
+		Vector location = readVector(in);
+		double height = in.getDouble();
+		Direction heading = new Direction(in.getDouble());
+		Map<Player.Hand, Food.Type> inventory = new EnumMap<>(Player.Hand.class);
+		for (Player.Hand hand : HANDS) {
+			int ordinal = in.get();
+			if (ordinal != BinaryFrames.NONE)
+				inventory.put(hand, FOOD_TYPES[ordinal]);
+		}
+		double energy = in.getDouble();
+		return new PlayerState(symbol, location, height, heading, new InventoryState(inventory), energy);
+	}
+
+	static void writeTable(DataOutput out, TableState table) throws IOException {
+		writeVector(out, table.getLocation());
+		int foodMask = 0;
+		for (Food.Type type : table.getFood())
+			foodMask |= 1 << type.ordinal();
+		out.writeInt(foodMask);
+	}
+
+	static TableState readTable(ByteBuffer in) {
+		Vector location = readVector(in);
+		int foodMask = in.getInt();
+		Set<Food.Type> food = EnumSet.noneOf(Food.Type.class);
+		for (Food.Type type : FOOD_TYPES)
+			if ((foodMask & 1 << type.ordinal()) != 0)
+				food.add(type);
+		return new TableState(location, food);
+	}
+
+	static void writeScore(DataOutput out, ScoreState score) throws IOException {
+		int numEvents = 0;
+		for (Event event : EVENTS)
+			if (score.getCount(event) != 0)
+				numEvents++;
+		out.writeByte(numEvents);
+		for (Event event : EVENTS) {
+			int count = score.getCount(event);
+			if (count == 0)
+				continue;
+			out.writeByte(event.ordinal());
+			out.writeInt(count);
+		}
+	}
+
+	static ScoreState readScore(ByteBuffer in) {
+		int numEvents = in.get();
+		Map<Event, Integer> counts = new EnumMap<>(Event.class);
+		for (int i = 0; i < numEvents; i++) {
+			Event event = EVENTS[in.get()];
+			counts.put(event, in.getInt());
+		}
+		return new ScoreState(counts);
+	}
+
+	static void writeFood(DataOutput out, FoodState food) throws IOException {
+		out.writeByte(food.getType().ordinal());
+		writeVector(out, food.getLocation());
+		out.writeDouble(food.getHeight());
+		out.writeDouble(food.getHeading().get());
+	}
+
+	static FoodState readFood(ByteBuffer in) {
+		Food.Type type = FOOD_TYPES[in.get()];
+		Vector location = readVector(in);
+		double height = in.getDouble();
+		Direction heading = new Direction(in.getDouble());
+		return new FoodState(type, location, height, heading);
+	}
+
+	static void writeCollisions(DataOutput out, Set<CollisionState> collisions) throws IOException {
+		out.writeShort(collisions.size());
+		for (CollisionState collision : collisions) {
+			writeVector(out, collision.getLocation());
+			out.writeDouble(collision.getDamage());
+		}
+	}
+
+	static List<CollisionState> readCollisions(ByteBuffer in) {
+		int numCollisions = in.getShort();
+		List<CollisionState> collisions = new ArrayList<>(numCollisions);
+		for (int i = 0; i < numCollisions; i++)
+			collisions.add(new CollisionState(readVector(in), in.getDouble()));
+		return collisions;
+	}
+
+	static void writeFoodType(DataOutput out, Food.Type type) throws IOException {
+		out.writeByte(type == null ? BinaryFrames.NONE : type.ordinal());
+	}
+
+	static void writeVector(DataOutput out, Vector vector) throws IOException {
+		out.writeDouble(vector.getX());
+		out.writeDouble(vector.getY());
+	}
+
+	static Vector readVector(ByteBuffer in) {
+		double x = in.getDouble();
+		double y = in.getDouble();
+		return Vector.cartesian(x, y);
+	}
+
+	static final Player.Hand[] HANDS = Player.Hand.values();
+	static final MatchType[] MATCH_TYPES = MatchType.values();
+	static final Food.Type[] FOOD_TYPES = Food.Type.values();
+	static final Event[] EVENTS = Event.values();
+
+}
@@ -0,0 +1,258 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.bitbrawl.foodfight.engine.field.CollisionState;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.FoodState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.engine.field.TableState;
+import org.bitbrawl.foodfight.engine.field.TeamState;
+import org.bitbrawl.foodfight.field.Event;
+import org.bitbrawl.foodfight.field.Food;
+import org.bitbrawl.foodfight.field.Player;
+import org.bitbrawl.foodfight.util.Vector;
+
+/*
+ * A delta lists, for each team, a bitmask of the players that changed
+ * followed by those players, and flags for a changed table and score. Food is
+ * matched by position in the same way, and collisions are always sent in
+ * full because they only last for one turn.
+ */
+final class FieldDelta {
+
+	private FieldDelta() {
+		throw new AssertionError("FieldDelta is not instantiable");
+	}
+
+	static boolean canEncode(FieldState base, FieldState field) {
+
+		if (base == null || field.getTurnNumber() != base.getTurnNumber() + 1)
+			return false;
+		if (field.getMatchType() != base.getMatchType())
+			return false;
+		if (field.getFoodStates().size() > Long.SIZE || base.getFoodStates().size() > Long.SIZE)
+			return false;
+
+		Set<TeamState> teams = field.getTeamStates(), baseTeams = base.getTeamStates();
+		if (teams.size() != baseTeams.size())
+			return false;
+		Iterator<TeamState> baseTeamIt = baseTeams.iterator();
+		for (TeamState team : teams) {
+			TeamState baseTeam = baseTeamIt.next();
+			if (team.getSymbol() != baseTeam.getSymbol())
+				return false;
+			Set<PlayerState> players = team.getPlayerStates(), basePlayers = baseTeam.getPlayerStates();
+			if (players.size() != basePlayers.size() || players.size() > Long.SIZE)
+				return false;
+			Iterator<PlayerState> basePlayerIt = basePlayers.iterator();
+			for (PlayerState player : players)
+				if (player.getSymbol() != basePlayerIt.next().getSymbol())
+					return false;
+		}
+
+		return true;
+
+	}
+
+	static void write(DataOutput out, FieldState base, FieldState field) throws IOException {
+		assert canEncode(base, field);
+
+		out.writeInt(field.getTurnNumber());
+
+		Iterator<TeamState> baseTeamIt = base.getTeamStates().iterator();
+		for (TeamState team : field.getTeamStates()) {
+			TeamState baseTeam = baseTeamIt.next();
+
+			List<PlayerState> changed = new ArrayList<>();
+			long playerMask = 0L;
+			int i = 0;
+			Iterator<PlayerState> basePlayerIt = baseTeam.getPlayerStates().iterator();
+			for (PlayerState player : team.getPlayerStates()) {
+				if (!isSame(player, basePlayerIt.next())) {
+					playerMask |= 1L << i;
+					changed.add(player);
+				}
+				i++;
+			}
+			out.writeLong(playerMask);
+			for (PlayerState player : changed)
+				FieldCodec.writePlayer(out, player);
+
+			boolean tableChanged = !isSame(team.getTable(), baseTeam.getTable());
+			boolean scoreChanged = !isSame(team.getScore(), baseTeam.getScore());
+			out.writeByte((tableChanged ? TABLE_CHANGED : 0) | (scoreChanged ? SCORE_CHANGED : 0));
+			if (tableChanged)
+				FieldCodec.writeTable(out, team.getTable());
+			if (scoreChanged)
+				FieldCodec.writeScore(out, team.getScore());
+
+		}
+
+		Set<FoodState> food = field.getFoodStates();
+		List<FoodState> baseFood = new ArrayList<>(base.getFoodStates());
+		List<FoodState> changed = new ArrayList<>();
+		long foodMask = 0L;
+		int i = 0;
+		for (FoodState piece : food) {
+			if (i >= baseFood.size() || !isSame(piece, baseFood.get(i))) {
+				foodMask |= 1L << i;
+				changed.add(piece);
+			}
+			i++;
+		}
+		out.writeShort(food.size());
+		out.writeLong(foodMask);
+		for (FoodState piece : changed)
+			FieldCodec.writeFood(out, piece);
+
+		FieldCodec.writeCollisions(out, field.getCollisionStates());
+
+	}
+
+	static FieldState read(ByteBuffer in, FieldState base) {
+
+		int turnNumber = in.getInt();
+
+		Set<TeamState> baseTeams = base.getTeamStates();
+		List<TeamState> teams = new ArrayList<>(baseTeams.size());
+		for (TeamState baseTeam : baseTeams) {
+
+			long playerMask = in.getLong();
+			Set<PlayerState> basePlayers = baseTeam.getPlayerStates();
+			List<PlayerState> players = new ArrayList<>(basePlayers.size());
+			int i = 0;
+			for (PlayerState basePlayer : basePlayers)
+				players.add((playerMask & 1L << i++) != 0 ? FieldCodec.readPlayer(in) : basePlayer);
+
+			int flags = in.get();
+			TableState table = (flags & TABLE_CHANGED) != 0 ? FieldCodec.readTable(in) : baseTeam.getTable();
+			ScoreState score = (flags & SCORE_CHANGED) != 0 ? FieldCodec.readScore(in) : baseTeam.getScore();
+			teams.add(new TeamState(baseTeam.getSymbol(), players, table, score));
+
+		}
+
+		int numFood = in.getShort();
+		long foodMask = in.getLong();
+		List<FoodState> baseFood = new ArrayList<>(base.getFoodStates());
+		List<FoodState> food = new ArrayList<>(numFood);
+		for (int i = 0; i < numFood; i++) {
+			if ((foodMask & 1L << i) != 0)
+				food.add(FieldCodec.readFood(in));
+			else
+				food.add(baseFood.get(i));
+		}
+
+		List<CollisionState> collisions = FieldCodec.readCollisions(in);
+
+		return new FieldState(turnNumber, base.getMatchType(), teams, food, collisions);
+
+	}
+
+	static long checksum(FieldState field) {
+
+		long hash = mix(OFFSET, field.getTurnNumber());
+		hash = mix(hash, field.getMatchType().ordinal());
+
+		for (TeamState team : field.getTeamStates()) {
+			hash = mix(hash, team.getSymbol());
+			for (PlayerState player : team.getPlayerStates()) {
+				hash = mix(hash, player.getSymbol());
+				hash = mix(hash, player.getLocation());
+				hash = mix(hash, player.getHeight());
+				hash = mix(hash, player.getHeading().get());
+				for (Player.Hand hand : FieldCodec.HANDS) {
+					Food.Type type = player.getInventory().get(hand);
+					hash = mix(hash, type == null ? -1 : type.ordinal());
+				}
+				hash = mix(hash, player.getEnergy());
+			}
+			TableState table = team.getTable();
+			hash = mix(hash, table.getLocation());
+			for (Food.Type type : table.getFood())
+				hash = mix(hash, type.ordinal());
+			ScoreState score = team.getScore();
+			for (Event event : FieldCodec.EVENTS)
+				hash = mix(hash, score.getCount(event));
+		}
+
+		for (FoodState piece : field.getFoodStates()) {
+			hash = mix(hash, piece.getType().ordinal());
+			hash = mix(hash, piece.getLocation());
+			hash = mix(hash, piece.getHeight());
+			hash = mix(hash, piece.getHeading().get());
+		}
+
+		for (CollisionState collision : field.getCollisionStates()) {
+			hash = mix(hash, collision.getLocation());
+			hash = mix(hash, collision.getDamage());
+		}
+
+		return hash;
+
+	}
+
+	private static boolean isSame(PlayerState a, PlayerState b) {
+		if (a == b)
+			return true;
+		if (a.getSymbol() != b.getSymbol() || !isSame(a.getLocation(), b.getLocation()))
+			return false;
+		if (!isSame(a.getHeight(), b.getHeight()) || !isSame(a.getHeading().get(), b.getHeading().get()))
+			return false;
+		for (Player.Hand hand : FieldCodec.HANDS)
+			if (a.getInventory().get(hand) != b.getInventory().get(hand))
+				return false;
+		return isSame(a.getEnergy(), b.getEnergy());
+	}
+
+	private static boolean isSame(TableState a, TableState b) {
+		return a == b || isSame(a.getLocation(), b.getLocation()) && a.getFood().equals(b.getFood());
+	}
+
+	private static boolean isSame(ScoreState a, ScoreState b) {
+		if (a == b)
+			return true;
+		for (Event event : FieldCodec.EVENTS)
+			if (a.getCount(event) != b.getCount(event))
+				return false;
+		return true;
+	}
+
+	private static boolean isSame(FoodState a, FoodState b) {
+		return a == b || a.getType() == b.getType() && isSame(a.getLocation(), b.getLocation())
+				&& isSame(a.getHeight(), b.getHeight()) && isSame(a.getHeading().get(), b.getHeading().get());
+	}
+
+	private static boolean isSame(Vector a, Vector b) {
+		return isSame(a.getX(), b.getX()) && isSame(a.getY(), b.getY());
+	}
+
+	private static boolean isSame(double a, double b) {
+		return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+	}
+
+	private static long mix(long hash, Vector vector) {
+		return mix(mix(hash, vector.getX()), vector.getY());
+	}
+
+	private static long mix(long hash, double value) {
+		return mix(hash, Double.doubleToLongBits(value));
+	}
+
+	private static long mix(long hash, long value) {
+		return (hash ^ value) * PRIME;
+	}
+
+	private static final int TABLE_CHANGED = 1;
+	private static final int SCORE_CHANGED = 2;
+	private static final long OFFSET = 0xcbf29ce484222325L;
+	private static final long PRIME = 0x100000001b3L;
+
+}
@@ -0,0 +1,88 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.StateAdapterFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+
+import net.jcip.annotations.NotThreadSafe;
+
+@NotThreadSafe
+final class JsonMessageReader implements MessageReader {
+
+	private final JsonReader jsonReader;
+
+	JsonMessageReader(InputStream in) {
+		jsonReader = new JsonReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+		jsonReader.setLenient(true);
+	}
+
+	@Override
+	public MessageType peek() throws IOException {
+		switch (jsonReader.peek()) {
+		case STRING:
+			return MessageType.TEXT;
+		case BEGIN_OBJECT:
+			return MessageType.TURN;
+		case END_DOCUMENT:
+			return MessageType.END;
+		default:
+			return MessageType.ACTION;
+		}
+	}
+
+	@Override
+	public String readText() throws IOException {
+		return fromJson(String.class);
+	}
+
+	@Override
+	public TurnMessage readTurn() throws IOException {
+		FieldState field = fromJson(FieldState.class);
+		char teamSymbol = fromJson(char.class);
+		char playerSymbol = fromJson(char.class);
+		return new TurnMessage(field, teamSymbol, playerSymbol);
+	}
+
+	@Override
+	public Action readAction() throws IOException {
+		try {
+			return gson.fromJson(jsonReader, Action.class);
+		} catch (JsonIOException | JsonSyntaxException e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		jsonReader.close();
+	}
+
+	private <T> T fromJson(Class<T> classOfT) throws IOException {
+		T result;
+		try {
+			result = gson.fromJson(jsonReader, classOfT);
+		} catch (JsonIOException | JsonSyntaxException e) {
+			throw new IOException(e);
+		}
+		if (result == null)
+			throw new EOFException("Expected " + classOfT.getSimpleName());
+		return result;
+	}
+
+	private static final Gson gson = new GsonBuilder()
+			.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE).create();
+
+}
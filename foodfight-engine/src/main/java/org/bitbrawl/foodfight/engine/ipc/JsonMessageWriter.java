@@ -0,0 +1,73 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.StateAdapterFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+
+import net.jcip.annotations.NotThreadSafe;
+
+@NotThreadSafe
+final class JsonMessageWriter implements MessageWriter {
+
+	private final Writer writer;
+
+	JsonMessageWriter(OutputStream out) {
+		writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public void writeText(String text) throws IOException {
+		toJson(text);
+	}
+
+	@Override
+	public void writeTurn(FieldState field, char teamSymbol, char playerSymbol) throws IOException {
+		toJson(field);
+		toJson(teamSymbol);
+		toJson(playerSymbol);
+	}
+
+	@Override
+	public void writeAction(Action action) throws IOException {
+		toJson(action);
+		writer.write(" ");
+	}
+
+	@Override
+	public void resync() {
+		// every JSON turn is a full update
+	}
+
+	@Override
+	public void flush() throws IOException {
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	private void toJson(Object src) throws IOException {
+		try {
+			gson.toJson(src, writer);
+		} catch (JsonIOException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private static final Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE).create();
+
+}
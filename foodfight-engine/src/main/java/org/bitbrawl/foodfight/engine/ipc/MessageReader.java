@@ -0,0 +1,18 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+
+public interface MessageReader extends Closeable {
+
+	public MessageType peek() throws IOException;
+
+	public String readText() throws IOException;
+
+	public TurnMessage readTurn() throws IOException;
+
+	public Action readAction() throws IOException;
+
+}
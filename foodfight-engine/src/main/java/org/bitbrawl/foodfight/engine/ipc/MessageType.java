@@ -0,0 +1,5 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+public enum MessageType {
+	TEXT, TURN, ACTION, END;
+}
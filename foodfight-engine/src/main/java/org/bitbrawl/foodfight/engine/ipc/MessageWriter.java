@@ -0,0 +1,20 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+
+public interface MessageWriter extends Flushable, Closeable {
+
+	public void writeText(String text) throws IOException;
+
+	public void writeTurn(FieldState field, char teamSymbol, char playerSymbol) throws IOException;
+
+	public void writeAction(Action action) throws IOException;
+
+	public void resync();
+
+}
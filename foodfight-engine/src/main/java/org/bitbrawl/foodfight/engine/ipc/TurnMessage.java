@@ -0,0 +1,32 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+
+import net.jcip.annotations.Immutable;
+
+@Immutable
+public final class TurnMessage {
+
+	private final FieldState field;
+	private final char teamSymbol;
+	private final char playerSymbol;
+
+	public TurnMessage(FieldState field, char teamSymbol, char playerSymbol) {
+		this.field = field;
+		this.teamSymbol = teamSymbol;
+		this.playerSymbol = playerSymbol;
+	}
+
+	public FieldState getField() {
+		return field;
+	}
+
+	public char getTeamSymbol() {
+		return teamSymbol;
+	}
+
+	public char getPlayerSymbol() {
+		return playerSymbol;
+	}
+
+}
@@ -0,0 +1,46 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public enum WireFormat {
+
+	JSON {
+		@Override
+		public MessageReader newReader(InputStream in) {
+			return new JsonMessageReader(in);
+		}
+
+		@Override
+		public MessageWriter newWriter(OutputStream out) {
+			return new JsonMessageWriter(out);
+		}
+	},
+	BINARY {
+		@Override
+		public MessageReader newReader(InputStream in) {
+			return new BinaryMessageReader(in);
+		}
+
+		@Override
+		public MessageWriter newWriter(OutputStream out) {
+			return new BinaryMessageWriter(out, false);
+		}
+	},
+	DELTA {
+		@Override
+		public MessageReader newReader(InputStream in) {
+			return new BinaryMessageReader(in);
+		}
+
+		@Override
+		public MessageWriter newWriter(OutputStream out) {
+			return new BinaryMessageWriter(out, true);
+		}
+	};
+
+	public abstract MessageReader newReader(InputStream in);
+
+	public abstract MessageWriter newWriter(OutputStream out);
+
+}
@@ -0,0 +1,251 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+import org.bitbrawl.foodfight.field.Field;
+
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * A compact record of a match: the actions played and the state of the
+ * {@link MatchRandom} on every turn, plus a full {@link FieldState} every few
+ * turns. Any state of the match is rebuilt by replaying the turns after the
+ * nearest keyframe with a {@link DefaultTurnRunner}, which produces exactly
+ * the states the match itself did.
+ */
+@Immutable
+public final class ActionTrace {
+
+	private final int matchNumber;
+	private final long seed;
+	private final Map<Character, String> names;
+	private final int keyframeInterval;
+	private final List<FieldState> keyframes;
+	private final long[] randomStates;
+	private final String[] actions;
+
+	private ActionTrace(int matchNumber, long seed, Map<Character, String> names, int keyframeInterval,
+			List<FieldState> keyframes, long[] randomStates, String[] actions) {
+		if (keyframeInterval <= 0)
+			throw new IllegalArgumentException("keyframeInterval must be positive, but is: " + keyframeInterval);
+		if (randomStates.length != actions.length)
+			throw new IllegalArgumentException("Every turn needs both a random state and actions");
+		if (keyframes.size() != actions.length / keyframeInterval + 1)
+			throw new IllegalArgumentException("Wrong number of keyframes: " + keyframes.size());
+		this.matchNumber = matchNumber;
+		this.seed = seed;
+		this.names = Collections.unmodifiableMap(new LinkedHashMap<>(names));
+		this.keyframeInterval = keyframeInterval;
+		this.keyframes = Collections.unmodifiableList(new ArrayList<>(keyframes));
+		this.randomStates = randomStates;
+		this.actions = actions;
+	}
+
+	public int getMatchNumber() {
+		return matchNumber;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public Map<Character, String> getNames() {
+		return names;
+	}
+
+	/**
+	 * Returns the number of states in this trace, which is one more than the
+	 * number of turns played, like the states of a {@link MatchHistory}.
+	 */
+	public int getNumberOfStates() {
+		return actions.length + 1;
+	}
+
+	/**
+	 * Rebuilds one state of the match. The index is the same as in
+	 * {@link MatchHistory#getFieldStates()}, and at most one keyframe interval
+	 * of turns is replayed to reach it.
+	 */
+	public FieldState getState(int index) {
+		if (index < 0 || index >= getNumberOfStates())
+			throw new IndexOutOfBoundsException("No state " + index + " in a trace of " + getNumberOfStates());
+
+		int start = index / keyframeInterval * keyframeInterval;
+		FieldState state = keyframes.get(start / keyframeInterval);
+		TurnRunner runner = new DefaultTurnRunner();
+		MatchRandom random = new MatchRandom(seed);
+		for (int i = start; i < index; i++)
+			state = replayTurn(runner, random, state, i);
+		return state;
+	}
+
+	public FieldState getFinalState() {
+		return getState(actions.length);
+	}
+
+	/**
+	 * Replays the whole match, handing each state to the consumer in order
+	 * without keeping any of them.
+	 */
+	public void forEachState(Consumer<? super FieldState> action) {
+		TurnRunner runner = new DefaultTurnRunner();
+		MatchRandom random = new MatchRandom(seed);
+		FieldState state = keyframes.get(0);
+		action.accept(state);
+		for (int i = 0; i < actions.length; i++) {
+			state = replayTurn(runner, random, state, i);
+			action.accept(state);
+		}
+	}
+
+	/**
+	 * Replays the whole match into a full {@link MatchHistory}.
+	 */
+	public MatchHistory toHistory() {
+		List<FieldState> states = new ArrayList<>(getNumberOfStates());
+		forEachState(states::add);
+		return new MatchHistory(matchNumber, seed, names::get, states);
+	}
+
+	private FieldState replayTurn(TurnRunner runner, MatchRandom random, FieldState state, int turn) {
+		random.setState(randomStates[turn]);
+		return runner.runTurn(state, decodeActions(actions[turn]), random);
+	}
+
+	@Override
+	public String toString() {
+		return "ActionTrace[matchNumber=" + matchNumber + ",seed=" + seed + ",turns=" + actions.length + ']';
+	}
+
+	// two characters per player, in the order the actions were played
+	static String encodeActions(Map<? extends Character, ? extends Action> actions) {
+		StringBuilder result = new StringBuilder(actions.size() * 2);
+		for (Map.Entry<? extends Character, ? extends Action> entry : actions.entrySet()) {
+			Action action = entry.getValue();
+			result.append(entry.getKey().charValue());
+			result.append(action == null ? NO_ACTION : (char) (FIRST_ACTION + action.ordinal()));
+		}
+		return result.toString();
+	}
+
+	static Map<Character, Action> decodeActions(String encoded) {
+		Map<Character, Action> result = new LinkedHashMap<>();
+		for (int i = 0; i + 1 < encoded.length(); i += 2) {
+			char code = encoded.charAt(i + 1);
+			result.put(encoded.charAt(i), code == NO_ACTION ? null : ACTIONS[code - FIRST_ACTION]);
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the turns of a running match. A {@link Match} given a recorder
+	 * through its builder reports every turn to it.
+	 */
+	@NotThreadSafe
+	public static final class Recorder {
+
+		private final int matchNumber;
+		private final long seed;
+		private final CharFunction<String> names;
+		private final int keyframeInterval;
+		private final List<FieldState> keyframes = new ArrayList<>();
+		private final List<Long> randomStates = new ArrayList<>(Field.TOTAL_TURNS);
+		private final List<String> actions = new ArrayList<>(Field.TOTAL_TURNS);
+		private FieldState lastState;
+
+		public Recorder(int matchNumber, long seed, CharFunction<String> names, int keyframeInterval) {
+			if (keyframeInterval <= 0)
+				throw new IllegalArgumentException("keyframeInterval must be positive, but is: " + keyframeInterval);
+			this.matchNumber = matchNumber;
+			this.seed = seed;
+			this.names = names;
+			this.keyframeInterval = keyframeInterval;
+		}
+
+		public Recorder(int matchNumber, long seed, CharFunction<String> names) {
+			this(matchNumber, seed, names, DEFAULT_KEYFRAME_INTERVAL);
+		}
+
+		void addTurn(FieldState state, Map<? extends Character, ? extends Action> turnActions, long randomState) {
+			if (actions.size() % keyframeInterval == 0)
+				keyframes.add(state);
+			randomStates.add(randomState);
+			actions.add(encodeActions(turnActions));
+			lastState = state;
+		}
+
+		void addFinalState(FieldState state) {
+			if (actions.size() % keyframeInterval == 0)
+				keyframes.add(state);
+			lastState = state;
+		}
+
+		public ActionTrace build() {
+			if (lastState == null)
+				throw new IllegalStateException("No turns have been recorded");
+			Map<Character, String> tempNames = new LinkedHashMap<>();
+			for (PlayerState player : lastState.getPlayerStates())
+				tempNames.put(player.getSymbol(), names.apply(player.getSymbol()));
+			long[] tempRandomStates = new long[randomStates.size()];
+			for (int i = 0; i < tempRandomStates.length; i++)
+				tempRandomStates[i] = randomStates.get(i);
+			return new ActionTrace(matchNumber, seed, tempNames, keyframeInterval, keyframes, tempRandomStates,
+					actions.toArray(new String[actions.size()]));
+		}
+
+	}
+
+	public enum Deserializer implements JsonDeserializer<ActionTrace> {
+
+		INSTANCE;
+
+		@Override
+		public ActionTrace deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
+				throws JsonParseException {
+
+			JsonObject object = json.getAsJsonObject();
+			int matchNumber = object.getAsJsonPrimitive("matchNumber").getAsInt();
+			long seed = object.getAsJsonPrimitive("seed").getAsLong();
+			Type namesType = new TypeToken<Map<Character, String>>() {
+			}.getType();
+			Map<Character, String> names = context.deserialize(object.get("names"), namesType);
+			int keyframeInterval = object.getAsJsonPrimitive("keyframeInterval").getAsInt();
+			Type keyframesType = new TypeToken<List<FieldState>>() {
+			}.getType();
+			List<FieldState> keyframes = context.deserialize(object.get("keyframes"), keyframesType);
+			long[] randomStates = context.deserialize(object.get("randomStates"), long[].class);
+			String[] actions = context.deserialize(object.get("actions"), String[].class);
+
+			try {
+				return new ActionTrace(matchNumber, seed, names, keyframeInterval, keyframes, randomStates, actions);
+			} catch (IllegalArgumentException e) {
+				throw new JsonParseException(e);
+			}
+
+		}
+
+	}
+
+	public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+	private static final char NO_ACTION = '-';
+	private static final char FIRST_ACTION = 'A';
+	private static final Action[] ACTIONS = Action.values();
+
+}
@@ -0,0 +1,1097 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Level;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.CollisionState;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.FoodState;
+import org.bitbrawl.foodfight.engine.field.InventoryState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.engine.field.TableState;
+import org.bitbrawl.foodfight.engine.field.TeamState;
+import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+import org.bitbrawl.foodfight.field.Event;
+import org.bitbrawl.foodfight.field.Field;
+import org.bitbrawl.foodfight.field.Food;
+import org.bitbrawl.foodfight.field.Player;
+import org.bitbrawl.foodfight.field.Table;
+import org.bitbrawl.foodfight.util.Direction;
+import org.bitbrawl.foodfight.util.PlayerUtils;
+import org.bitbrawl.foodfight.util.Vector;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * A turn runner that simulates a turn on mutable arrays and only builds a
+ * {@link FieldState} once the turn is over. It follows the same rules as
+ * {@link DefaultTurnRunner} and draws random numbers in the same order, so
+ * given the same random stream both runners produce identical fields.
+ * <p>
+ * The arrays are reused from turn to turn, so each match needs its own
+ * instance.
+ */
+@NotThreadSafe
+public final class ArrayTurnRunner implements TurnRunner {
+
+	private int teamCount;
+	private TeamState[] teams = new TeamState[0];
+	private int[] teamPlayerEnd = new int[0];
+	private double[] tableX = new double[0], tableY = new double[0];
+	private double[] tableWest = new double[0], tableEast = new double[0];
+	private double[] tableSouth = new double[0], tableNorth = new double[0];
+	private int[] tableFood = new int[0];
+	private boolean[] tableChanged = new boolean[0];
+	private int[][] scoreCounts = new int[0][];
+	private boolean[] scoreChanged = new boolean[0];
+
+	private int playerCount;
+	private PlayerState[] players = new PlayerState[0];
+	private int[] playerTeam = new int[0];
+	private char[] playerSymbol = new char[0];
+	private Vector[] playerLocation = new Vector[0];
+	private double[] playerX = new double[0], playerY = new double[0];
+	private double[] playerHeight = new double[0];
+	private Direction[] playerHeading = new Direction[0];
+	private Food.Type[] leftHand = new Food.Type[0], rightHand = new Food.Type[0];
+	private double[] playerEnergy = new double[0];
+	private boolean[] playerChanged = new boolean[0];
+	private double[] damage = new double[0];
+	private double[] knockbackX = new double[0], knockbackY = new double[0];
+
+	private int foodCount;
+	private FoodState[] foods = new FoodState[0];
+	private Food.Type[] foodType = new Food.Type[0];
+	private Vector[] foodLocation = new Vector[0];
+	private double[] foodX = new double[0], foodY = new double[0];
+	private double[] foodHeight = new double[0];
+	private Direction[] foodHeading = new Direction[0];
+	private int[] foodOptions = new int[0];
+
+	private final List<CollisionState> collisions = new ArrayList<>();
+
+	private Random random;
+	private double movedX, movedY;
+
+	public ArrayTurnRunner() {
+	}
+
+	@Override
+	public FieldState runTurn(FieldState field, Map<? extends Character, ? extends Action> actions, Random random) {
+		assert field != null;
+		assert actions != null;
+		assert random != null;
+
+		this.random = random;
+		load(field);
+
+		playActions(actions);
+
+		moveFood();
+
+		enactCollisions();
+
+		addFoodPoints();
+
+		if (field.getTurnNumber() >= Field.TOTAL_TURNS)
+			breakTies();
+
+		spawnFood();
+
+		this.random = null;
+		return snapshot(field);
+
+	}
+
+	private void load(FieldState field) {
+
+		Set<TeamState> fieldTeams = field.getTeamStates();
+		teamCount = fieldTeams.size();
+		if (teams.length < teamCount)
+			allocateTeams(teamCount);
+
+		playerCount = field.getPlayerStates().size();
+		if (players.length < playerCount)
+			allocatePlayers(playerCount);
+
+		// every player can throw one piece of food and one more can spawn
+		int foodCapacity = field.getFoodStates().size() + playerCount + 1;
+		if (foods.length < foodCapacity)
+			allocateFood(foodCapacity);
+
+		int t = 0, p = 0;
+		for (TeamState team : fieldTeams) {
+
+			teams[t] = team;
+
+			TableState table = team.getTable();
+			Vector location = table.getLocation();
+			tableX[t] = location.getX();
+			tableY[t] = location.getY();
+			tableWest[t] = table.getEdge(Direction.WEST);
+			tableEast[t] = table.getEdge(Direction.EAST);
+			tableSouth[t] = table.getEdge(Direction.SOUTH);
+			tableNorth[t] = table.getEdge(Direction.NORTH);
+			int mask = 0;
+			for (Food.Type type : table.getFood())
+				mask |= bit(type);
+			tableFood[t] = mask;
+			tableChanged[t] = false;
+
+			ScoreState score = team.getScore();
+			for (Event event : EVENTS)
+				scoreCounts[t][event.ordinal()] = score.getCount(event);
+			scoreChanged[t] = false;
+
+			for (PlayerState player : team.getPlayerStates()) {
+				players[p] = player;
+				playerTeam[p] = t;
+				playerSymbol[p] = player.getSymbol();
+				setLocation(p, player.getLocation());
+				playerHeight[p] = player.getHeight();
+				playerHeading[p] = player.getHeading();
+				leftHand[p] = player.getInventory().get(Player.Hand.LEFT);
+				rightHand[p] = player.getInventory().get(Player.Hand.RIGHT);
+				playerEnergy[p] = player.getEnergy();
+				playerChanged[p] = false;
+				damage[p] = 0.0;
+				p++;
+			}
+			teamPlayerEnd[t] = p;
+
+			t++;
+		}
+
+		foodCount = 0;
+		for (FoodState food : field.getFoodStates()) {
+			foods[foodCount] = food;
+			foodType[foodCount] = food.getType();
+			foodLocation[foodCount] = food.getLocation();
+			foodX[foodCount] = food.getLocation().getX();
+			foodY[foodCount] = food.getLocation().getY();
+			foodHeight[foodCount] = food.getHeight();
+			foodHeading[foodCount] = food.getHeading();
+			foodCount++;
+		}
+
+		collisions.clear();
+
+	}
+
+	private void playActions(Map<? extends Character, ? extends Action> actions) {
+
+		List<Character> symbols = new ArrayList<>(actions.keySet());
+		Collections.shuffle(symbols, random);
+
+		for (char symbol : symbols) {
+			for (int p = 0; p < playerCount; p++) {
+				if (symbol == playerSymbol[p]) {
+					playAction(p, actions.get(symbol));
+					break;
+				}
+			}
+		}
+
+	}
+
+	private void moveFood() {
+
+		int kept = 0;
+		outer: for (int f = 0; f < foodCount; f++) {
+
+			double height = foodHeight[f];
+			assert height >= 0.0;
+			if (height == 0.0) {
+				moveFoodSlot(f, kept++);
+				continue;
+			}
+
+			Direction heading = foodHeading[f];
+			double speed = Food.SPEED.getAsDouble(random);
+			double locationX = foodX[f] + speed * Math.cos(heading.get());
+			double locationY = foodY[f] + speed * Math.sin(heading.get());
+			double x = locationX;
+			double y = locationY;
+
+			double halfPi = 0.5 * Math.PI;
+
+			double radius = foodType[f].getRadius();
+			if (x < radius) {
+				x = -x;
+				if (Math.abs(Direction.difference(heading, Direction.WEST)) < halfPi)
+					heading = heading.reflectAcrossY();
+			} else if (x > Field.WIDTH - radius) {
+				x = Field.WIDTH * 2.0 - x;
+				if (Math.abs(Direction.difference(heading, Direction.EAST)) < halfPi)
+					heading = heading.reflectAcrossY();
+			}
+			if (y < radius) {
+				y = -y;
+				if (Math.abs(Direction.difference(heading, Direction.SOUTH)) < halfPi)
+					heading = heading.reflectAcrossX();
+			} else if (y > Field.DEPTH - radius) {
+				y = Field.DEPTH * 2.0 - y;
+				if (Math.abs(Direction.difference(heading, Direction.NORTH)) < halfPi)
+					heading = heading.reflectAcrossX();
+			}
+
+			height -= Food.FALL_SPEED.getAsDouble(random);
+			if (height < 0.0)
+				height = 0.0;
+
+			for (int t = 0; t < teamCount; t++) {
+				if (tableWest[t] <= x && x <= tableEast[t] && tableSouth[t] <= y && y <= tableNorth[t]) {
+					tableFood[t] |= bit(foodType[f]);
+					tableChanged[t] = true;
+					continue outer;
+				}
+			}
+
+			// like DefaultTurnRunner, the unreflected location is kept
+			moveFoodSlot(f, kept);
+			foods[kept] = null;
+			foodLocation[kept] = null;
+			foodX[kept] = locationX;
+			foodY[kept] = locationY;
+			foodHeight[kept] = height;
+			foodHeading[kept] = heading;
+			kept++;
+
+		}
+		foodCount = kept;
+
+	}
+
+	private void enactCollisions() {
+
+		double collisionDistance = Player.COLLISION_RADIUS * 2.0;
+
+		for (int p = 0; p < playerCount; p++) {
+
+			for (int o = 0; o < playerCount; o++) {
+				if (Character.compare(playerSymbol[p], playerSymbol[o]) >= 0)
+					continue;
+
+				if (Math.hypot(playerX[p] - playerX[o], playerY[p] - playerY[o]) < collisionDistance) {
+					Vector collisionLocation = Vector.average(playerLocation(p), playerLocation(o));
+					double collisionDamage = Player.COLLISION_DAMAGE.getAsDouble(random);
+					collisions.add(new CollisionState(collisionLocation, collisionDamage));
+					damage[p] += collisionDamage;
+					damage[o] += collisionDamage;
+					addEvent(playerTeam[p], Event.FIRST_PLAYER_COLLISION);
+					addEvent(playerTeam[p], Event.EVERY_PLAYER_COLLISION);
+					addEvent(playerTeam[o], Event.FIRST_PLAYER_COLLISION);
+					addEvent(playerTeam[o], Event.EVERY_PLAYER_COLLISION);
+				}
+
+			}
+
+			for (int f = 0; f < foodCount; f++) {
+				if (foodHeight[f] <= 0.0)
+					continue;
+
+				if (playerHeight[p] < foodHeight[f])
+					continue;
+
+				double foodRadius = foodType[f].getRadius();
+				double foodDistance = Player.COLLISION_RADIUS + foodRadius;
+
+				if (Math.hypot(playerX[p] - foodX[f], playerY[p] - foodY[f]) < foodDistance) {
+					Vector collisionLocation = playerLocation(p).multiply(foodRadius)
+							.add(foodLocation(f).multiply(Player.COLLISION_RADIUS)).divide(foodDistance);
+					double collisionDamage = foodType[f].getDamage().getAsDouble(random);
+					collisions.add(new CollisionState(collisionLocation, collisionDamage));
+					damage[p] += collisionDamage;
+					addEvent(playerTeam[p], Event.FIRST_FOOD_COLLISION);
+					addEvent(playerTeam[p], Event.EVERY_FOOD_COLLISION);
+				}
+
+			}
+
+		}
+
+		if (collisions.isEmpty())
+			return;
+
+		for (int c = 0, n = collisions.size(); c < n; c++) {
+
+			Vector collisionLocation = collisions.get(c).getLocation();
+			double collisionX = collisionLocation.getX();
+			double collisionY = collisionLocation.getY();
+
+			for (int p = 0; p < playerCount; p++) {
+
+				double dx = playerX[p] - collisionX;
+				double dy = playerY[p] - collisionY;
+				double distance = Math.hypot(dx, dy);
+
+				double knockback = Player.COLLISION_RADIUS * Math.exp(-distance / Player.COLLISION_RADIUS);
+				double direction = new Direction(Math.atan2(dy, dx)).get();
+				double x = knockback * Math.cos(direction);
+				double y = knockback * Math.sin(direction);
+
+				if (c == 0) {
+					knockbackX[p] = x;
+					knockbackY[p] = y;
+				} else {
+					knockbackX[p] += x;
+					knockbackY[p] += y;
+				}
+
+			}
+
+			int kept = 0;
+			for (int f = 0; f < foodCount; f++) {
+				double distance = Math.hypot(foodX[f] - collisionX, foodY[f] - collisionY);
+				if (distance >= foodType[f].getRadius())
+					moveFoodSlot(f, kept++);
+			}
+			foodCount = kept;
+
+		}
+
+		for (int p = 0; p < playerCount; p++) {
+			movePlayer(playerX[p], playerY[p], knockbackX[p], knockbackY[p]);
+			setLocation(p, movedX, movedY);
+			playerEnergy[p] = Math.max(playerEnergy[p] - damage[p], 0);
+			playerChanged[p] = true;
+		}
+
+	}
+
+	private void addFoodPoints() {
+
+		for (int t = 0; t < teamCount; t++)
+			for (int i = 0, n = Integer.bitCount(tableFood[t]); i < n; i++)
+				addEvent(t, Event.FOOD_ON_TABLE);
+
+	}
+
+	private void spawnFood() {
+
+		int available = (1 << FOOD_TYPES.length) - 1;
+		for (int f = 0; f < foodCount; f++)
+			available &= ~bit(foodType[f]);
+		for (int t = 0; t < teamCount; t++)
+			available &= ~tableFood[t];
+		for (int p = 0; p < playerCount; p++) {
+			if (leftHand[p] != null)
+				available &= ~bit(leftHand[p]);
+			if (rightHand[p] != null)
+				available &= ~bit(rightHand[p]);
+		}
+
+		int availableCount = Integer.bitCount(available);
+		if (availableCount <= 4 || random.nextDouble() >= Food.RESPAWN_RATE)
+			return;
+		Food.Type type = nthType(available, random.nextInt(availableCount));
+		double radius = type.getRadius();
+		outer: while (true) {
+			double x = MatchRandom.nextDouble(random, radius, Field.WIDTH - radius);
+			double y = MatchRandom.nextDouble(random, radius, Field.DEPTH - radius);
+			for (int p = 0; p < playerCount; p++) {
+				double distance = Math.hypot(playerX[p] - x, playerY[p] - y);
+				if (distance < Player.COLLISION_RADIUS + radius)
+					continue outer;
+			}
+			for (int f = 0; f < foodCount; f++) {
+				double distance = Math.hypot(foodX[f] - x, foodY[f] - y);
+				if (distance < foodType[f].getRadius() + radius)
+					continue outer;
+			}
+			for (int t = 0; t < teamCount; t++) {
+				if (tableWest[t] < x && x < tableEast[t])
+					continue outer;
+				if (tableSouth[t] < y && y < tableNorth[t])
+					continue outer;
+			}
+			addFood(type, x, y, 0, Direction.NORTH);
+			return;
+		}
+
+	}
+
+	private void breakTies() {
+
+		double[] distancesToCenter = new double[teamCount];
+		double centerX = Field.WIDTH / 2.0, centerY = Field.DEPTH / 2.0;
+		List<Integer> orderedTeams = new ArrayList<>(teamCount);
+		for (int t = 0, p = 0; t < teamCount; t++) {
+			double teamDist = 0.0;
+			for (; p < teamPlayerEnd[t]; p++) {
+				double dx = playerX[p] - centerX;
+				double dy = playerY[p] - centerY;
+				teamDist += dx * dx + dy * dy;
+			}
+			distancesToCenter[t] = teamDist;
+			orderedTeams.add(t);
+		}
+		Collections.shuffle(orderedTeams, random);
+		Collections.sort(orderedTeams, (a, b) -> {
+
+			int pointDifference = Integer.compare(getTotalPoints(a), getTotalPoints(b));
+			if (pointDifference != 0)
+				return pointDifference;
+
+			return -Double.compare(distancesToCenter[a], distancesToCenter[b]);
+
+		});
+
+		int current = orderedTeams.get(0);
+		for (int i = 1; i < teamCount; i++) {
+			int prev = current;
+			current = orderedTeams.get(i);
+			while (getTotalPoints(current) <= getTotalPoints(prev))
+				addEvent(current, Event.TIE_BREAK);
+		}
+
+	}
+
+	private void playAction(int p, Action action) {
+
+		if (!isValidAction(p, action)) {
+			EngineLogger.INSTANCE.log(Level.WARNING, "Player {0} is unable to play action {1}",
+					new Object[] { getPlayerState(p), action });
+			action = null;
+		}
+
+		int team = playerTeam[p];
+		double energy = playerEnergy[p];
+		if (action != null && !action.equals(Action.DUCK) && !action.isEating()) {
+			energy -= Player.ENERGY_DECREMENT;
+			if (energy < 0.0)
+				energy = 0.0;
+		}
+
+		if (action != null)
+			if (action.isPickingUp()) {
+
+				Player.Hand hand = action.equals(Action.PICKUP_LEFT) ? Player.Hand.LEFT : Player.Hand.RIGHT;
+
+				addEvent(team, Event.FIRST_PICKUP);
+
+				int piece = randomFoodPieceWithinReach(p, hand);
+				if (piece < 0) {
+					int options = 0;
+					for (int t = 0; t < teamCount; t++)
+						if (isAgainstTable(p, t, true))
+							options += Integer.bitCount(tableFood[t]);
+					int randomIndex = random.nextInt(options);
+					for (int t = 0; t < teamCount; t++) {
+						if (!isAgainstTable(p, t, true))
+							continue;
+						int count = Integer.bitCount(tableFood[t]);
+						if (randomIndex < count) {
+							Food.Type toRemove = nthType(tableFood[t], randomIndex);
+							tableFood[t] &= ~bit(toRemove);
+							tableChanged[t] = true;
+							setHand(p, hand, toRemove);
+							break;
+						}
+						randomIndex -= count;
+					}
+				} else {
+					setHand(p, hand, foodType[piece]);
+					removeFood(piece);
+				}
+
+			} else if (action.isThrowing()) {
+
+				addEvent(team, Event.FIRST_THROW);
+
+				Player.Hand hand = action.equals(Action.THROW_LEFT) ? Player.Hand.LEFT : Player.Hand.RIGHT;
+				Food.Type type = getHand(p, hand);
+				setHand(p, hand, null);
+
+				Direction heading = getArmDirection(p, hand);
+				double x = playerX[p] + Player.REACH_DISTANCE * Math.cos(heading.get());
+				double y = playerY[p] + Player.REACH_DISTANCE * Math.sin(heading.get());
+				double height = Player.THROW_HEIGHT.getAsDouble(random);
+
+				addFood(type, x, y, height, heading);
+
+			} else if (action.isEating()) {
+
+				Player.Hand hand = action.equals(Action.EAT_LEFT) ? Player.Hand.LEFT : Player.Hand.RIGHT;
+
+				Food.Type type = getHand(p, hand);
+				setHand(p, hand, null);
+				energy = Math.min(energy + type.getEnergy().getAsDouble(random), Player.MAX_ENERGY);
+
+				addEvent(team, Event.FIRST_EAT);
+				addEvent(team, Event.EVERY_EAT);
+
+			} else if (action.isMoving()) {
+				addEvent(team, Event.FIRST_MOVE);
+			}
+
+		// location, height and heading are all calculated from the old state
+		calculateLocation(p, action);
+		double height = calculateHeight(p, action);
+		Direction heading = calculateHeading(p, action);
+
+		playerHeight[p] = height;
+		playerHeading[p] = heading;
+		playerEnergy[p] = energy;
+		playerChanged[p] = true;
+
+	}
+
+	private void calculateLocation(int p, Action action) {
+
+		double multiplier = PlayerUtils.getMoveMultiplier(playerEnergy[p]);
+		double speed;
+		Direction direction;
+		if (action == null) {
+			return;
+		} else if (action.equals(Action.MOVE_FORWARD)) {
+			speed = Player.FORWARD_MOVEMENT_SPEED.getAsDouble(random) * multiplier;
+			direction = playerHeading[p];
+		} else if (action.equals(Action.MOVE_BACKWARD)) {
+			speed = Player.REVERSE_MOVEMENT_SPEED.getAsDouble(random) * multiplier;
+			direction = playerHeading[p].getOpposite();
+		} else {
+			return;
+		}
+
+		movePlayer(playerX[p], playerY[p], speed * Math.cos(direction.get()), speed * Math.sin(direction.get()));
+		setLocation(p, movedX, movedY);
+
+	}
+
+	private double calculateHeight(int p, Action action) {
+
+		if (action != null && action.equals(Action.DUCK))
+			return Math.max(playerHeight[p] - Player.DUCK_SPEED.getAsDouble(random), Player.MIN_HEIGHT);
+		else
+			return Player.HEIGHT;
+
+	}
+
+	private Direction calculateHeading(int p, Action action) {
+
+		Direction heading = playerHeading[p];
+
+		double angularVelocity;
+		if (action == null)
+			return heading;
+		else if (action.equals(Action.TURN_LEFT))
+			angularVelocity = Player.TURN_SPEED.getAsDouble(random);
+		else if (action.equals(Action.TURN_RIGHT))
+			angularVelocity = -Player.TURN_SPEED.getAsDouble(random);
+		else
+			return heading;
+
+		return heading.add(angularVelocity);
+
+	}
+
+	private int randomFoodPieceWithinReach(int p, Player.Hand hand) {
+
+		int size = 0;
+		for (int f = 0; f < foodCount; f++)
+			if (canPickup(p, f, hand))
+				foodOptions[size++] = f;
+
+		if (size == 0)
+			return -1;
+
+		return foodOptions[random.nextInt(size)];
+
+	}
+
+	private void movePlayer(double x, double y, double dx, double dy) {
+
+		double resultX = x + dx;
+		double resultY = y + dy;
+
+		for (int t = 0; t < teamCount; t++) {
+
+			if (!isInsideTable(resultX, resultY, t))
+				continue;
+
+			double northEdgeY = tableNorth[t];
+			if (y - Player.COLLISION_RADIUS >= northEdgeY)
+				if (resultY - Player.COLLISION_RADIUS < northEdgeY) {
+					hitWallY(x, y, dx, dy, northEdgeY);
+					resultX = movedX;
+					resultY = movedY;
+				}
+
+			double southEdgeY = tableSouth[t];
+			if (y + Player.COLLISION_RADIUS <= southEdgeY)
+				if (resultY + Player.COLLISION_RADIUS > southEdgeY) {
+					hitWallY(x, y, dx, dy, southEdgeY);
+					resultX = movedX;
+					resultY = movedY;
+				}
+
+			double eastEdgeX = tableEast[t];
+			if (x - Player.COLLISION_RADIUS >= eastEdgeX)
+				if (resultX - Player.COLLISION_RADIUS < eastEdgeX) {
+					hitWallX(x, y, dx, dy, eastEdgeX);
+					resultX = movedX;
+					resultY = movedY;
+				}
+
+			double westEdgeX = tableWest[t];
+			if (x + Player.COLLISION_RADIUS <= westEdgeX)
+				if (resultX + Player.COLLISION_RADIUS > westEdgeX) {
+					hitWallX(x, y, dx, dy, westEdgeX);
+					resultX = movedX;
+					resultY = movedY;
+				}
+
+		}
+
+		if (resultX < Player.COLLISION_RADIUS) {
+			hitWallX(x, y, dx, dy, 0.0);
+			resultX = movedX;
+			resultY = movedY;
+		} else if (resultX > Field.WIDTH - Player.COLLISION_RADIUS) {
+			hitWallX(x, y, dx, dy, Field.WIDTH);
+			resultX = movedX;
+			resultY = movedY;
+		}
+
+		if (resultY < Player.COLLISION_RADIUS) {
+			hitWallY(x, y, dx, dy, 0.0);
+			resultX = movedX;
+			resultY = movedY;
+		} else if (resultY > Field.DEPTH - Player.COLLISION_RADIUS) {
+			hitWallY(x, y, dx, dy, Field.DEPTH);
+			resultX = movedX;
+			resultY = movedY;
+		}
+
+		movedX = resultX;
+		movedY = resultY;
+
+	}
+
+	private boolean isInsideTable(double playerX, double playerY, int t) {
+
+		if (playerY - Player.COLLISION_RADIUS >= tableNorth[t])
+			return false;
+		if (playerY + Player.COLLISION_RADIUS <= tableSouth[t])
+			return false;
+		if (playerX - Player.COLLISION_RADIUS >= tableEast[t])
+			return false;
+		if (playerX + Player.COLLISION_RADIUS <= tableWest[t])
+			return false;
+		return true;
+
+	}
+
+	private void hitWallX(double x, double y, double dx, double dy, double wallX) {
+
+		double newX;
+		if (x < wallX)
+			newX = wallX - Player.COLLISION_RADIUS;
+		else
+			newX = wallX + Player.COLLISION_RADIUS;
+
+		double proportionOfVector = (newX - x) / dx;
+		movedX = newX;
+		movedY = y + dy * proportionOfVector;
+
+	}
+
+	private void hitWallY(double x, double y, double dx, double dy, double wallY) {
+
+		double newY;
+		if (y < wallY)
+			newY = wallY - Player.COLLISION_RADIUS;
+		else
+			newY = wallY + Player.COLLISION_RADIUS;
+
+		double proportionOfVector = (newY - y) / dy;
+		movedX = x + dx * proportionOfVector;
+		movedY = newY;
+
+	}
+
+	// the checks below mirror PlayerUtils, working on the arrays instead
+
+	private boolean isValidAction(int p, Action action) {
+
+		if (action == null)
+			return true;
+		if (action.isTurning() || action.equals(Action.DUCK))
+			return true;
+
+		double x = playerX[p], y = playerY[p];
+		Direction heading = playerHeading[p];
+		double halfPi = 0.5 * Math.PI;
+
+		switch (action) {
+		case MOVE_FORWARD:
+			if (x <= Player.COLLISION_RADIUS) {
+				if (Math.abs(Direction.difference(heading, Direction.WEST)) < halfPi)
+					return false;
+			} else if (x >= Field.WIDTH - Player.COLLISION_RADIUS) {
+				if (Math.abs(Direction.difference(heading, Direction.EAST)) < halfPi)
+					return false;
+			}
+			if (y <= Player.COLLISION_RADIUS) {
+				if (Math.abs(Direction.difference(heading, Direction.SOUTH)) < halfPi)
+					return false;
+			} else if (y >= Field.DEPTH - Player.COLLISION_RADIUS) {
+				if (Math.abs(Direction.difference(heading, Direction.NORTH)) < halfPi)
+					return false;
+			}
+			for (int t = 0; t < teamCount; t++)
+				if (isAgainstTable(p, t, true))
+					return false;
+			return true;
+		case MOVE_BACKWARD:
+			if (x <= Player.COLLISION_RADIUS) {
+				if (Math.abs(Direction.difference(heading, Direction.EAST)) < halfPi)
+					return false;
+			} else if (x >= Field.WIDTH - Player.COLLISION_RADIUS) {
+				if (Math.abs(Direction.difference(heading, Direction.WEST)) < halfPi)
+					return false;
+			}
+			if (y <= Player.COLLISION_RADIUS) {
+				if (Math.abs(Direction.difference(heading, Direction.NORTH)) < halfPi)
+					return false;
+			} else if (y >= Field.DEPTH - Player.COLLISION_RADIUS) {
+				if (Math.abs(Direction.difference(heading, Direction.SOUTH)) < halfPi)
+					return false;
+			}
+			for (int t = 0; t < teamCount; t++)
+				if (isAgainstTable(p, t, false))
+					return false;
+			return true;
+		case PICKUP_LEFT:
+		case PICKUP_RIGHT:
+			Player.Hand hand = action.equals(Action.PICKUP_LEFT) ? Player.Hand.LEFT : Player.Hand.RIGHT;
+			if (getHand(p, hand) != null)
+				return false;
+			for (int f = 0; f < foodCount; f++)
+				if (canPickup(p, f, hand))
+					return true;
+			for (int t = 0; t < teamCount; t++)
+				if (isAgainstTable(p, t, true) && tableFood[t] != 0)
+					return true;
+			return false;
+		case THROW_LEFT:
+		case EAT_LEFT:
+			return leftHand[p] != null;
+		case THROW_RIGHT:
+		case EAT_RIGHT:
+			return rightHand[p] != null;
+		default:
+			throw new AssertionError();
+		}
+
+	}
+
+	private boolean canPickup(int p, int f, Player.Hand hand) {
+
+		if (foodHeight[f] > 0.0)
+			return false;
+
+		double dx = foodX[f] - playerX[p];
+		double dy = foodY[f] - playerY[p];
+		if (Math.hypot(dx, dy) > Player.REACH_DISTANCE)
+			return false;
+
+		Direction toFood = new Direction(Math.atan2(dy, dx));
+		return Math.abs(Direction.difference(getArmDirection(p, hand), toFood)) < Player.REACH_RANGE / 2;
+
+	}
+
+	private boolean isAgainstTable(int p, int t, boolean movingForward) {
+
+		double playerX = this.playerX[p];
+		double playerY = this.playerY[p];
+		Direction heading = playerHeading[p];
+		double halfPi = Math.PI / 2.0;
+
+		boolean movingNorth, movingSouth, movingEast, movingWest;
+		if (movingForward) {
+			movingNorth = Math.abs(Direction.difference(heading, Direction.NORTH)) < halfPi;
+			movingSouth = Math.abs(Direction.difference(heading, Direction.SOUTH)) < halfPi;
+			movingEast = Math.abs(Direction.difference(heading, Direction.EAST)) < halfPi;
+			movingWest = Math.abs(Direction.difference(heading, Direction.WEST)) < halfPi;
+		} else {
+			movingNorth = Math.abs(Direction.difference(heading, Direction.NORTH)) > halfPi;
+			movingSouth = Math.abs(Direction.difference(heading, Direction.SOUTH)) > halfPi;
+			movingEast = Math.abs(Direction.difference(heading, Direction.EAST)) > halfPi;
+			movingWest = Math.abs(Direction.difference(heading, Direction.WEST)) > halfPi;
+		}
+
+		double tableX = this.tableX[t];
+		double tableY = this.tableY[t];
+
+		double tableRadiusExtended = Table.RADIUS + Player.COLLISION_RADIUS;
+		double northEdge = tableY + tableRadiusExtended;
+		double southEdge = tableY - tableRadiusExtended;
+		double eastEdge = tableX + tableRadiusExtended;
+		double westEdge = tableX - tableRadiusExtended;
+
+		if (westEdge < playerX && playerX < eastEdge) {
+
+			if (movingNorth && southEdge <= playerY && playerY < tableY)
+				return true;
+			if (movingSouth && tableY < playerY && playerY <= northEdge)
+				return true;
+
+		}
+
+		if (southEdge < playerY && playerY < northEdge) {
+
+			if (movingEast && westEdge <= playerX && playerX < tableX)
+				return true;
+			if (movingWest && tableX < playerX && playerX <= eastEdge)
+				return true;
+
+		}
+
+		return false;
+
+	}
+
+	private Direction getArmDirection(int p, Player.Hand hand) {
+		switch (hand) {
+		case LEFT:
+			return playerHeading[p].add(Player.LEFT_ARM_DIRECTION);
+		case RIGHT:
+			return playerHeading[p].add(Player.RIGHT_ARM_DIRECTION);
+		default:
+			throw new AssertionError();
+		}
+	}
+
+	private Food.Type getHand(int p, Player.Hand hand) {
+		return hand.equals(Player.Hand.LEFT) ? leftHand[p] : rightHand[p];
+	}
+
+	private void setHand(int p, Player.Hand hand, Food.Type type) {
+		if (hand.equals(Player.Hand.LEFT))
+			leftHand[p] = type;
+		else
+			rightHand[p] = type;
+	}
+
+	private void setLocation(int p, Vector location) {
+		playerLocation[p] = location;
+		playerX[p] = location.getX();
+		playerY[p] = location.getY();
+	}
+
+	private void setLocation(int p, double x, double y) {
+		if (x == playerX[p] && y == playerY[p])
+			return;
+		playerLocation[p] = null;
+		playerX[p] = x;
+		playerY[p] = y;
+	}
+
+	private Vector playerLocation(int p) {
+		Vector location = playerLocation[p];
+		if (location == null)
+			playerLocation[p] = location = Vector.cartesian(playerX[p], playerY[p]);
+		return location;
+	}
+
+	private Vector foodLocation(int f) {
+		Vector location = foodLocation[f];
+		if (location == null)
+			foodLocation[f] = location = Vector.cartesian(foodX[f], foodY[f]);
+		return location;
+	}
+
+	private void addFood(Food.Type type, double x, double y, double height, Direction heading) {
+		int f = foodCount++;
+		foods[f] = null;
+		foodType[f] = type;
+		foodLocation[f] = null;
+		foodX[f] = x;
+		foodY[f] = y;
+		foodHeight[f] = height;
+		foodHeading[f] = heading;
+	}
+
+	private void removeFood(int f) {
+		for (int i = f + 1; i < foodCount; i++)
+			moveFoodSlot(i, i - 1);
+		foodCount--;
+	}
+
+	private void moveFoodSlot(int from, int to) {
+		if (from == to)
+			return;
+		foods[to] = foods[from];
+		foodType[to] = foodType[from];
+		foodLocation[to] = foodLocation[from];
+		foodX[to] = foodX[from];
+		foodY[to] = foodY[from];
+		foodHeight[to] = foodHeight[from];
+		foodHeading[to] = foodHeading[from];
+	}
+
+	private void addEvent(int t, Event event) {
+		int[] counts = scoreCounts[t];
+		if (event.getType().equals(Event.Type.ONE_TIME) && counts[event.ordinal()] >= 1)
+			return;
+		counts[event.ordinal()]++;
+		scoreChanged[t] = true;
+	}
+
+	private int getTotalPoints(int t) {
+		int[] counts = scoreCounts[t];
+		int result = 0;
+		for (Event event : EVENTS)
+			result += counts[event.ordinal()] * event.getPointValue();
+		return result;
+	}
+
+	private FieldState snapshot(FieldState field) {
+
+		Collection<TeamState> teamStates = new ArrayList<>(teamCount);
+		for (int t = 0, p = 0; t < teamCount; t++) {
+
+			TeamState team = teams[t];
+			boolean changed = tableChanged[t] || scoreChanged[t];
+			Collection<PlayerState> playerStates = new ArrayList<>(teamPlayerEnd[t] - p);
+			for (; p < teamPlayerEnd[t]; p++) {
+				changed |= playerChanged[p];
+				playerStates.add(getPlayerState(p));
+			}
+
+			if (!changed) {
+				teamStates.add(team);
+				continue;
+			}
+
+			TableState table = team.getTable();
+			if (tableChanged[t])
+				table = new TableState(table.getLocation(), foodTypes(tableFood[t]));
+
+			ScoreState score = team.getScore();
+			if (scoreChanged[t]) {
+				Map<Event, Integer> counts = new EnumMap<>(Event.class);
+				for (Event event : EVENTS) {
+					int count = scoreCounts[t][event.ordinal()];
+					if (count != 0)
+						counts.put(event, count);
+				}
+				score = new ScoreState(counts);
+			}
+
+			teamStates.add(new TeamState(team.getSymbol(), playerStates, table, score));
+
+		}
+
+		Collection<FoodState> foodStates = new ArrayList<>(foodCount);
+		for (int f = 0; f < foodCount; f++) {
+			FoodState food = foods[f];
+			if (food == null)
+				food = new FoodState(foodType[f], foodLocation(f), foodHeight[f], foodHeading[f]);
+			foodStates.add(food);
+		}
+
+		return new FieldState(field.getTurnNumber() + 1, field.getMatchType(), teamStates, foodStates, collisions);
+
+	}
+
+	private PlayerState getPlayerState(int p) {
+
+		PlayerState player = players[p];
+		if (!playerChanged[p])
+			return player;
+
+		InventoryState inventory = player.getInventory();
+		if (inventory.get(Player.Hand.LEFT) != leftHand[p] || inventory.get(Player.Hand.RIGHT) != rightHand[p]) {
+			Map<Player.Hand, Food.Type> map = new EnumMap<>(Player.Hand.class);
+			if (leftHand[p] != null)
+				map.put(Player.Hand.LEFT, leftHand[p]);
+			if (rightHand[p] != null)
+				map.put(Player.Hand.RIGHT, rightHand[p]);
+			inventory = new InventoryState(map);
+		}
+
+		return new PlayerState(playerSymbol[p], playerLocation(p), playerHeight[p], playerHeading[p], inventory,
+				playerEnergy[p]);
+
+	}
+
+	private void allocateTeams(int capacity) {
+		teams = new TeamState[capacity];
+		teamPlayerEnd = new int[capacity];
+		tableX = new double[capacity];
+		tableY = new double[capacity];
+		tableWest = new double[capacity];
+		tableEast = new double[capacity];
+		tableSouth = new double[capacity];
+		tableNorth = new double[capacity];
+		tableFood = new int[capacity];
+		tableChanged = new boolean[capacity];
+		scoreCounts = new int[capacity][EVENTS.length];
+		scoreChanged = new boolean[capacity];
+	}
+
+	private void allocatePlayers(int capacity) {
+		players = new PlayerState[capacity];
+		playerTeam = new int[capacity];
+		playerSymbol = new char[capacity];
+		playerLocation = new Vector[capacity];
+		playerX = new double[capacity];
+		playerY = new double[capacity];
+		playerHeight = new double[capacity];
+		playerHeading = new Direction[capacity];
+		leftHand = new Food.Type[capacity];
+		rightHand = new Food.Type[capacity];
+		playerEnergy = new double[capacity];
+		playerChanged = new boolean[capacity];
+		damage = new double[capacity];
+		knockbackX = new double[capacity];
+		knockbackY = new double[capacity];
+	}
+
+	private void allocateFood(int capacity) {
+		foods = new FoodState[capacity];
+		foodType = new Food.Type[capacity];
+		foodLocation = new Vector[capacity];
+		foodX = new double[capacity];
+		foodY = new double[capacity];
+		foodHeight = new double[capacity];
+		foodHeading = new Direction[capacity];
+		foodOptions = new int[capacity];
+	}
+
+	private static int bit(Food.Type type) {
+		return 1 << type.ordinal();
+	}
+
+	private static Food.Type nthType(int mask, int n) {
+		for (Food.Type type : FOOD_TYPES)
+			if ((mask & bit(type)) != 0 && n-- == 0)
+				return type;
+		throw new AssertionError();
+	}
+
+	private static Set<Food.Type> foodTypes(int mask) {
+		Set<Food.Type> result = EnumSet.noneOf(Food.Type.class);
+		for (Food.Type type : FOOD_TYPES)
+			if ((mask & bit(type)) != 0)
+				result.add(type);
+		return result;
+	}
+
+	private static final Event[] EVENTS = Event.values();
+	private static final Food.Type[] FOOD_TYPES = Food.Type.values();
+
+}
@@ -0,0 +1,247 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bitbrawl.foodfight.controller.Clock;
+import org.bitbrawl.foodfight.controller.Controller;
+import org.bitbrawl.foodfight.controller.ControllerException;
+import org.bitbrawl.foodfight.controller.JavaController;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+import org.bitbrawl.foodfight.engine.field.TeamState;
+import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+import org.bitbrawl.foodfight.field.Field;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.field.Player;
+import org.bitbrawl.foodfight.field.Team;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Runs many matches of in-process {@link JavaController}s without video,
+ * traces, or a user interface, and collects win-rate and score statistics.
+ * Each match runs on a single thread, and matches run in parallel.
+ */
+@ThreadSafe
+public final class BatchSimulator {
+
+	private final MatchType matchType;
+	private final List<Class<? extends JavaController>> classes;
+	private final int numThreads;
+	private final Supplier<? extends TurnRunner> runners;
+
+	/**
+	 * Creates a simulator whose matches each get a turn runner of their own from
+	 * the given supplier.
+	 */
+	public BatchSimulator(MatchType matchType, Collection<? extends Class<? extends JavaController>> classes,
+			int numThreads, Supplier<? extends TurnRunner> runners) {
+		this.matchType = Objects.requireNonNull(matchType, "matchType cannot be null");
+		Objects.requireNonNull(classes, "classes cannot be null");
+		if (classes.isEmpty())
+			throw new IllegalArgumentException("classes cannot be empty");
+		if (numThreads <= 0)
+			throw new IllegalArgumentException("numThreads must be positive, but is: " + numThreads);
+		this.classes = Collections.unmodifiableList(new ArrayList<>(classes));
+		this.numThreads = numThreads;
+		this.runners = Objects.requireNonNull(runners, "runners cannot be null");
+	}
+
+	public BatchSimulator(MatchType matchType, Collection<? extends Class<? extends JavaController>> classes,
+			int numThreads) {
+		this(matchType, classes, numThreads, DefaultTurnRunner::new);
+	}
+
+	public BatchSimulator(MatchType matchType, Collection<? extends Class<? extends JavaController>> classes) {
+		this(matchType, classes, Runtime.getRuntime().availableProcessors());
+	}
+
+	public BatchStatistics run(int numMatches) throws InterruptedException {
+		return run(numMatches, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Runs a batch whose matches are all derived from one seed. As long as the
+	 * controllers themselves are deterministic, running the same batch again
+	 * with the same seed gives the same statistics.
+	 */
+	public BatchStatistics run(int numMatches, long seed) throws InterruptedException {
+		if (numMatches <= 0)
+			throw new IllegalArgumentException("numMatches must be positive, but is: " + numMatches);
+
+		long startTime = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(numThreads, numMatches));
+		List<Future<MatchHistory>> results = new ArrayList<>(numMatches);
+		BatchStatistics.Builder statistics = new BatchStatistics.Builder(matchType);
+		try {
+
+			for (int i = 0; i < numMatches; i++) {
+				int matchNumber = i;
+				results.add(executor.submit(() -> runMatch(matchNumber, seed)));
+			}
+			executor.shutdown();
+
+			for (Future<MatchHistory> result : results) {
+				MatchHistory history;
+				try {
+					history = result.get();
+				} catch (ExecutionException e) {
+					logger.log(Level.SEVERE, "Problem running match", e.getCause());
+					statistics.addFailedMatch();
+					continue;
+				}
+				addResults(statistics, history);
+			}
+
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return statistics.build(System.nanoTime() - startTime);
+
+	}
+
+	private MatchHistory runMatch(int matchNumber, long seed) {
+
+		MatchRandom random = new MatchRandom(MatchRandom.getMatchSeed(seed, matchNumber));
+		FieldState field = new FieldGenerator(matchType, random).get();
+
+		List<Class<? extends JavaController>> allClasses = new ArrayList<>(classes);
+		while (allClasses.size() < matchType.getNumberOfPlayers())
+			allClasses.addAll(classes);
+		Collections.shuffle(allClasses, random);
+
+		Map<Character, Controller> controllers = new HashMap<>();
+		Map<Character, String> names = new HashMap<>();
+		for (PlayerState player : field.getPlayerStates()) {
+			Class<? extends JavaController> clazz = allClasses.remove(allClasses.size() - 1);
+			char symbol = player.getSymbol();
+			names.put(symbol, clazz.getSimpleName());
+			controllers.put(symbol, newController(clazz));
+		}
+
+		Match match = new Match.Builder(matchNumber, field, controllers::get, names::get, runners.get())
+				.random(random).keepHistory(false).build();
+		return match.run();
+
+	}
+
+	static Controller newController(Class<? extends JavaController> clazz) {
+
+		Logger playerLogger = Logger.getAnonymousLogger();
+		playerLogger.setUseParentHandlers(false);
+		Clock clock = unit -> Long.MAX_VALUE;
+		try {
+			@SuppressWarnings("deprecation")
+			Controller controller = JavaController.newInstance(clazz, playerLogger, clock);
+			// a controller that throws loses its turn rather than the match, and
+			// only its first problem is logged in full
+			return new Controller() {
+
+				private boolean failed;
+
+				@Override
+				public Action playAction(Field field, Team team, Player player) {
+					try {
+						return controller.playAction(field, team, player);
+					} catch (RuntimeException e) {
+						logger.log(failed ? Level.FINE : Level.SEVERE, "Unable to play turn for player", e);
+						failed = true;
+						return null;
+					}
+				}
+
+			};
+		} catch (ControllerException e) {
+			logger.log(Level.SEVERE, "Unable to instantiate new Controller", e);
+			// a match keeps one player per controller, so every fallback has
+			// to be an instance of its own, which a lambda does not guarantee
+			return new Controller() {
+				@Override
+				public Action playAction(Field field, Team team, Player player) {
+					return null;
+				}
+			};
+		}
+
+	}
+
+	private static void addResults(BatchStatistics.Builder statistics, MatchHistory history) {
+
+		FieldState finalState = history.getFinalState();
+		int bestScore = Integer.MIN_VALUE;
+		int numBest = 0;
+		for (TeamState team : finalState.getTeamStates()) {
+			int score = team.getScore().getTotalPoints();
+			if (score > bestScore) {
+				bestScore = score;
+				numBest = 1;
+			} else if (score == bestScore) {
+				numBest++;
+			}
+		}
+		BatchStatistics.Outcome bestOutcome = numBest == 1 ? BatchStatistics.Outcome.WIN
+				: BatchStatistics.Outcome.TIE;
+
+		statistics.addMatch();
+		for (TeamState team : finalState.getTeamStates()) {
+			int score = team.getScore().getTotalPoints();
+			BatchStatistics.Outcome outcome = score == bestScore ? bestOutcome : BatchStatistics.Outcome.LOSS;
+			for (PlayerState player : team.getPlayerStates())
+				statistics.addResult(history.getNames().get(player.getSymbol()), score, outcome);
+		}
+
+	}
+
+	public static void main(String[] args) {
+
+		if (args.length < 3) {
+			logger.severe("Usage: BatchSimulator <match type> <number of matches> <controller class>...");
+			return;
+		}
+
+		MatchType matchType;
+		int numMatches;
+		try {
+			matchType = MatchType.valueOf(args[0]);
+			numMatches = Integer.parseInt(args[1]);
+		} catch (IllegalArgumentException e) {
+			logger.log(Level.SEVERE, "Invalid match type or number of matches", e);
+			return;
+		}
+
+		List<Class<? extends JavaController>> classes = new ArrayList<>();
+		for (int i = 2; i < args.length; i++) {
+			try {
+				classes.add(Class.forName(args[i]).asSubclass(JavaController.class));
+			} catch (ClassNotFoundException | ClassCastException e) {
+				logger.log(Level.SEVERE, "Invalid controller class: " + args[i], e);
+				return;
+			}
+		}
+
+		try {
+			logger.info(new BatchSimulator(matchType, classes).run(numMatches).toString());
+		} catch (InterruptedException e) {
+			logger.log(Level.SEVERE, "Main thread interrupted", e);
+		}
+
+	}
+
+	private static final Logger logger = EngineLogger.INSTANCE;
+
+}
@@ -0,0 +1,200 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.bitbrawl.foodfight.field.Field;
+import org.bitbrawl.foodfight.field.MatchType;
+
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+
+@Immutable
+public final class BatchStatistics {
+
+	private final MatchType matchType;
+	private final int matches;
+	private final int failedMatches;
+	private final long nanos;
+	private final Map<String, ControllerStatistics> controllers;
+
+	private BatchStatistics(Builder builder, long nanos) {
+		matchType = builder.matchType;
+		matches = builder.matches;
+		failedMatches = builder.failedMatches;
+		this.nanos = nanos;
+		Map<String, ControllerStatistics> tempControllers = new TreeMap<>();
+		for (Map.Entry<String, ControllerStatistics.Builder> entry : builder.controllers.entrySet())
+			tempControllers.put(entry.getKey(), entry.getValue().build());
+		controllers = Collections.unmodifiableMap(tempControllers);
+	}
+
+	public MatchType getMatchType() {
+		return matchType;
+	}
+
+	public int getMatches() {
+		return matches;
+	}
+
+	public int getFailedMatches() {
+		return failedMatches;
+	}
+
+	public long getTurns() {
+		return (long) matches * Field.TOTAL_TURNS;
+	}
+
+	public double getSeconds() {
+		return nanos / 1e9;
+	}
+
+	public double getTurnsPerMinute() {
+		return getTurns() * 60.0 / getSeconds();
+	}
+
+	public Map<String, ControllerStatistics> getControllers() {
+		return controllers;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		result.append(String.format("%d %s matches (%d failed) in %.1f s, %.0f turns/min%n", matches, matchType,
+				failedMatches, getSeconds(), getTurnsPerMinute()));
+		result.append(String.format("%-24s %8s %8s %8s %9s %10s %10s%n", "controller", "played", "won", "tied",
+				"win rate", "mean score", "std dev"));
+		for (ControllerStatistics stats : controllers.values())
+			result.append(String.format("%-24s %8d %8d %8d %8.1f%% %10.1f %10.1f%n", stats.getName(),
+					stats.getPlayed(), stats.getWins(), stats.getTies(), stats.getWinRate() * 100.0,
+					stats.getMeanScore(), stats.getScoreStandardDeviation()));
+		return result.toString();
+	}
+
+	@Immutable
+	public static final class ControllerStatistics {
+
+		private final String name;
+		private final int played;
+		private final int wins;
+		private final int ties;
+		private final double meanScore;
+		private final double scoreVariance;
+
+		private ControllerStatistics(Builder builder) {
+			name = builder.name;
+			played = builder.played;
+			wins = builder.wins;
+			ties = builder.ties;
+			meanScore = builder.mean;
+			scoreVariance = played > 1 ? builder.squaredDeviations / (played - 1) : 0.0;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getPlayed() {
+			return played;
+		}
+
+		public int getWins() {
+			return wins;
+		}
+
+		public int getTies() {
+			return ties;
+		}
+
+		public double getWinRate() {
+			return played == 0 ? 0.0 : (double) wins / played;
+		}
+
+		public double getMeanScore() {
+			return meanScore;
+		}
+
+		public double getScoreStandardDeviation() {
+			return Math.sqrt(scoreVariance);
+		}
+
+		@Override
+		public String toString() {
+			return "ControllerStatistics[name=" + name + ",played=" + played + ",wins=" + wins + ",ties=" + ties
+					+ ",meanScore=" + meanScore + ']';
+		}
+
+		@NotThreadSafe
+		static final class Builder {
+
+			private final String name;
+			private int played;
+			private int wins;
+			private int ties;
+			private double mean;
+			private double squaredDeviations;
+
+			Builder(String name) {
+				this.name = name;
+			}
+
+			void add(int score, Outcome outcome) {
+				// Welford's method, so long batches do not lose precision
+				played++;
+				if (outcome == Outcome.WIN)
+					wins++;
+				else if (outcome == Outcome.TIE)
+					ties++;
+				double delta = score - mean;
+				mean += delta / played;
+				squaredDeviations += delta * (score - mean);
+			}
+
+			ControllerStatistics build() {
+				return new ControllerStatistics(this);
+			}
+
+		}
+
+	}
+
+	@NotThreadSafe
+	static final class Builder {
+
+		private final MatchType matchType;
+		private int matches;
+		private int failedMatches;
+		private final Map<String, ControllerStatistics.Builder> controllers = new TreeMap<>();
+
+		Builder(MatchType matchType) {
+			this.matchType = matchType;
+		}
+
+		void addMatch() {
+			matches++;
+		}
+
+		void addFailedMatch() {
+			failedMatches++;
+		}
+
+		void addResult(String name, int score, Outcome outcome) {
+			controllers.computeIfAbsent(name, ControllerStatistics.Builder::new).add(score, outcome);
+		}
+
+		BatchStatistics build(long nanos) {
+			return new BatchStatistics(this, nanos);
+		}
+
+	}
+
+	/*
+	 * A team wins only with the best score to itself; teams that share the
+	 * best score have tied.
+	 */
+	enum Outcome {
+		WIN, TIE, LOSS
+	}
+
+}
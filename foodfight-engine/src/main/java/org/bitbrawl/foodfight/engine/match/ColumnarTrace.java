@@ -0,0 +1,221 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bitbrawl.foodfight.field.Event;
+import org.bitbrawl.foodfight.field.Food;
+import org.bitbrawl.foodfight.field.MatchType;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A memory-mapped trace file that stores each value of each player, piece of
+ * food, and team as its own column, with one entry per state. A single value
+ * or a whole column is read straight from the file, without deserializing any
+ * other part of the match.
+ * <p>
+ * The file starts with a header naming the match, the teams, and the players,
+ * followed by the player columns, the food columns, and finally the team
+ * columns. There is one set of food columns for each type of food, since the
+ * field never holds two pieces of the same type. Food that is not on the field
+ * in a state is stored as {@link Double#NaN}. Columnar traces are written by
+ * {@link ColumnarTraceWriter}.
+ */
+@ThreadSafe
+public final class ColumnarTrace {
+
+	// only absolute reads are made, so the buffer's position is never shared
+	private final ByteBuffer buffer;
+	private final int matchNumber;
+	private final long seed;
+	private final MatchType matchType;
+	private final int numStates;
+	private final Map<Character, String> names;
+	private final Map<Character, Integer> playerIndices;
+	private final Map<Character, Integer> teamIndices;
+	private final int numFoodTypes;
+	private final int numEvents;
+	private final int playerStart;
+	private final int foodStart;
+	private final int teamStart;
+
+	private ColumnarTrace(ByteBuffer buffer) throws IOException {
+
+		this.buffer = buffer;
+
+		if (buffer.getInt() != MAGIC)
+			throw new IOException("Not a columnar trace");
+		int version = buffer.getInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported columnar trace version: " + version);
+		matchNumber = buffer.getInt();
+		seed = buffer.getLong();
+		matchType = MATCH_TYPES[buffer.get()];
+		numStates = buffer.getInt();
+		numFoodTypes = buffer.get();
+		numEvents = buffer.get();
+
+		Map<Character, String> tempNames = new LinkedHashMap<>();
+		Map<Character, Integer> tempPlayers = new LinkedHashMap<>();
+		Map<Character, Integer> tempTeams = new LinkedHashMap<>();
+		int numTeams = buffer.get();
+		for (int i = 0; i < numTeams; i++) {
+			tempTeams.put(buffer.getChar(), i);
+			int numPlayers = buffer.get();
+			for (int j = 0; j < numPlayers; j++) {
+				char symbol = buffer.getChar();
+				byte[] name = new byte[buffer.getShort()];
+				buffer.get(name);
+				tempPlayers.put(symbol, tempPlayers.size());
+				tempNames.put(symbol, new String(name, StandardCharsets.UTF_8));
+			}
+		}
+		names = Collections.unmodifiableMap(tempNames);
+		playerIndices = Collections.unmodifiableMap(tempPlayers);
+		teamIndices = Collections.unmodifiableMap(tempTeams);
+
+		playerStart = buffer.position();
+		foodStart = playerStart + tempPlayers.size() * PLAYER_COLUMNS.length * numStates * Double.BYTES;
+		teamStart = foodStart + numFoodTypes * FOOD_COLUMNS.length * numStates * Double.BYTES;
+		int end = teamStart + numTeams * (1 + numEvents) * numStates * Integer.BYTES;
+		if (end != buffer.limit())
+			throw new IOException("Columnar trace should be " + end + " bytes, but is " + buffer.limit());
+
+	}
+
+	public static ColumnarTrace open(Path file) throws IOException {
+		// the mapping stays valid after the channel is closed
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new ColumnarTrace(buffer);
+		}
+	}
+
+	public int getMatchNumber() {
+		return matchNumber;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public MatchType getMatchType() {
+		return matchType;
+	}
+
+	public int getNumberOfStates() {
+		return numStates;
+	}
+
+	public Map<Character, String> getNames() {
+		return names;
+	}
+
+	public double getPlayerValue(char player, PlayerColumn column, int state) {
+		return buffer.getDouble(playerOffset(player, column) + checkState(state) * Double.BYTES);
+	}
+
+	public double[] getPlayerColumn(char player, PlayerColumn column) {
+		return readDoubles(playerOffset(player, column));
+	}
+
+	public double getFoodValue(Food.Type type, FoodColumn column, int state) {
+		return buffer.getDouble(foodOffset(type, column) + checkState(state) * Double.BYTES);
+	}
+
+	public double[] getFoodColumn(Food.Type type, FoodColumn column) {
+		return readDoubles(foodOffset(type, column));
+	}
+
+	public int getScore(char team, int state) {
+		return buffer.getInt(teamOffset(team, 0) + checkState(state) * Integer.BYTES);
+	}
+
+	public int[] getScoreColumn(char team) {
+		return readInts(teamOffset(team, 0));
+	}
+
+	public int getEventCount(char team, Event event, int state) {
+		return buffer.getInt(teamOffset(team, 1 + event.ordinal()) + checkState(state) * Integer.BYTES);
+	}
+
+	public int[] getEventCountColumn(char team, Event event) {
+		return readInts(teamOffset(team, 1 + event.ordinal()));
+	}
+
+	private int playerOffset(char player, PlayerColumn column) {
+		Integer index = playerIndices.get(player);
+		if (index == null)
+			throw new IllegalArgumentException("No player " + player + " in this trace");
+		return playerStart + (index * PLAYER_COLUMNS.length + column.ordinal()) * numStates * Double.BYTES;
+	}
+
+	private int foodOffset(Food.Type type, FoodColumn column) {
+		if (type.ordinal() >= numFoodTypes)
+			throw new IllegalArgumentException("No " + type + " in this trace");
+		return foodStart + (type.ordinal() * FOOD_COLUMNS.length + column.ordinal()) * numStates * Double.BYTES;
+	}
+
+	private int teamOffset(char team, int column) {
+		Integer index = teamIndices.get(team);
+		if (index == null)
+			throw new IllegalArgumentException("No team " + team + " in this trace");
+		if (column > numEvents)
+			throw new IllegalArgumentException("No such event in this trace");
+		return teamStart + (index * (1 + numEvents) + column) * numStates * Integer.BYTES;
+	}
+
+	private int checkState(int state) {
+		if (state < 0 || state >= numStates)
+			throw new IndexOutOfBoundsException("No state " + state + " in a trace of " + numStates);
+		return state;
+	}
+
+	private double[] readDoubles(int offset) {
+		ByteBuffer column = buffer.duplicate();
+		column.position(offset);
+		double[] result = new double[numStates];
+		column.asDoubleBuffer().get(result);
+		return result;
+	}
+
+	private int[] readInts(int offset) {
+		ByteBuffer column = buffer.duplicate();
+		column.position(offset);
+		int[] result = new int[numStates];
+		column.asIntBuffer().get(result);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnarTrace[matchNumber=" + matchNumber + ",states=" + numStates + ']';
+	}
+
+	public enum PlayerColumn {
+		X, Y, HEIGHT, HEADING, ENERGY;
+	}
+
+	public enum FoodColumn {
+		X, Y, HEIGHT, HEADING;
+	}
+
+	static final int MAGIC = 0x46464354;
+	static final int VERSION = 1;
+	static final PlayerColumn[] PLAYER_COLUMNS = PlayerColumn.values();
+	static final FoodColumn[] FOOD_COLUMNS = FoodColumn.values();
+	static final Food.Type[] FOOD_TYPES = Food.Type.values();
+	static final Event[] EVENTS = Event.values();
+	static final int TEAM_COLUMNS = 1 + EVENTS.length;
+	private static final MatchType[] MATCH_TYPES = MatchType.values();
+
+}
@@ -0,0 +1,276 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.FoodState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.engine.field.StateAdapterFactory;
+import org.bitbrawl.foodfight.engine.field.TeamState;
+import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+import org.bitbrawl.foodfight.field.Event;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Writes the columnar trace format read by {@link ColumnarTrace}. The columns
+ * stay in primitive arrays until the writer is closed, which is a small
+ * fraction of the memory the equivalent {@link FieldState}s take.
+ */
+@NotThreadSafe
+public final class ColumnarTraceWriter implements HistorySink.Stage {
+
+	private final Path file;
+	private final DataOutputStream out;
+	private final int matchNumber;
+	private final long seed;
+	private final CharFunction<String> names;
+
+	private FieldState first;
+	private int numStates;
+	private double[][] playerColumns;
+	private double[][] foodColumns;
+	private int[][] teamColumns;
+
+	public ColumnarTraceWriter(Path file, int matchNumber, long seed, CharFunction<String> names)
+			throws IOException {
+		this.file = Objects.requireNonNull(file, "file cannot be null");
+		this.matchNumber = matchNumber;
+		this.seed = seed;
+		this.names = Objects.requireNonNull(names, "names cannot be null");
+		out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE_NEW)));
+	}
+
+	@Override
+	public void accept(FieldState state) {
+
+		if (first == null) {
+			first = state;
+			playerColumns = new double[state.getPlayerStates().size() * ColumnarTrace.PLAYER_COLUMNS.length][];
+			foodColumns = new double[ColumnarTrace.FOOD_TYPES.length * ColumnarTrace.FOOD_COLUMNS.length][];
+			teamColumns = new int[state.getTeamStates().size() * ColumnarTrace.TEAM_COLUMNS][];
+			allocate(INITIAL_CAPACITY);
+		} else if (numStates == playerColumns[0].length) {
+			allocate(numStates * 2);
+		}
+
+		int column = 0;
+		for (TeamState firstTeam : first.getTeamStates()) {
+			for (PlayerState firstPlayer : firstTeam.getPlayerStates()) {
+				PlayerState player = state.getPlayer(firstPlayer.getSymbol());
+				playerColumns[column++][numStates] = player.getLocation().getX();
+				playerColumns[column++][numStates] = player.getLocation().getY();
+				playerColumns[column++][numStates] = player.getHeight();
+				playerColumns[column++][numStates] = player.getHeading().get();
+				playerColumns[column++][numStates] = player.getEnergy();
+			}
+		}
+
+		// the food columns have room for one piece of each type
+		FoodState[] foods = new FoodState[ColumnarTrace.FOOD_TYPES.length];
+		for (FoodState food : state.getFoodStates()) {
+			int index = food.getType().ordinal();
+			if (foods[index] != null)
+				throw new IllegalArgumentException("A columnar trace holds one piece of each type of food, but turn "
+						+ state.getTurnNumber() + " has more than one " + food.getType());
+			foods[index] = food;
+		}
+
+		column = 0;
+		for (FoodState food : foods) {
+			foodColumns[column++][numStates] = food == null ? Double.NaN : food.getLocation().getX();
+			foodColumns[column++][numStates] = food == null ? Double.NaN : food.getLocation().getY();
+			foodColumns[column++][numStates] = food == null ? Double.NaN : food.getHeight();
+			foodColumns[column++][numStates] = food == null ? Double.NaN : food.getHeading().get();
+		}
+
+		column = 0;
+		for (TeamState firstTeam : first.getTeamStates()) {
+			ScoreState score = state.getTeam(firstTeam.getSymbol()).getScore();
+			teamColumns[column++][numStates] = score.getTotalPoints();
+			for (Event event : ColumnarTrace.EVENTS)
+				teamColumns[column++][numStates] = score.getCount(event);
+		}
+
+		numStates++;
+
+	}
+
+	private void allocate(int capacity) {
+		for (int i = 0; i < playerColumns.length; i++)
+			playerColumns[i] = playerColumns[i] == null ? new double[capacity]
+					: Arrays.copyOf(playerColumns[i], capacity);
+		for (int i = 0; i < foodColumns.length; i++)
+			foodColumns[i] = foodColumns[i] == null ? new double[capacity] : Arrays.copyOf(foodColumns[i], capacity);
+		for (int i = 0; i < teamColumns.length; i++)
+			teamColumns[i] = teamColumns[i] == null ? new int[capacity] : Arrays.copyOf(teamColumns[i], capacity);
+	}
+
+	@Override
+	public void close() throws IOException {
+
+		try (DataOutputStream out = this.out) {
+
+			if (first == null)
+				throw new IOException("No states were written to " + file);
+
+			out.writeInt(ColumnarTrace.MAGIC);
+			out.writeInt(ColumnarTrace.VERSION);
+			out.writeInt(matchNumber);
+			out.writeLong(seed);
+			out.writeByte(first.getMatchType().ordinal());
+			out.writeInt(numStates);
+			out.writeByte(ColumnarTrace.FOOD_TYPES.length);
+			out.writeByte(ColumnarTrace.EVENTS.length);
+
+			out.writeByte(first.getTeamStates().size());
+			for (TeamState team : first.getTeamStates()) {
+				out.writeChar(team.getSymbol());
+				out.writeByte(team.getPlayerStates().size());
+				for (PlayerState player : team.getPlayerStates()) {
+					out.writeChar(player.getSymbol());
+					String name = names.apply(player.getSymbol());
+					byte[] bytes = (name == null ? "" : name).getBytes(StandardCharsets.UTF_8);
+					out.writeShort(bytes.length);
+					out.write(bytes);
+				}
+			}
+
+			for (double[] column : playerColumns)
+				for (int i = 0; i < numStates; i++)
+					out.writeDouble(column[i]);
+			for (double[] column : foodColumns)
+				for (int i = 0; i < numStates; i++)
+					out.writeDouble(column[i]);
+			for (int[] column : teamColumns)
+				for (int i = 0; i < numStates; i++)
+					out.writeInt(column[i]);
+
+		}
+
+	}
+
+	@Override
+	public void abort() throws IOException {
+		try {
+			out.close();
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Converts a JSON trace, as written by {@link TraceWriter} or by Gson from a
+	 * whole {@link MatchHistory}, into a columnar trace. The JSON is streamed, so
+	 * only one state is ever deserialized at a time.
+	 */
+	public static void convert(Path jsonTrace, Path columnarTrace) throws IOException {
+
+		try (Reader fileReader = Files.newBufferedReader(jsonTrace, StandardCharsets.UTF_8);
+				JsonReader reader = new JsonReader(fileReader)) {
+
+			int matchNumber = 0;
+			long seed = 0L;
+			Map<Character, String> names = null;
+			ColumnarTraceWriter writer = null;
+
+			try {
+
+				reader.beginObject();
+				while (reader.hasNext()) {
+					switch (reader.nextName()) {
+					case "matchNumber":
+						matchNumber = reader.nextInt();
+						break;
+					case "seed":
+						seed = reader.nextLong();
+						break;
+					case "names":
+						names = gson.fromJson(reader, new TypeToken<Map<Character, String>>() {
+						}.getType());
+						break;
+					case "fieldStates":
+					case "states":
+						if (names == null)
+							throw new IOException("The names must come before the states in " + jsonTrace);
+						if (writer != null)
+							throw new IOException("More than one list of states in " + jsonTrace);
+						writer = new ColumnarTraceWriter(columnarTrace, matchNumber, seed, names::get);
+						reader.beginArray();
+						while (reader.hasNext())
+							writer.accept(gson.<FieldState>fromJson(reader, FieldState.class));
+						reader.endArray();
+						break;
+					default:
+						reader.skipValue();
+					}
+				}
+				reader.endObject();
+
+				if (writer == null)
+					throw new IOException("No states in " + jsonTrace);
+				writer.close();
+
+			} catch (IOException | RuntimeException e) {
+				// a partial trace is never left behind
+				if (writer != null) {
+					try {
+						writer.abort();
+					} catch (IOException suppressed) {
+						e.addSuppressed(suppressed);
+					}
+				}
+				throw e;
+			}
+
+		}
+
+	}
+
+	public static void main(String[] args) {
+
+		if (args.length == 0) {
+			logger.severe("Usage: ColumnarTraceWriter <trace.json>...");
+			return;
+		}
+
+		for (String arg : args) {
+			Path jsonTrace = Paths.get(arg);
+			String fileName = jsonTrace.getFileName().toString().replaceFirst("\\.json$", "");
+			Path columnarTrace = jsonTrace.resolveSibling(fileName + ".bin");
+			logger.log(Level.INFO, "Converting {0} to {1}", new Object[] { jsonTrace, columnarTrace });
+			try {
+				convert(jsonTrace, columnarTrace);
+			} catch (IOException | RuntimeException e) {
+				logger.log(Level.SEVERE, "Unable to convert " + jsonTrace, e);
+			}
+		}
+
+	}
+
+	private static final int INITIAL_CAPACITY = 2048;
+	private static final Gson gson = new GsonBuilder()
+			.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE).create();
+	private static final Logger logger = EngineLogger.INSTANCE;
+
+}
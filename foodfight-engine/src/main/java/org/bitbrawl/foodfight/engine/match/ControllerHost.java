@@ -0,0 +1,239 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.ipc.MessageReader;
+import org.bitbrawl.foodfight.engine.ipc.MessageType;
+import org.bitbrawl.foodfight.engine.ipc.MessageWriter;
+import org.bitbrawl.foodfight.engine.ipc.WireFormat;
+import org.bitbrawl.foodfight.field.Field;
+import org.bitbrawl.foodfight.field.Player;
+import org.bitbrawl.foodfight.field.Team;
+
+import net.jcip.annotations.NotThreadSafe;
+
+@NotThreadSafe
+final class ControllerHost implements AutoCloseable {
+
+	private final String poolKey;
+	private final boolean isPersistent;
+	private final Process process;
+	private MessageWriter writer;
+	private MessageReader reader;
+	private WireFormat format = WireFormat.JSON;
+	private boolean isNegotiated;
+	private int matchesHosted;
+	private boolean isBroken;
+
+	ControllerHost(Path jar, String className, Path log, WireFormat format) throws IOException {
+		this(getRunnerCommand(), jar, className, log, null, format);
+	}
+
+	ControllerHost(List<String> runnerCommand, Path jar, String className, String poolKey, WireFormat format)
+			throws IOException {
+		this(runnerCommand, jar, className, null, poolKey, format);
+	}
+
+	private ControllerHost(List<String> runnerCommand, Path jar, String className, Path log, String poolKey,
+			WireFormat format) throws IOException {
+
+		this.poolKey = poolKey;
+		isPersistent = poolKey != null;
+
+		String jarString = jar.toAbsolutePath().toString();
+		List<String> command = new ArrayList<>(runnerCommand.size() + 3);
+		command.addAll(runnerCommand);
+		command.add(jarString);
+		command.add(className);
+		ProcessBuilder builder = new ProcessBuilder(command);
+		if (isPersistent) {
+			command.add("persistent");
+			builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+		} else {
+			Files.createFile(log);
+			builder.redirectError(log.toAbsolutePath().toFile());
+			matchesHosted = 1;
+		}
+		process = builder.start();
+
+		// every runner starts out speaking JSON; the reply is read lazily so
+		// that several runners can start up at the same time
+		writer = WireFormat.JSON.newWriter(process.getOutputStream());
+		reader = WireFormat.JSON.newReader(process.getInputStream());
+		try {
+			writer.writeText("format");
+			writer.writeText(format.name());
+			writer.flush();
+		} catch (IOException e) {
+			isBroken = true;
+		}
+
+	}
+
+	/**
+	 * The command that starts the controller runner, to which the controller's
+	 * jar and class name are added.
+	 */
+	static List<String> getRunnerCommand() {
+		String runnerJar = Paths.get("lib", "foodfight-runner-1.0.0-jar-with-dependencies.jar").toAbsolutePath()
+				.toString();
+		return Arrays.asList("java", "-Xmx32m", "-jar", runnerJar);
+	}
+
+	String getPoolKey() {
+		return poolKey;
+	}
+
+	int getMatchesHosted() {
+		return matchesHosted;
+	}
+
+	boolean isBroken() {
+		return isBroken;
+	}
+
+	void startMatch(Path log) throws IOException {
+		assert isPersistent;
+
+		Files.createFile(log);
+		try {
+			negotiate();
+			// the runner forgets the previous match's field, so the first turn
+			// of this match must not be a delta against it
+			writer.resync();
+			writer.writeText("match");
+			writer.writeText(log.toAbsolutePath().toString());
+			writer.flush();
+			String reply = reader.readText();
+			if (!"ready".equals(reply))
+				throw new IOException("Unexpected reply from controller host: " + reply);
+			matchesHosted++;
+		} catch (IOException e) {
+			isBroken = true;
+			throw e;
+		}
+
+	}
+
+	void endMatch() throws IOException {
+		assert isPersistent;
+
+		try {
+			negotiate();
+			writer.writeText("end");
+			writer.flush();
+		} catch (IOException e) {
+			isBroken = true;
+			throw e;
+		}
+
+	}
+
+	boolean isHealthy() {
+
+		if (isBroken || !process.isAlive())
+			return false;
+
+		try {
+			negotiate();
+			writer.writeText("ping");
+			writer.flush();
+			if ("pong".equals(reader.readText()))
+				return true;
+		} catch (IOException e) {
+			// handled below
+		}
+		isBroken = true;
+		return false;
+
+	}
+
+	Action playAction(Field field, Team team, Player player) throws IOException {
+
+		try {
+			negotiate();
+			FieldState state = FieldState.fromField(field);
+			writer.writeTurn(state, team.getSymbol(), player.getSymbol());
+			writer.flush();
+			// only deltas can fall out of sync, and JSON actions would peek as
+			// text
+			if (format == WireFormat.DELTA && reader.peek() == MessageType.TEXT) {
+				String reply = reader.readText();
+				if (!reply.equals("resync"))
+					throw new IOException("Unexpected reply from controller host: " + reply);
+				writer.resync();
+				writer.writeTurn(state, team.getSymbol(), player.getSymbol());
+				writer.flush();
+			}
+			return reader.readAction();
+		} catch (IOException e) {
+			isBroken = true;
+			throw e;
+		}
+
+	}
+
+	private void negotiate() throws IOException {
+
+		if (isNegotiated)
+			return;
+		if (isBroken)
+			throw new IOException("Controller host is broken");
+
+		String reply = reader.readText();
+		try {
+			format = WireFormat.valueOf(reply);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Unknown wire format from controller host: " + reply, e);
+		}
+		if (format != WireFormat.JSON) {
+			writer = format.newWriter(process.getOutputStream());
+			reader = format.newReader(process.getInputStream());
+		}
+		isNegotiated = true;
+
+	}
+
+	@Override
+	public void close() {
+
+		if (isPersistent && !isBroken && process.isAlive()) {
+			try {
+				negotiate();
+				writer.writeText("exit");
+				writer.flush();
+			} catch (IOException e) {
+				// the process is destroyed below
+			}
+		}
+
+		try {
+			try {
+				writer.close();
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			// the process is destroyed below
+		}
+
+		try {
+			if (!process.waitFor(1L, TimeUnit.SECONDS))
+				process.destroyForcibly();
+		} catch (InterruptedException e) {
+			process.destroyForcibly();
+			Thread.currentThread().interrupt();
+		}
+
+	}
+
+}
@@ -0,0 +1,124 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+
+import org.bitbrawl.foodfight.engine.ipc.WireFormat;
+import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+@ThreadSafe
+public final class ControllerPool implements AutoCloseable {
+
+	private final int matchesPerHost;
+	private final WireFormat format;
+	private final List<String> runnerCommand;
+	@GuardedBy("this")
+	private final Map<String, Deque<ControllerHost>> idleHosts = new HashMap<>();
+	@GuardedBy("this")
+	private boolean isClosed;
+
+	public ControllerPool(int matchesPerHost, WireFormat format) {
+		this(matchesPerHost, format, ControllerHost.getRunnerCommand());
+	}
+
+	ControllerPool(int matchesPerHost, WireFormat format, List<String> runnerCommand) {
+		if (matchesPerHost <= 0)
+			throw new IllegalArgumentException("matchesPerHost must be positive, but is: " + matchesPerHost);
+		this.matchesPerHost = matchesPerHost;
+		this.format = Objects.requireNonNull(format, "format cannot be null");
+		this.runnerCommand = Objects.requireNonNull(runnerCommand, "runnerCommand cannot be null");
+	}
+
+	public JarController acquire(Path jar, String className, Path log) throws IOException {
+
+		if (matchesPerHost == 1)
+			return new JarController(jar, className, log, format);
+
+		String key = getKey(jar, className);
+		ControllerHost host;
+		while ((host = pollIdleHost(key)) != null) {
+			if (host.isHealthy())
+				break;
+			EngineLogger.INSTANCE.log(Level.WARNING, "Discarding unhealthy controller host for {0}", className);
+			host.close();
+		}
+
+		if (host == null)
+			host = new ControllerHost(runnerCommand, jar, className, key, format);
+
+		try {
+			host.startMatch(log);
+		} catch (IOException e) {
+			host.close();
+			throw e;
+		}
+
+		return new JarController(host, log, this);
+
+	}
+
+	void release(ControllerHost host) {
+
+		if (!host.isBroken() && host.getMatchesHosted() < matchesPerHost) {
+			try {
+				host.endMatch();
+			} catch (IOException e) {
+				EngineLogger.INSTANCE.log(Level.WARNING, "Unable to end match on controller host", e);
+			}
+		}
+
+		if (host.isBroken() || host.getMatchesHosted() >= matchesPerHost) {
+			host.close();
+			return;
+		}
+
+		synchronized (this) {
+			if (!isClosed) {
+				idleHosts.computeIfAbsent(host.getPoolKey(), k -> new ArrayDeque<>()).push(host);
+				return;
+			}
+		}
+
+		host.close();
+
+	}
+
+	@Override
+	public void close() {
+
+		Collection<ControllerHost> toClose = new ArrayList<>();
+		synchronized (this) {
+			isClosed = true;
+			for (Deque<ControllerHost> hosts : idleHosts.values())
+				toClose.addAll(hosts);
+			idleHosts.clear();
+		}
+
+		for (ControllerHost host : toClose)
+			host.close();
+
+	}
+
+	private synchronized ControllerHost pollIdleHost(String key) {
+		Deque<ControllerHost> hosts = idleHosts.get(key);
+		return hosts == null ? null : hosts.poll();
+	}
+
+	private static String getKey(Path jar, String className) throws IOException {
+		return jar.toAbsolutePath() + "@" + Files.getLastModifiedTime(jar).toMillis() + "!" + className;
+	}
+
+}
@@ -7,7 +7,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,13 +34,14 @@ public final class DebugUtils {
 			throw new IllegalArgumentException("classes cannot be empty");
 
 		// TODO logger class
-		FieldState field = new FieldGenerator(matchType).get();
+		MatchRandom random = new MatchRandom();
+		FieldState field = new FieldGenerator(matchType, random).get();
 
 		List<Class<? extends JavaController>> classList = Arrays.asList(classes);
 		List<Class<? extends JavaController>> allClasses = new ArrayList<>(classList);
 		while (allClasses.size() < matchType.getNumberOfPlayers())
 			allClasses.addAll(classList);
-		Collections.shuffle(allClasses, ThreadLocalRandom.current());
+		Collections.shuffle(allClasses, random);
 
 		Map<Character, Controller> controllers = new HashMap<>();
 		for (Player player : field.getPlayers()) {
@@ -64,7 +64,7 @@ public final class DebugUtils {
 		FrameGenerator generator = new FrameGenerator(field, names);
 		ImageFrame frame = new ImageFrame(generator, field);
 		Match match = new Match.Builder(0, field, controllers::get, names, new DefaultTurnRunner())
-				.uiConsumer(state -> frame.updateImage(state)).build();
+				.uiConsumer(state -> frame.updateImage(state)).random(random).build();
 		return match.run();
 
 	}
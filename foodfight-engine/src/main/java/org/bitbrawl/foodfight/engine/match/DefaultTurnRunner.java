@@ -6,14 +6,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.BiFunction;
 import java.util.logging.Level;
 
@@ -42,38 +41,40 @@ public final class DefaultTurnRunner implements TurnRunner {
 	}
 
 	@Override
-	public FieldState runTurn(FieldState field, Map<? extends Character, ? extends Action> actions) {
+	public FieldState runTurn(FieldState field, Map<? extends Character, ? extends Action> actions, Random random) {
 		assert field != null;
 		assert actions != null;
+		assert random != null;
 
-		field = playActions(field, actions);
+		field = playActions(field, actions, random);
 
-		field = moveFood(field);
+		field = moveFood(field, random);
 
-		field = enactCollisions(field);
+		field = enactCollisions(field, random);
 
 		field = addFoodPoints(field);
 
 		if (field.getTurnNumber() >= Field.TOTAL_TURNS)
-			field = breakTies(field);
+			field = breakTies(field, random);
 
-		return new FieldState(field.getTurnNumber() + 1, field.getMatchType(), field.getTeamStates(), spawnFood(field),
-				field.getCollisionStates());
+		return new FieldState(field.getTurnNumber() + 1, field.getMatchType(), field.getTeamStates(),
+				spawnFood(field, random), field.getCollisionStates());
 
 	}
 
-	private FieldState playActions(FieldState field, Map<? extends Character, ? extends Action> actions) {
+	private FieldState playActions(FieldState field, Map<? extends Character, ? extends Action> actions,
+			Random random) {
 		assert field != null;
 		assert actions != null;
 
 		List<Character> symbols = new ArrayList<>(actions.keySet());
-		Collections.shuffle(symbols);
+		Collections.shuffle(symbols, random);
 
 		for (char symbol : symbols) {
 			outer: for (TeamState team : field.getTeamStates()) {
 				for (PlayerState player : team.getPlayerStates()) {
 					if (symbol == player.getSymbol()) {
-						field = playAction(field, team, player, actions.get(symbol));
+						field = playAction(field, team, player, actions.get(symbol), random);
 						break outer;
 					}
 				}
@@ -84,7 +85,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 	}
 
-	private FieldState moveFood(FieldState field) {
+	private FieldState moveFood(FieldState field, Random random) {
 		assert field != null;
 
 		Set<FoodState> foods = new LinkedHashSet<>();
@@ -99,7 +100,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 			}
 
 			Direction heading = food.getHeading();
-			Vector horizontalVelocity = Vector.polar(Food.SPEED.getAsDouble(), heading);
+			Vector horizontalVelocity = Vector.polar(Food.SPEED.getAsDouble(random), heading);
 			Vector location = food.getLocation().add(horizontalVelocity);
 			double x = location.getX();
 			double y = location.getY();
@@ -126,7 +127,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 					heading = heading.reflectAcrossX();
 			}
 
-			height -= Food.FALL_SPEED.getAsDouble();
+			height -= Food.FALL_SPEED.getAsDouble(random);
 			if (height < 0.0)
 				height = 0.0;
 
@@ -172,9 +173,9 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 	}
 
-	private FieldState enactCollisions(FieldState field) {
+	private FieldState enactCollisions(FieldState field, Random random) {
 
-		Set<CollisionState> collisions = new HashSet<>();
+		Set<CollisionState> collisions = new LinkedHashSet<>();
 
 		Comparator<Player> playerComparator = PlayerComparator.INSTANCE;
 
@@ -196,7 +197,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 						if (playerLocation.subtract(otherLocation).getMagnitude() < collisionDistance) {
 							Vector collisionLocation = Vector.average(playerLocation, otherLocation);
-							double damage = Player.COLLISION_DAMAGE.getAsDouble();
+							double damage = Player.COLLISION_DAMAGE.getAsDouble(random);
 							collisions.add(new CollisionState(collisionLocation, damage));
 							damages.merge(player, damage, Double::sum);
 							damages.merge(otherPlayer, damage, Double::sum);
@@ -225,7 +226,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 					if (playerLocation.subtract(foodLocation).getMagnitude() < collisionDistance) {
 						Vector collisionLocation = playerLocation.multiply(foodRadius)
 								.add(foodLocation.multiply(Player.COLLISION_RADIUS)).divide(collisionDistance);
-						double damage = food.getType().getDamage().getAsDouble();
+						double damage = food.getType().getDamage().getAsDouble(random);
 						collisions.add(new CollisionState(collisionLocation, damage));
 						damages.merge(player, damage, Double::sum);
 						BiFunction<TeamState, ScoreState, ScoreState> remapping = (k, v) -> {
@@ -321,7 +322,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 	}
 
-	private Set<FoodState> spawnFood(FieldState field) {
+	private Set<FoodState> spawnFood(FieldState field, Random random) {
 		Set<FoodState> fieldFood = field.getFoodStates();
 		Set<Food.Type> availableTypes = EnumSet.allOf(Food.Type.class);
 		for (FoodState food : fieldFood)
@@ -335,13 +336,13 @@ public final class DefaultTurnRunner implements TurnRunner {
 						availableTypes.remove(type);
 				}
 		}
-		if (availableTypes.size() <= 4 || ThreadLocalRandom.current().nextDouble() >= Food.RESPAWN_RATE)
+		if (availableTypes.size() <= 4 || random.nextDouble() >= Food.RESPAWN_RATE)
 			return fieldFood;
-		Food.Type type = randomElementFrom(availableTypes);
+		Food.Type type = randomElementFrom(availableTypes, random);
 		double radius = type.getRadius();
 		outer: while (true) {
-			double x = ThreadLocalRandom.current().nextDouble(radius, Field.WIDTH - radius);
-			double y = ThreadLocalRandom.current().nextDouble(radius, Field.DEPTH - radius);
+			double x = MatchRandom.nextDouble(random, radius, Field.WIDTH - radius);
+			double y = MatchRandom.nextDouble(random, radius, Field.DEPTH - radius);
 			Vector newLocation = Vector.cartesian(x, y);
 			for (PlayerState player : field.getPlayerStates()) {
 				double distance = player.getLocation().subtract(newLocation).getMagnitude();
@@ -366,7 +367,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 		}
 	}
 
-	private FieldState breakTies(FieldState field) {
+	private FieldState breakTies(FieldState field, Random random) {
 
 		Set<TeamState> teams = field.getTeamStates();
 		List<TeamState> orderedTeams = new ArrayList<>(teams);
@@ -383,7 +384,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 			}
 			distancesToCenter.put(team, teamDist);
 		}
-		Collections.shuffle(orderedTeams, ThreadLocalRandom.current());
+		Collections.shuffle(orderedTeams, random);
 		Collections.sort(orderedTeams, (a, b) -> {
 
 			int pointDifference = Integer.compare(a.getScore().getTotalPoints(), b.getScore().getTotalPoints());
@@ -424,7 +425,8 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 	}
 
-	private FieldState playAction(FieldState field, TeamState team, PlayerState player, Action action) {
+	private FieldState playAction(FieldState field, TeamState team, PlayerState player, Action action,
+			Random random) {
 		assert field != null;
 		assert player != null;
 
@@ -453,7 +455,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 				score = score.addEvent(Event.FIRST_PICKUP);
 
-				FoodState piece = randomFoodPieceWithinReach(field, player, hand);
+				FoodState piece = randomFoodPieceWithinReach(field, player, hand, random);
 				if (piece == null) {
 					List<TeamState> tableTeams = new ArrayList<>();
 					List<Food.Type> types = new ArrayList<>();
@@ -466,7 +468,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 							}
 						}
 					}
-					int randomIndex = ThreadLocalRandom.current().nextInt(tableTeams.size());
+					int randomIndex = random.nextInt(tableTeams.size());
 					TeamState tableTeam = tableTeams.get(randomIndex);
 					TableState table = tableTeam.getTable();
 					Food.Type toRemove = types.get(randomIndex);
@@ -492,7 +494,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 				Vector location = PlayerUtils.getArmLocation(player, hand);
 				// TODO put random variable somewhere
 				Direction heading = PlayerUtils.getArmDirection(player, hand);
-				double height = Player.THROW_HEIGHT.getAsDouble();
+				double height = Player.THROW_HEIGHT.getAsDouble(random);
 
 				FoodState piece = new FoodState(type, location, height, heading);
 
@@ -504,7 +506,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 				Food.Type type = inventory.get(hand);
 				inventory = inventory.remove(hand);
-				energy = Math.min(energy + type.getEnergy().getAsDouble(), Player.MAX_ENERGY);
+				energy = Math.min(energy + type.getEnergy().getAsDouble(random), Player.MAX_ENERGY);
 
 				score = score.addEvent(Event.FIRST_EAT).addEvent(Event.EVERY_EAT);
 
@@ -512,9 +514,9 @@ public final class DefaultTurnRunner implements TurnRunner {
 				score = score.addEvent(Event.FIRST_MOVE);
 			}
 
-		Vector location = calculateLocation(field, player, action);
-		double height = calculateHeight(player, action);
-		Direction heading = calculateHeading(player, action);
+		Vector location = calculateLocation(field, player, action, random);
+		double height = calculateHeight(player, action, random);
+		Direction heading = calculateHeading(player, action, random);
 
 		player = new PlayerState(player.getSymbol(), location, height, heading, inventory, energy);
 		Set<PlayerState> players = new LinkedHashSet<>();
@@ -545,7 +547,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 	}
 
-	private Vector calculateLocation(FieldState field, PlayerState player, Action action) {
+	private Vector calculateLocation(FieldState field, PlayerState player, Action action, Random random) {
 		assert field != null;
 		assert player != null;
 
@@ -556,10 +558,10 @@ public final class DefaultTurnRunner implements TurnRunner {
 		if (action == null) {
 			return location;
 		} else if (action.equals(Action.MOVE_FORWARD)) {
-			double speed = Player.FORWARD_MOVEMENT_SPEED.getAsDouble() * multiplier;
+			double speed = Player.FORWARD_MOVEMENT_SPEED.getAsDouble(random) * multiplier;
 			velocity = Vector.polar(speed, player.getHeading());
 		} else if (action.equals(Action.MOVE_BACKWARD)) {
-			double speed = Player.REVERSE_MOVEMENT_SPEED.getAsDouble() * multiplier;
+			double speed = Player.REVERSE_MOVEMENT_SPEED.getAsDouble(random) * multiplier;
 			velocity = Vector.polar(speed, player.getHeading().getOpposite());
 		} else {
 			return location;
@@ -569,17 +571,17 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 	}
 
-	private double calculateHeight(PlayerState player, Action action) {
+	private double calculateHeight(PlayerState player, Action action, Random random) {
 		assert player != null;
 
 		if (action != null && action.equals(Action.DUCK))
-			return Math.max(player.getHeight() - Player.DUCK_SPEED.getAsDouble(), Player.MIN_HEIGHT);
+			return Math.max(player.getHeight() - Player.DUCK_SPEED.getAsDouble(random), Player.MIN_HEIGHT);
 		else
 			return Player.HEIGHT;
 
 	}
 
-	private Direction calculateHeading(PlayerState player, Action action) {
+	private Direction calculateHeading(PlayerState player, Action action, Random random) {
 		assert player != null;
 
 		Direction heading = player.getHeading();
@@ -588,9 +590,9 @@ public final class DefaultTurnRunner implements TurnRunner {
 		if (action == null)
 			return heading;
 		else if (action.equals(Action.TURN_LEFT))
-			angularVelocity = Player.TURN_SPEED.getAsDouble();
+			angularVelocity = Player.TURN_SPEED.getAsDouble(random);
 		else if (action.equals(Action.TURN_RIGHT))
-			angularVelocity = -Player.TURN_SPEED.getAsDouble();
+			angularVelocity = -Player.TURN_SPEED.getAsDouble(random);
 		else
 			return heading;
 
@@ -598,7 +600,8 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 	}
 
-	private FoodState randomFoodPieceWithinReach(FieldState field, PlayerState player, Player.Hand hand) {
+	private FoodState randomFoodPieceWithinReach(FieldState field, PlayerState player, Player.Hand hand,
+			Random random) {
 		assert player != null;
 		assert hand != null;
 
@@ -612,7 +615,7 @@ public final class DefaultTurnRunner implements TurnRunner {
 		if (size == 0)
 			return null;
 
-		return options.get(ThreadLocalRandom.current().nextInt(size));
+		return options.get(random.nextInt(size));
 
 	}
 
@@ -711,10 +714,10 @@ public final class DefaultTurnRunner implements TurnRunner {
 
 	}
 
-	private static <E> E randomElementFrom(Collection<E> collection) {
+	private static <E> E randomElementFrom(Collection<E> collection, Random random) {
 		assert collection != null;
 		assert !collection.isEmpty();
-		int index = ThreadLocalRandom.current().nextInt(collection.size());
+		int index = random.nextInt(collection.size());
 		int i = 0;
 		for (E element : collection)
 			if (i++ == index)
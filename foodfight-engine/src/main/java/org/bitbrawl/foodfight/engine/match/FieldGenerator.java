@@ -8,8 +8,9 @@ import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Queue;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Random;
 import java.util.function.Supplier;
 
 import org.bitbrawl.foodfight.engine.field.FieldState;
@@ -32,9 +33,11 @@ import org.bitbrawl.foodfight.util.Vector;
 public final class FieldGenerator implements Supplier<FieldState> {
 
 	private final MatchType type;
+	private final Random random;
 
-	public FieldGenerator(MatchType type) {
+	public FieldGenerator(MatchType type, Random random) {
 		this.type = type;
+		this.random = Objects.requireNonNull(random, "random cannot be null");
 	}
 
 	@Override
@@ -46,7 +49,7 @@ public final class FieldGenerator implements Supplier<FieldState> {
 
 	}
 
-	private static Queue<FieldZone> getFieldZones() {
+	private Queue<FieldZone> getFieldZones() {
 
 		List<FieldZone> result = new ArrayList<>(8);
 
@@ -64,7 +67,7 @@ public final class FieldGenerator implements Supplier<FieldState> {
 		result.add(new FieldZone(twoThirdsWidth, Field.WIDTH, oneThirdDepth, twoThirdsDepth));
 		result.add(new FieldZone(twoThirdsWidth, Field.WIDTH, twoThirdsDepth, Field.DEPTH));
 
-		Collections.shuffle(result);
+		Collections.shuffle(result, random);
 
 		return new LinkedList<>(result);
 
@@ -106,7 +109,7 @@ public final class FieldGenerator implements Supplier<FieldState> {
 				foodZones.addAll(zones.remove().split());
 
 		List<Food.Type> types = new ArrayList<>(Arrays.asList(Food.Type.values()));
-		Collections.shuffle(types);
+		Collections.shuffle(types, random);
 
 		FoodState[] food = new FoodState[Field.MAX_FOOD];
 		for (int i = 0; i < Field.MAX_FOOD; i++) {
@@ -116,12 +119,12 @@ public final class FieldGenerator implements Supplier<FieldState> {
 		}
 
 		List<FoodState> result = Arrays.asList(food);
-		Collections.shuffle(result, ThreadLocalRandom.current());
+		Collections.shuffle(result, random);
 		return result;
 
 	}
 
-	private static List<PlayerState> generatePlayers(int numPlayers, List<? extends Character> playerSymbols,
+	private List<PlayerState> generatePlayers(int numPlayers, List<? extends Character> playerSymbols,
 			Queue<? extends FieldZone> zones) {
 
 		PlayerState[] result = new PlayerState[numPlayers];
@@ -130,7 +133,7 @@ public final class FieldGenerator implements Supplier<FieldState> {
 
 			char symbol = removeRandomElementFrom(playerSymbols);
 			Vector location = randomLocationInZone(zones.remove(), Player.COLLISION_RADIUS);
-			Direction heading = Direction.random();
+			Direction heading = Direction.random(random);
 			InventoryState inventory = new InventoryState(new EnumMap<>(Hand.class));
 
 			result[i] = new PlayerState(symbol, location, 0.0, heading, inventory, Player.MAX_ENERGY);
@@ -141,16 +144,16 @@ public final class FieldGenerator implements Supplier<FieldState> {
 
 	}
 
-	private static Vector randomLocationInZone(FieldZone zone, double radius) {
+	private Vector randomLocationInZone(FieldZone zone, double radius) {
 
-		double x = ThreadLocalRandom.current().nextDouble(zone.getXMin() + radius, zone.getXMax() - radius);
-		double y = ThreadLocalRandom.current().nextDouble(zone.getYMin() + radius, zone.getYMax() - radius);
+		double x = MatchRandom.nextDouble(random, zone.getXMin() + radius, zone.getXMax() - radius);
+		double y = MatchRandom.nextDouble(random, zone.getYMin() + radius, zone.getYMax() - radius);
 		return Vector.cartesian(x, y);
 
 	}
 
-	private static <E> E removeRandomElementFrom(List<? extends E> list) {
-		return list.remove(ThreadLocalRandom.current().nextInt(list.size()));
+	private <E> E removeRandomElementFrom(List<? extends E> list) {
+		return list.remove(random.nextInt(list.size()));
 	}
 
 	private static final List<Character> ALPHABET;
@@ -0,0 +1,208 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Hands the states of a running match to trace writers, video encoders, and
+ * other stages on a background thread, as the turns are played. At most a
+ * fixed number of states wait in between, so a match run with
+ * {@link Match.Builder#keepHistory(boolean) keepHistory(false)} and a sink as
+ * its UI consumer never holds its whole history in memory. If the stages fall
+ * behind, the match waits for them.
+ */
+@ThreadSafe
+public final class HistorySink implements Consumer<FieldState>, AutoCloseable {
+
+	private final List<Stage> stages;
+	private final BlockingQueue<Optional<FieldState>> pending;
+	private final Thread worker;
+	// only touched by the worker until it has been joined
+	private final Map<Stage, Exception> failures = new HashMap<>();
+	private volatile boolean aborted;
+	private boolean closed;
+
+	public HistorySink(int window, Stage... stages) {
+		if (window <= 0)
+			throw new IllegalArgumentException("window must be positive, but is: " + window);
+		for (Stage stage : Objects.requireNonNull(stages, "stages cannot be null"))
+			Objects.requireNonNull(stage, "stages cannot contain null");
+		this.stages = new ArrayList<>(Arrays.asList(stages));
+		pending = new ArrayBlockingQueue<>(window);
+		worker = new Thread(this::drain, "history-sink");
+		worker.start();
+	}
+
+	public HistorySink(Stage... stages) {
+		this(DEFAULT_WINDOW, stages);
+	}
+
+	@Override
+	public void accept(FieldState state) {
+		Objects.requireNonNull(state, "state cannot be null");
+		try {
+			pending.put(Optional.of(state));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the history stages", e);
+		}
+	}
+
+	private void drain() {
+		List<Stage> active = new ArrayList<>(stages);
+		try {
+			Optional<FieldState> state;
+			while ((state = pending.take()).isPresent() && !aborted) {
+				// a stage that fails gets no more states, but the others carry
+				// on and the queue keeps draining so the match never blocks
+				for (Iterator<Stage> it = active.iterator(); it.hasNext();) {
+					Stage stage = it.next();
+					try {
+						stage.accept(state.get());
+					} catch (IOException | RuntimeException e) {
+						failures.put(stage, e);
+						it.remove();
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			// only an abort interrupts the worker, and it aborts every stage
+		}
+	}
+
+	/**
+	 * Waits for every queued state to reach the stages, then closes them. A
+	 * stage that failed along the way is aborted instead, and the first problem
+	 * any stage had is thrown here. If interrupted while waiting, every stage
+	 * is aborted.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+
+		if (closed)
+			return;
+		closed = true;
+
+		try {
+			pending.put(Optional.empty());
+			worker.join();
+		} catch (InterruptedException e) {
+			abortStages();
+			Thread.currentThread().interrupt();
+			InterruptedIOException interrupted = new InterruptedIOException(
+					"Interrupted while waiting for the history stages");
+			interrupted.initCause(e);
+			throw interrupted;
+		}
+
+		Exception problem = null;
+		for (Stage stage : stages) {
+			Exception failure = failures.get(stage);
+			if (failure != null && problem == null)
+				problem = failure;
+			try {
+				if (failure == null)
+					stage.close();
+				else
+					stage.abort();
+			} catch (IOException | RuntimeException e) {
+				if (problem == null)
+					problem = e;
+				else
+					problem.addSuppressed(e);
+			}
+		}
+
+		if (problem instanceof IOException)
+			throw (IOException) problem;
+		if (problem instanceof RuntimeException)
+			throw (RuntimeException) problem;
+
+	}
+
+	/**
+	 * Stops handing states to the stages and has every stage discard its
+	 * output, for when the match cannot finish. Closing the sink afterwards
+	 * does nothing.
+	 */
+	public synchronized void abort() {
+		if (closed)
+			return;
+		closed = true;
+		abortStages();
+	}
+
+	private void abortStages() {
+
+		// nothing else puts states while the sink is locked, so there is room
+		aborted = true;
+		pending.clear();
+		pending.offer(Optional.empty());
+		worker.interrupt();
+
+		boolean interrupted = false;
+		while (worker.isAlive()) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+
+		for (Stage stage : stages) {
+			try {
+				stage.abort();
+			} catch (IOException | RuntimeException e) {
+				logger.log(Level.WARNING, "Unable to discard the output of a history stage", e);
+			}
+		}
+
+	}
+
+	/**
+	 * One consumer of match states, such as a trace writer or video encoder.
+	 * Stages are only ever called from the sink's background thread.
+	 */
+	public interface Stage extends AutoCloseable {
+
+		void accept(FieldState state) throws IOException;
+
+		/**
+		 * Finishes the output of this stage.
+		 */
+		@Override
+		void close() throws IOException;
+
+		/**
+		 * Releases this stage and deletes what it has written, instead of
+		 * finishing it.
+		 */
+		void abort() throws IOException;
+
+	}
+
+	public static final int DEFAULT_WINDOW = 64;
+
+	private static final Logger logger = EngineLogger.INSTANCE;
+
+}
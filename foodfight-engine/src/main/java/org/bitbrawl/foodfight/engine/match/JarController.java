@@ -1,67 +1,36 @@
 package org.bitbrawl.foodfight.engine.match;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
-import java.io.Writer;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.logging.Level;
 
 import org.bitbrawl.foodfight.controller.Controller;
-import org.bitbrawl.foodfight.engine.field.FieldState;
-import org.bitbrawl.foodfight.engine.field.InventoryState;
-import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.engine.ipc.WireFormat;
 import org.bitbrawl.foodfight.engine.logging.EngineLogger;
 import org.bitbrawl.foodfight.field.Field;
 import org.bitbrawl.foodfight.field.Player;
 import org.bitbrawl.foodfight.field.Team;
-import org.bitbrawl.foodfight.util.Direction;
-import org.bitbrawl.foodfight.util.Vector;
-
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonIOException;
-import com.google.gson.JsonSyntaxException;
-import com.google.gson.stream.JsonReader;
-
-public final class JarController implements Controller {
-
-	private final Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
-			.registerTypeAdapter(ScoreState.class, ScoreState.Serializer.INSTANCE)
-			.registerTypeAdapter(InventoryState.class, InventoryState.Serializer.INSTANCE)
-			.registerTypeAdapter(Vector.class, Vector.Serializer.INSTANCE)
-			.registerTypeAdapter(Direction.class, Direction.Serializer.INSTANCE).create();
+
+public final class JarController implements Controller, AutoCloseable {
+
 	private final Path log;
-	private final Process process;
-	private final Writer outWriter;
-	private final Writer writer;
-	private final Reader inReader;
-	private final Reader reader;
-	private final JsonReader jsonReader;
+	private final ControllerHost host;
+	private final ControllerPool pool;
 	private boolean isClosed;
+	private boolean isReleased;
 
 	public JarController(Path jar, String className, Path log) throws IOException {
+		this(jar, className, log, WireFormat.DELTA);
+	}
 
-		this.log = log;
-
-		String runnerJar = Paths.get("lib", "foodfight-runner-1.0.0-jar-with-dependencies.jar").toAbsolutePath()
-				.toString();
-		String jarString = jar.toAbsolutePath().toString();
-		ProcessBuilder builder = new ProcessBuilder("java", "-Xmx32m", "-jar", runnerJar, jarString, className);
-		Files.createFile(log);
-		builder.redirectError(log.toAbsolutePath().toFile());
-		process = builder.start();
-		outWriter = new OutputStreamWriter(process.getOutputStream());
-		writer = new BufferedWriter(outWriter);
-		inReader = new InputStreamReader(process.getInputStream());
-		reader = new BufferedReader(inReader);
-		jsonReader = new JsonReader(reader);
+	public JarController(Path jar, String className, Path log, WireFormat format) throws IOException {
+		this(new ControllerHost(jar, className, log, format), log, null);
+	}
 
+	JarController(ControllerHost host, Path log, ControllerPool pool) {
+		this.log = log;
+		this.host = host;
+		this.pool = pool;
 	}
 
 	@Override
@@ -71,13 +40,8 @@ public final class JarController implements Controller {
 			return null;
 
 		try {
-			gson.toJson(FieldState.fromField(field), writer);
-			gson.toJson(team.getSymbol(), writer);
-			gson.toJson(player.getSymbol(), writer);
-			writer.flush();
-			Action result = gson.fromJson(jsonReader, Action.class);
-			return result;
-		} catch (IOException | JsonIOException | JsonSyntaxException e) {
+			return host.playAction(field, team, player);
+		} catch (IOException e) {
 			EngineLogger.INSTANCE.log(Level.SEVERE, "Problem communicating with controller", e);
 			isClosed = true;
 			return null;
@@ -89,4 +53,19 @@ public final class JarController implements Controller {
 		return log;
 	}
 
+	@Override
+	public void close() {
+
+		if (isReleased)
+			return;
+		isReleased = true;
+		isClosed = true;
+
+		if (pool == null)
+			host.close();
+		else
+			pool.release(host);
+
+	}
+
 }
@@ -6,7 +6,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
 
 import org.bitbrawl.foodfight.controller.Controller;
@@ -14,6 +16,8 @@ import org.bitbrawl.foodfight.controller.Controller.Action;
 import org.bitbrawl.foodfight.engine.field.DynamicField;
 import org.bitbrawl.foodfight.engine.field.DynamicPlayer;
 import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+import org.bitbrawl.foodfight.engine.field.TeamState;
 import org.bitbrawl.foodfight.field.Field;
 
 public final class Match {
@@ -22,9 +26,13 @@ public final class Match {
 	private final Map<Controller, DynamicPlayer> controllers = new LinkedHashMap<>();
 	private final DynamicField field;
 	private final CharFunction<String> names;
-	private final List<FieldState> fieldStates = new ArrayList<>(Field.TOTAL_TURNS + 1);
+	private final List<FieldState> fieldStates;
+	private final boolean keepHistory;
 	private final TurnRunner turnRunner;
 	private final Consumer<FieldState> uiConsumer;
+	private final Executor dispatchExecutor;
+	private final MatchRandom random;
+	private final ActionTrace.Recorder recorder;
 
 	public final static class Builder {
 
@@ -35,6 +43,10 @@ public final class Match {
 		private final TurnRunner turnRunner;
 		private Consumer<FieldState> uiConsumer = f -> {
 		};
+		private Executor dispatchExecutor;
+		private boolean keepHistory = true;
+		private MatchRandom random;
+		private ActionTrace.Recorder recorder;
 
 		public Builder(int number, FieldState field, CharFunction<? extends Controller> controllers,
 				CharFunction<String> names, TurnRunner turnRunner) {
@@ -50,6 +62,26 @@ public final class Match {
 			return this;
 		}
 
+		public Builder dispatchExecutor(Executor val) {
+			this.dispatchExecutor = val;
+			return this;
+		}
+
+		public Builder random(MatchRandom val) {
+			this.random = val;
+			return this;
+		}
+
+		public Builder recorder(ActionTrace.Recorder val) {
+			this.recorder = val;
+			return this;
+		}
+
+		public Builder keepHistory(boolean val) {
+			this.keepHistory = val;
+			return this;
+		}
+
 		public Match build() {
 			return new Match(this);
 		}
@@ -67,7 +99,18 @@ public final class Match {
 
 		turnRunner = builder.turnRunner;
 
-		uiConsumer = builder.uiConsumer.andThen(fieldStates::add);
+		keepHistory = builder.keepHistory;
+		if (keepHistory) {
+			fieldStates = new ArrayList<>(Field.TOTAL_TURNS + 1);
+			uiConsumer = builder.uiConsumer.andThen(fieldStates::add);
+		} else {
+			fieldStates = new ArrayList<>(1);
+			uiConsumer = builder.uiConsumer;
+		}
+		dispatchExecutor = builder.dispatchExecutor;
+		// without the generator's random source, the seed only reproduces the turns
+		random = builder.random == null ? new MatchRandom() : builder.random;
+		recorder = builder.recorder;
 
 		field.update(new FieldState(field.getTurnNumber() + 1, field.getMatchType(), builder.field.getTeamStates(),
 				builder.field.getFoodStates(), builder.field.getCollisionStates()));
@@ -81,23 +124,71 @@ public final class Match {
 			addFrame();
 
 			List<Entry<Controller, DynamicPlayer>> controllerOrder = new ArrayList<>(controllers.entrySet());
-			Collections.shuffle(controllerOrder, ThreadLocalRandom.current());
-			Map<Character, Action> actions = new LinkedHashMap<>();
+			Collections.shuffle(controllerOrder, random);
+			Map<Character, Action> actions = dispatchExecutor == null ? playActions(controllerOrder)
+					: playActionsConcurrently(controllerOrder);
 
-			for (Entry<Controller, DynamicPlayer> entry : controllerOrder) {
-				Controller controller = entry.getKey();
-				DynamicPlayer player = entry.getValue();
+			if (recorder != null)
+				recorder.addTurn(field.getState(), actions, random.getState());
+			field.update(turnRunner.runTurn(field.getState(), actions, random));
 
-				actions.put(player.getSymbol(), controller.playAction(field, field.getTeam(player), player));
+		}
 
-			}
+		addFrame();
+		if (recorder != null)
+			recorder.addFinalState(field.getState());
+		if (!keepHistory)
+			fieldStates.add(field.getState());
+		return new MatchHistory(number, random.getSeed(), names, fieldStates);
+
+	}
+
+	private Map<Character, Action> playActions(List<Entry<Controller, DynamicPlayer>> controllerOrder) {
 
-			field.update(turnRunner.runTurn(field.getState(), actions));
+		Map<Character, Action> actions = new LinkedHashMap<>();
+
+		for (Entry<Controller, DynamicPlayer> entry : controllerOrder) {
+			Controller controller = entry.getKey();
+			DynamicPlayer player = entry.getValue();
+
+			actions.put(player.getSymbol(), controller.playAction(field, field.getTeam(player), player));
 
 		}
 
-		addFrame();
-		return new MatchHistory(number, names, fieldStates);
+		return actions;
+
+	}
+
+	private Map<Character, Action> playActionsConcurrently(List<Entry<Controller, DynamicPlayer>> controllerOrder) {
+
+		// every controller sees the same immutable pre-turn state, so the
+		// requests can all be in flight at once
+		FieldState state = field.getState();
+		List<CompletableFuture<Action>> pending = new ArrayList<>(controllerOrder.size());
+		for (Entry<Controller, DynamicPlayer> entry : controllerOrder) {
+			Controller controller = entry.getKey();
+			PlayerState player = state.getPlayer(entry.getValue().getSymbol());
+			TeamState team = state.getTeam(player);
+			pending.add(CompletableFuture.supplyAsync(() -> controller.playAction(state, team, player),
+					dispatchExecutor));
+		}
+
+		Map<Character, Action> actions = new LinkedHashMap<>();
+		for (int i = 0; i < pending.size(); i++) {
+			char symbol = controllerOrder.get(i).getValue().getSymbol();
+			try {
+				actions.put(symbol, pending.get(i).join());
+			} catch (CompletionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof Error)
+					throw (Error) cause;
+				if (cause instanceof RuntimeException)
+					throw (RuntimeException) cause;
+				throw e;
+			}
+		}
+
+		return actions;
 
 	}
 
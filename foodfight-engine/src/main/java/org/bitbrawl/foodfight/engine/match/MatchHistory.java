@@ -23,11 +23,14 @@ import net.jcip.annotations.Immutable;
 public final class MatchHistory {
 
 	private final int matchNumber;
+	private final long seed;
 	private final Map<Character, String> names;
 	private final List<FieldState> fieldStates;
 
-	public MatchHistory(int matchNumber, CharFunction<String> names, List<? extends FieldState> fieldStates) {
+	public MatchHistory(int matchNumber, long seed, CharFunction<String> names,
+			List<? extends FieldState> fieldStates) {
 		this.matchNumber = matchNumber;
+		this.seed = seed;
 		this.fieldStates = Collections.unmodifiableList(new ArrayList<>(fieldStates));
 		Map<Character, String> tempNames = new LinkedHashMap<>();
 		for (PlayerState player : fieldStates.get(fieldStates.size() - 1).getPlayerStates()) {
@@ -41,6 +44,10 @@ public final class MatchHistory {
 		return matchNumber;
 	}
 
+	public long getSeed() {
+		return seed;
+	}
+
 	public Map<Character, String> getNames() {
 		return names;
 	}
@@ -63,14 +70,18 @@ public final class MatchHistory {
 
 			JsonObject object = json.getAsJsonObject();
 			int matchNumber = object.getAsJsonPrimitive("matchNumber").getAsInt();
+			// traces from before seeds were recorded cannot be replayed anyway
+			long seed = object.has("seed") ? object.getAsJsonPrimitive("seed").getAsLong() : 0L;
 			Type namesType = new TypeToken<Map<Character, String>>() {
 			}.getType();
 			Map<Character, String> names = context.deserialize(object.get("names"), namesType);
 			Type statesType = new TypeToken<List<FieldState>>() {
 			}.getType();
-			List<FieldState> states = context.deserialize(object.get("states"), statesType);
+			// Gson names the field fieldStates when it writes a whole history
+			JsonElement statesElement = object.has("fieldStates") ? object.get("fieldStates") : object.get("states");
+			List<FieldState> states = context.deserialize(statesElement, statesType);
 
-			return new MatchHistory(matchNumber, names::get, states);
+			return new MatchHistory(matchNumber, seed, names::get, states);
 
 		}
 
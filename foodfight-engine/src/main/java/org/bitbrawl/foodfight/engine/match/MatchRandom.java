@@ -0,0 +1,93 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The single source of randomness for a match. The field generator, the
+ * match, and the turn runner all draw from the same instance, so a match can
+ * be simulated again from its seed and the actions its controllers played.
+ * <p>
+ * The generator is the same linear congruential generator as {@link Random},
+ * but its state can be read and restored, so a replay can start at any turn.
+ */
+public final class MatchRandom extends Random {
+
+	private final long seed;
+	// set by Random's constructor through setSeed, so it has no initializer
+	private long state;
+
+	public MatchRandom(long seed) {
+		super(seed);
+		this.seed = seed;
+	}
+
+	public MatchRandom() {
+		this(ThreadLocalRandom.current().nextLong());
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	long getState() {
+		return state;
+	}
+
+	void setState(long state) {
+		this.state = state & MASK;
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		state = (seed ^ MULTIPLIER) & MASK;
+	}
+
+	@Override
+	protected int next(int bits) {
+		state = (state * MULTIPLIER + ADDEND) & MASK;
+		return (int) (state >>> (48 - bits));
+	}
+
+	@Override
+	public double nextGaussian() {
+		// Random caches every second value in fields we cannot save, so this
+		// polar method throws the second value away instead
+		double v1, v2, s;
+		do {
+			v1 = 2.0 * nextDouble() - 1.0;
+			v2 = 2.0 * nextDouble() - 1.0;
+			s = v1 * v1 + v2 * v2;
+		} while (s >= 1.0 || s == 0.0);
+		return v1 * StrictMath.sqrt(-2.0 * StrictMath.log(s) / s);
+	}
+
+	/**
+	 * Derives the seed of one match in a series from the seed of the whole
+	 * series. Seeds of neighboring matches are well mixed, so their random
+	 * streams do not start out correlated.
+	 */
+	public static long getMatchSeed(long seriesSeed, int matchNumber) {
+		long z = seriesSeed + (matchNumber + 1L) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	// Random.nextDouble(double, double) does not exist before Java 17
+	static double nextDouble(Random random, double origin, double bound) {
+		double result = origin + random.nextDouble() * (bound - origin);
+		return result < bound ? result : Math.nextDown(bound);
+	}
+
+	@Override
+	public String toString() {
+		return "MatchRandom[seed=" + seed + ']';
+	}
+
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+	private static final long serialVersionUID = 1L;
+
+}
@@ -0,0 +1,88 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Writes a trace file one state at a time, in the same layout Gson gives a
+ * whole {@link MatchHistory}.
+ */
+@NotThreadSafe
+public final class TraceWriter implements HistorySink.Stage {
+
+	private final Path traceFile;
+	private final Gson gson;
+	private final JsonWriter writer;
+	private final int matchNumber;
+	private final long seed;
+	private final CharFunction<String> names;
+	private boolean started;
+
+	public TraceWriter(Path traceFile, Gson gson, int matchNumber, long seed, CharFunction<String> names)
+			throws IOException {
+		this.traceFile = Objects.requireNonNull(traceFile, "traceFile cannot be null");
+		this.gson = Objects.requireNonNull(gson, "gson cannot be null");
+		this.matchNumber = matchNumber;
+		this.seed = seed;
+		this.names = Objects.requireNonNull(names, "names cannot be null");
+		writer = gson.newJsonWriter(Files.newBufferedWriter(traceFile, StandardOpenOption.CREATE_NEW));
+	}
+
+	@Override
+	public void accept(FieldState state) throws IOException {
+
+		if (!started) {
+			started = true;
+			writer.beginObject();
+			writer.name("matchNumber").value(matchNumber);
+			writer.name("seed").value(seed);
+			Map<Character, String> tempNames = new LinkedHashMap<>();
+			for (PlayerState player : state.getPlayerStates())
+				tempNames.put(player.getSymbol(), names.apply(player.getSymbol()));
+			writer.name("names");
+			gson.toJson(tempNames, NAMES_TYPE, writer);
+			writer.name("fieldStates").beginArray();
+		}
+
+		gson.toJson(state, FieldState.class, writer);
+
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (started)
+				writer.endArray().endObject();
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Override
+	public void abort() throws IOException {
+		try {
+			writer.close();
+		} finally {
+			Files.deleteIfExists(traceFile);
+		}
+	}
+
+	private static final Type NAMES_TYPE = new TypeToken<Map<Character, String>>() {
+	}.getType();
+
+}
@@ -1,23 +1,28 @@
 package org.bitbrawl.foodfight.engine.video;
 
 import java.awt.Color;
-import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.DataBufferByte;
 import java.awt.image.WritableRaster;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -37,25 +42,41 @@ import org.bitbrawl.foodfight.util.Direction;
 import org.bitbrawl.foodfight.util.PlayerUtils;
 import org.bitbrawl.foodfight.util.Vector;
 
+import net.jcip.annotations.NotThreadSafe;
+
 public final class FrameGenerator implements Function<FieldState, BufferedImage> {
 
-	private final ImageResources resources = new ImageResources();
+	private final ImageResources resources = ImageResources.INSTANCE;
 	private final Map<Character, Float> playerColors = new HashMap<>();
-	private final Map<Character, BufferedImage> playerImages = new HashMap<>();
+	private final Map<Character, SpriteAtlas> playerSprites = new HashMap<>();
 	private final Map<Character, BufferedImage> profileImages = new HashMap<>();
 	private final BufferedImage background;
+	private final byte[] backgroundData;
 	private final CharFunction<String> names;
+	private final FramePool pool;
+	private final TextResources text;
 
 	public FrameGenerator(FieldState initialState, CharFunction<String> names) {
+		this(initialState, names, null);
+	}
+
+	/**
+	 * Constructs a generator that draws each frame into one taken from the
+	 * given pool, or into a newly allocated frame if the pool is null. Frames
+	 * should be released back to the pool once they are no longer used.
+	 */
+	public FrameGenerator(FieldState initialState, CharFunction<String> names, FramePool pool) {
 		Objects.requireNonNull(initialState, "initialState cannot be null");
 		Objects.requireNonNull(names, "names cannot be null");
 
 		this.names = names;
+		this.pool = pool;
 
 		background = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
 		Graphics2D graphics = background.createGraphics();
 		graphics.setColor(Color.LIGHT_GRAY.brighter());
 		graphics.fillRect(0, 0, FIELD_WIDTH, FRAME_HEIGHT);
+		text = new TextResources(graphics.getFontRenderContext());
 
 		List<Integer> imageNumbers = IntStream.range(0, ImageResources.NUM_PLAYER_IMAGES).boxed()
 				.collect(Collectors.toList());
@@ -89,7 +110,7 @@ public final class FrameGenerator implements Function<FieldState, BufferedImage>
 				graphics.fillRect(playerBoxStartX, playerBoxStartY, playerBoxWidth, PLAYER_FRAME_HEIGHT);
 
 				// player symbol on black background
-				graphics.setFont(new Font(Font.MONOSPACED, Font.BOLD, 50));
+				graphics.setFont(TextResources.SYMBOL_FONT);
 				graphics.setColor(Color.BLACK);
 				FontMetrics metrics = graphics.getFontMetrics();
 				char playerSymbol = player.getSymbol();
@@ -103,14 +124,16 @@ public final class FrameGenerator implements Function<FieldState, BufferedImage>
 
 				// player info text
 				graphics.setColor(Color.BLACK);
-				graphics.setFont(new Font(Font.MONOSPACED, Font.BOLD, 20));
+				graphics.setFont(TextResources.INFO_FONT);
 				graphics.drawString(names.apply(player.getSymbol()), playerBoxStartX + 100, playerBoxStartY + 30);
 
 				// generating player images
 				int imageNumber = imageNumbers.remove(0);
-				playerImages.put(playerSymbol, generatePlayerImage(imageNumber, teamHue));
+				playerSprites.put(playerSymbol, new SpriteAtlas(generatePlayerImage(imageNumber, teamHue)));
 				profileImages.put(playerSymbol, generateProfileImage(imageNumber, teamHue));
 
+				text.addLabel(playerSymbol, playerTeamSymbol, idColor);
+
 				playerBoxStartY += PLAYER_FRAME_HEIGHT + BORDER;
 
 			}
@@ -118,56 +141,70 @@ public final class FrameGenerator implements Function<FieldState, BufferedImage>
 
 		graphics.dispose();
 
+		backgroundData = ((DataBufferByte) background.getRaster().getDataBuffer()).getData();
+
 	}
 
 	@Override
 	public BufferedImage apply(FieldState field) {
 
-		BufferedImage result = copyImage(background);
+		BufferedImage result = newFrame();
 		Graphics2D graphics = result.createGraphics();
+		for (Drawing drawing : layOut(field))
+			drawing.draw(graphics, drawing.clip);
+		graphics.dispose();
+
+		return result;
 
-		graphics.setClip(0, 0, FIELD_WIDTH, FRAME_HEIGHT);
+	}
 
+	/**
+	 * Returns a function that draws the same frames as this generator, but
+	 * keeps the frames it has drawn and only draws again the parts of a frame
+	 * that have changed since it was last used. It must be applied to the
+	 * states of a match in order, from one thread at a time. Each frame it
+	 * returns is drawn over by the call {@code numBuffers} calls later, so a
+	 * frame must no longer be in use by then.
+	 */
+	public Function<FieldState, BufferedImage> incremental(int numBuffers) {
+		if (numBuffers < 1)
+			throw new IllegalArgumentException("numBuffers must be at least 1");
+		return new Incremental(numBuffers);
+	}
+
+	/*
+	 * Everything that is drawn over the background of a frame, in the order it
+	 * is drawn.
+	 */
+	private List<Drawing> layOut(FieldState field) {
+
+		List<Drawing> result = new ArrayList<>();
+
+		// the spin of a collision depends only on the turn, so that a frame
+		// can be drawn again identically
+		Random spin = new Random(field.getTurnNumber());
 		for (Collision collision : field.getCollisions())
-			drawObject(collision.getLocation(), Direction.random(), resources.getCollision(), graphics);
+			addSprite(result, collision.getLocation(), Direction.random(spin), SharedSprites.COLLISION);
 
-		for (Food food : field.getFood()) {
-			BufferedImage foodImage = resources.getFood(food.getType());
-			drawObject(food.getLocation(), food.getHeading(), foodImage, graphics);
-		}
+		for (Food food : field.getFood())
+			addSprite(result, food.getLocation(), food.getHeading(), SharedSprites.FOOD.get(food.getType()));
 
 		for (Team team : field.getTeams()) {
 
 			Table table = team.getTable();
 			Iterator<Food.Type> it = table.getFood().iterator();
-			if (it.hasNext()) {
-				BufferedImage foodImage = resources.getFood(it.next());
-				Vector location = table.getLocation().add(Vector.cartesian(-50.0, 50.0));
-				drawObject(location, Direction.NORTH, foodImage, graphics);
-			}
-			if (it.hasNext()) {
-				BufferedImage foodImage = resources.getFood(it.next());
-				Vector location = table.getLocation().add(Vector.cartesian(50.0, 50.0));
-				drawObject(location, Direction.NORTH, foodImage, graphics);
-			}
-			if (it.hasNext()) {
-				BufferedImage foodImage = resources.getFood(it.next());
-				Vector location = table.getLocation().add(Vector.cartesian(-50.0, -50.0));
-				drawObject(location, Direction.NORTH, foodImage, graphics);
-			}
-			if (it.hasNext()) {
-				BufferedImage foodImage = resources.getFood(it.next());
-				Vector location = table.getLocation().add(Vector.cartesian(50.0, -50.0));
-				drawObject(location, Direction.NORTH, foodImage, graphics);
+			for (int i = 0; i < TABLE_FOOD_OFFSETS.length && it.hasNext(); i++) {
+				Vector location = table.getLocation().add(TABLE_FOOD_OFFSETS[i]);
+				addSprite(result, location, Direction.NORTH, SharedSprites.FOOD.get(it.next()));
 			}
 
 			for (Player player : team.getPlayers()) {
 
-				drawFoodInHand(player, Hand.LEFT, resources, graphics);
-				drawFoodInHand(player, Hand.RIGHT, resources, graphics);
+				addFoodInHand(result, player, Hand.LEFT);
+				addFoodInHand(result, player, Hand.RIGHT);
 
 				Vector location = player.getLocation();
-				drawObject(location, player.getHeading(), getImage(player), graphics);
+				addSprite(result, location, player.getHeading(), getSprite(player));
 
 				float fontRadius = 10.0F;
 				float labelX = (float) location.getX();
@@ -189,17 +226,21 @@ public final class FrameGenerator implements Function<FieldState, BufferedImage>
 					if (labelY < 2.0F * fontRadius)
 						labelY += 200.0F;
 				}
-				graphics.setFont(new Font(Font.MONOSPACED, Font.BOLD, 20));
-				graphics.setColor(getColor(getColor(player), 0.5F));
-				String id = team.getSymbol() + "" + player.getSymbol();
-				graphics.drawString(id, labelX - fontRadius, labelY - fontRadius);
+				char symbol = player.getSymbol();
+				float x = labelX - fontRadius;
+				float y = labelY - fontRadius;
+				result.add(new Drawing(FIELD_CLIP, text.getLabelBounds(symbol, x, y), Arrays.asList(symbol, x, y),
+						graphics -> text.drawLabel(graphics, symbol, x, y)));
 
 			}
 		}
 
-		graphics.setFont(new Font(Font.MONOSPACED, Font.BOLD, 100));
-		graphics.setColor(Color.LIGHT_GRAY);
-		graphics.drawString(Integer.toString(field.getTurnNumber()), 0, FRAME_HEIGHT);
+		int turnNumber = field.getTurnNumber();
+		result.add(new Drawing(FIELD_CLIP, text.getTurnNumberBounds(turnNumber, 0.0F, FRAME_HEIGHT), turnNumber,
+				graphics -> {
+					graphics.setColor(Color.LIGHT_GRAY);
+					text.drawTurnNumber(graphics, turnNumber, 0.0F, FRAME_HEIGHT);
+				}));
 
 		int playerBoxStartX = FIELD_WIDTH + BORDER;
 		int playerBoxWidth = FRAME_WIDTH - playerBoxStartX;
@@ -207,30 +248,49 @@ public final class FrameGenerator implements Function<FieldState, BufferedImage>
 		for (Team team : field.getTeams())
 			for (Player player : team.getPlayers()) {
 
-				graphics.setClip(playerBoxStartX, playerBoxStartY, playerBoxWidth, PLAYER_FRAME_HEIGHT);
+				Rectangle box = new Rectangle(playerBoxStartX, playerBoxStartY, playerBoxWidth, PLAYER_FRAME_HEIGHT);
 
-				graphics.setColor(Color.BLACK);
-				graphics.setFont(new Font(Font.MONOSPACED, Font.BOLD, 20));
-				// FontMetrics metrics = graphics.getFontMetrics();
-				// int ascent = metrics.getAscent();
-				String pointsText = "Points: " + team.getScore().getTotalPoints();
-				graphics.drawString(pointsText, playerBoxStartX + 100, playerBoxStartY + 60);
-				String energyText = "Energy: " + Math.round(player.getEnergy());
-				graphics.drawString(energyText, playerBoxStartX + 10, playerBoxStartY + 120);
+				int points = team.getScore().getTotalPoints();
+				int pointsX = playerBoxStartX + 100;
+				int pointsY = playerBoxStartY + 60;
+				result.add(new Drawing(box, text.getPointsBounds(points, pointsX, pointsY), points, graphics -> {
+					graphics.setColor(Color.BLACK);
+					text.drawPoints(graphics, points, pointsX, pointsY);
+				}));
+
+				long energy = Math.round(player.getEnergy());
+				int energyX = playerBoxStartX + 10;
+				int energyY = playerBoxStartY + 120;
+				result.add(new Drawing(box, text.getEnergyBounds(energy, energyX, energyY), energy, graphics -> {
+					graphics.setColor(Color.BLACK);
+					text.drawEnergy(graphics, energy, energyX, energyY);
+				}));
 
 				BufferedImage sideImage = getProfile(player);
 				int height = playerBoxStartY + PLAYER_FRAME_HEIGHT - sideImage.getHeight()
 						+ (int) (Player.HEIGHT - player.getHeight());
-				graphics.drawImage(sideImage, FRAME_WIDTH - sideImage.getWidth() - 20, height, null);
+				Rectangle bounds = new Rectangle(FRAME_WIDTH - sideImage.getWidth() - 20, height,
+						sideImage.getWidth(), sideImage.getHeight());
+				result.add(new Drawing(box, bounds, sideImage,
+						graphics -> graphics.drawImage(sideImage, bounds.x, bounds.y, null)));
+
 				playerBoxStartY += PLAYER_FRAME_HEIGHT + BORDER;
 			}
 
-		graphics.dispose();
-
 		return result;
 
 	}
 
+	private BufferedImage newFrame() {
+		if (pool == null)
+			return copyImage(background);
+		// pooled frames have the background's type, so its bytes are copied as is
+		BufferedImage result = pool.acquire();
+		byte[] data = ((DataBufferByte) result.getRaster().getDataBuffer()).getData();
+		System.arraycopy(backgroundData, 0, data, 0, backgroundData.length);
+		return result;
+	}
+
 	static BufferedImage copyImage(BufferedImage image) {
 		ColorModel model = image.getColorModel();
 		boolean isAlphaPremultiplied = model.isAlphaPremultiplied();
@@ -242,7 +302,9 @@ public final class FrameGenerator implements Function<FieldState, BufferedImage>
 
 		int numTeams = teams.size();
 		List<Float> colors = new ArrayList<>(numTeams);
-		for (float color = ThreadLocalRandom.current().nextFloat() / numTeams; color < 1.0; color += 1.0 / numTeams)
+		// hues are drawn from a fixed set so that tinted images can be reused
+		float firstColor = (float) ThreadLocalRandom.current().nextInt(HUE_STEPS) / HUE_STEPS / numTeams;
+		for (float color = firstColor; color < 1.0; color += 1.0 / numTeams)
 			colors.add(color);
 		Collections.shuffle(colors, ThreadLocalRandom.current());
 
@@ -370,17 +432,15 @@ public final class FrameGenerator implements Function<FieldState, BufferedImage>
 
 	private BufferedImage generatePlayerImage(int imageNumber, float hue) {
 
-		BufferedImage playerImage = resources.getPlayer(imageNumber);
-		BufferedImage colorImage = resources.getColor(imageNumber);
-		return tintImage(playerImage, colorImage, hue);
+		return tintedPlayers.computeIfAbsent(getTintKey(imageNumber, hue),
+				key -> tintImage(resources.getPlayer(imageNumber), resources.getColor(imageNumber), hue));
 
 	}
 
 	private BufferedImage generateProfileImage(int imageNumber, float hue) {
 
-		BufferedImage profileImage = resources.getProfile(imageNumber);
-		BufferedImage colorImage = resources.getColorProfile(imageNumber);
-		return tintImage(profileImage, colorImage, hue);
+		return tintedProfiles.computeIfAbsent(getTintKey(imageNumber, hue),
+				key -> tintImage(resources.getProfile(imageNumber), resources.getColorProfile(imageNumber), hue));
 
 	}
 
@@ -388,8 +448,8 @@ public final class FrameGenerator implements Function<FieldState, BufferedImage>
 		return playerColors.get(player.getSymbol());
 	}
 
-	private BufferedImage getImage(Player player) {
-		return playerImages.get(player.getSymbol());
+	private SpriteAtlas getSprite(Player player) {
+		return playerSprites.get(player.getSymbol());
 	}
 
 	private BufferedImage getProfile(Player player) {
@@ -413,44 +473,261 @@ public final class FrameGenerator implements Function<FieldState, BufferedImage>
 
 	}
 
-	private static void drawFoodInHand(Player player, Hand hand, ImageResources resources, Graphics2D graphics) {
+	private static void addSprite(List<Drawing> drawings, Vector location, Direction heading, SpriteAtlas sprite) {
+		BufferedImage image = sprite.getRotation(heading);
+		Rectangle bounds = sprite.getBounds(location.getX(), Field.DEPTH - location.getY(), heading);
+		drawings.add(new Drawing(FIELD_CLIP, bounds, image, graphics -> graphics.drawImage(image, bounds.x, bounds.y,
+				null)));
+	}
+
+	private static void addFoodInHand(List<Drawing> drawings, Player player, Hand hand) {
 		Food.Type type = player.getInventory().get(hand);
 		if (type != null) {
 			Direction direction = PlayerUtils.getArmDirection(player, hand);
 			Vector location = player.getLocation().add(Vector.polar(Player.REACH_DISTANCE / 2.0, direction));
-			drawObject(location, direction, resources.getFood(type), graphics);
+			addSprite(drawings, location, direction, SharedSprites.FOOD.get(type));
 		}
 
 	}
 
-	private static BufferedImage tintImage(BufferedImage playerImage, BufferedImage colorImage, float hue) {
+	/*
+	 * Replaces every visible pixel of the color mask with the hue's color at
+	 * that pixel's luma. Both images are 4-byte ABGR, as loaded by
+	 * ImageResources, so the pixels are read and written as raw bytes.
+	 */
+	private static BufferedImage tintImage(BufferedImage image, BufferedImage colorImage, float hue) {
+
+		if (image.getType() != BufferedImage.TYPE_4BYTE_ABGR || colorImage.getType() != BufferedImage.TYPE_4BYTE_ABGR)
+			throw new IllegalArgumentException("Tinted images must be 4-byte ABGR");
+		if (image.getWidth() != colorImage.getWidth() || image.getHeight() != colorImage.getHeight())
+			throw new IllegalArgumentException("The color mask must be the size of the image");
 
-		BufferedImage result = copyImage(playerImage);
+		BufferedImage result = copyImage(image);
+		byte[] resultData = ((DataBufferByte) result.getRaster().getDataBuffer()).getData();
+		byte[] colorData = ((DataBufferByte) colorImage.getRaster().getDataBuffer()).getData();
+		int[] lumaColors = getLumaColors(hue);
 
-		for (int x = 0; x < playerImage.getWidth(); x++)
-			for (int y = 0; y < playerImage.getHeight(); y++) {
+		for (int i = 0; i < colorData.length; i += 4) {
 
-				Color color = new Color(colorImage.getRGB(x, y), true);
-				if (color.getAlpha() == 0)
-					continue;
+			if (colorData[i] == 0)
+				continue;
 
-				float luma = getLuma(color);
-				Color newColor = getColor(hue, luma);
-				result.setRGB(x, y, newColor.getRGB());
+			float luma = getLuma(colorData[i + 3] & 0xFF, colorData[i + 2] & 0xFF, colorData[i + 1] & 0xFF);
+			int rgb = lumaColors[Math.min(Math.round(luma * 256F), 255)];
+			resultData[i] = (byte) 0xFF;
+			resultData[i + 1] = (byte) rgb;
+			resultData[i + 2] = (byte) (rgb >> 8);
+			resultData[i + 3] = (byte) (rgb >> 16);
 
-			}
+		}
 
 		return result;
 
 	}
 
-	private static float getLuma(Color color) {
-		return (0.299F * color.getRed() + 0.587F * color.getGreen() + 0.114F * color.getBlue()) / 256F;
+	// the masks are grayscale, so a gray level's luma indexes its tinted color
+	private static int[] getLumaColors(float hue) {
+		int[] result = new int[256];
+		for (int i = 0; i < result.length; i++)
+			result[i] = getColor(hue, getLuma(i, i, i)).getRGB();
+		return result;
+	}
+
+	private static float getLuma(int red, int green, int blue) {
+		return (0.299F * red + 0.587F * green + 0.114F * blue) / 256F;
+	}
+
+	// tinted images are shared between generators, so they are never drawn on
+	private static Map<Long, BufferedImage> newTintCache() {
+		return Collections.synchronizedMap(new LinkedHashMap<Long, BufferedImage>(16, 0.75F, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+				return size() > TINT_CACHE_SIZE;
+			}
+
+		});
+	}
+
+	private static Long getTintKey(int imageNumber, float hue) {
+		return (long) imageNumber << 32 | Float.floatToIntBits(hue) & 0xFFFFFFFFL;
+	}
+
+	private static void copyRegion(byte[] from, byte[] to, Rectangle region) {
+		for (int y = region.y; y < region.y + region.height; y++) {
+			int offset = (y * FRAME_WIDTH + region.x) * 3;
+			System.arraycopy(from, offset, to, offset, region.width * 3);
+		}
+	}
+
+	/*
+	 * The parts of a frame to draw again, or null if the whole frame is to be
+	 * drawn again. The regions cover every drawing that is in one frame but
+	 * not the other, and do not overlap, so that nothing is drawn twice.
+	 */
+	private static List<Rectangle> getChangedRegions(List<Drawing> previous, List<Drawing> current) {
+
+		Map<Drawing, Integer> counts = new HashMap<>();
+		for (Drawing drawing : previous)
+			counts.merge(drawing, 1, Integer::sum);
+		for (Drawing drawing : current)
+			counts.merge(drawing, -1, Integer::sum);
+
+		List<Rectangle> result = new ArrayList<>();
+		List<Drawing> unchangedBefore = new ArrayList<>();
+		for (Drawing drawing : previous)
+			if (counts.get(drawing) == 0)
+				unchangedBefore.add(drawing);
+			else
+				addRegion(result, drawing.area);
+		List<Drawing> unchangedAfter = new ArrayList<>();
+		for (Drawing drawing : current)
+			if (counts.get(drawing) == 0)
+				unchangedAfter.add(drawing);
+			else
+				addRegion(result, drawing.area);
+
+		// drawings that are left in place must also be drawn in the same order
+		return unchangedBefore.equals(unchangedAfter) ? result : null;
+
+	}
+
+	private static void addRegion(List<Rectangle> regions, Rectangle area) {
+		if (area.isEmpty())
+			return;
+		Rectangle region = new Rectangle(area);
+		boolean merged;
+		do {
+			merged = false;
+			for (Iterator<Rectangle> it = regions.iterator(); it.hasNext();) {
+				Rectangle other = it.next();
+				if (other.intersects(region)) {
+					region.add(other);
+					it.remove();
+					merged = true;
+				}
+			}
+		} while (merged);
+		regions.add(region);
+	}
+
+	/*
+	 * Something drawn over the background of a frame, clipped to a part of the
+	 * frame. Equal drawings change the same pixels in the same way.
+	 */
+	private static final class Drawing {
+
+		final Rectangle clip;
+		// the pixels the drawing can change
+		final Rectangle area;
+		private final Rectangle bounds;
+		private final Object content;
+		private final Consumer<Graphics2D> painter;
+
+		Drawing(Rectangle clip, Rectangle bounds, Object content, Consumer<Graphics2D> painter) {
+			this.clip = clip;
+			this.bounds = bounds;
+			this.content = content;
+			this.painter = painter;
+			area = bounds.intersection(clip);
+		}
+
+		void draw(Graphics2D graphics, Rectangle region) {
+			graphics.setClip(region);
+			painter.accept(graphics);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Drawing))
+				return false;
+			Drawing drawing = (Drawing) obj;
+			return clip.equals(drawing.clip) && bounds.equals(drawing.bounds) && content.equals(drawing.content);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(clip, bounds, content);
+		}
+
+	}
+
+	@NotThreadSafe
+	private final class Incremental implements Function<FieldState, BufferedImage> {
+
+		private final BufferedImage[] frames;
+		// what was last drawn into each frame
+		private final List<List<Drawing>> layouts;
+		private int next;
+
+		Incremental(int numBuffers) {
+			frames = new BufferedImage[numBuffers];
+			layouts = new ArrayList<>(Collections.nCopies(numBuffers, null));
+		}
+
+		@Override
+		public BufferedImage apply(FieldState field) {
+
+			int index = next;
+			next = (next + 1) % frames.length;
+
+			List<Drawing> drawings = layOut(field);
+			List<Drawing> previous = layouts.set(index, drawings);
+			if (frames[index] == null)
+				frames[index] = copyImage(background);
+			BufferedImage frame = frames[index];
+			byte[] data = ((DataBufferByte) frame.getRaster().getDataBuffer()).getData();
+			List<Rectangle> regions = previous == null ? null : getChangedRegions(previous, drawings);
+
+			Graphics2D graphics = frame.createGraphics();
+			if (regions == null) {
+				System.arraycopy(backgroundData, 0, data, 0, backgroundData.length);
+				for (Drawing drawing : drawings)
+					drawing.draw(graphics, drawing.clip);
+			} else {
+				for (Rectangle region : regions) {
+					copyRegion(backgroundData, data, region);
+					for (Drawing drawing : drawings)
+						if (drawing.area.intersects(region))
+							drawing.draw(graphics, region.intersection(drawing.clip));
+				}
+			}
+			graphics.dispose();
+
+			return frame;
+
+		}
+
+	}
+
+	// the food and collision sprites are the same in every video, so they are
+	// rendered once, the first time a frame is drawn
+	private static final class SharedSprites {
+
+		static final Map<Food.Type, SpriteAtlas> FOOD = new EnumMap<>(Food.Type.class);
+		static final SpriteAtlas COLLISION;
+
+		static {
+			ImageResources resources = ImageResources.INSTANCE;
+			for (Food.Type type : Food.Type.values())
+				FOOD.put(type, new SpriteAtlas(resources.getFood(type)));
+			COLLISION = new SpriteAtlas(resources.getCollision());
+		}
+
 	}
 
 	private static final int FIELD_WIDTH = (int) Math.round(Field.WIDTH);
 	public static final int FRAME_HEIGHT = (int) Math.round(Field.DEPTH), FRAME_WIDTH = FRAME_HEIGHT * 16 / 9;
 	private static final int BORDER = 20;
 	private static final int PLAYER_FRAME_HEIGHT = (FRAME_HEIGHT - 3 * BORDER) / 4;
+	private static final Rectangle FIELD_CLIP = new Rectangle(0, 0, FIELD_WIDTH, FRAME_HEIGHT);
+	private static final Vector[] TABLE_FOOD_OFFSETS = { Vector.cartesian(-50.0, 50.0), Vector.cartesian(50.0, 50.0),
+			Vector.cartesian(-50.0, -50.0), Vector.cartesian(50.0, -50.0) };
+	private static final int HUE_STEPS = 64;
+	private static final int TINT_CACHE_SIZE = 64;
+	private static final Map<Long, BufferedImage> tintedPlayers = newTintCache();
+	private static final Map<Long, BufferedImage> tintedProfiles = newTintCache();
 
 }
@@ -0,0 +1,70 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * A pool of full-size frames, so that rendering a video does not allocate a
+ * new raster for every frame. Frames are taken with {@link #acquire()} and
+ * handed back with {@link #release(BufferedImage)} once they have been
+ * encoded; a frame that is never released is simply left to the garbage
+ * collector. The contents of an acquired frame are undefined.
+ */
+@ThreadSafe
+public final class FramePool {
+
+	private final BlockingQueue<BufferedImage> frames;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public FramePool(int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity must be at least 1");
+		frames = new ArrayBlockingQueue<>(capacity);
+	}
+
+	public BufferedImage acquire() {
+		BufferedImage frame = frames.poll();
+		if (frame != null) {
+			hits.incrementAndGet();
+			return frame;
+		}
+		misses.incrementAndGet();
+		return new BufferedImage(FrameGenerator.FRAME_WIDTH, FrameGenerator.FRAME_HEIGHT,
+				BufferedImage.TYPE_3BYTE_BGR);
+	}
+
+	public void release(BufferedImage frame) {
+		if (frame.getWidth() != FrameGenerator.FRAME_WIDTH || frame.getHeight() != FrameGenerator.FRAME_HEIGHT
+				|| frame.getType() != BufferedImage.TYPE_3BYTE_BGR)
+			throw new IllegalArgumentException("Not a frame from this pool: " + frame);
+		// a full pool already holds every frame that is in use at once
+		frames.offer(frame);
+	}
+
+	/** Returns the number of acquired frames that were reused. */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/** Returns the number of acquired frames that had to be allocated. */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public double getHitRate() {
+		long hitCount = hits.get();
+		long total = hitCount + misses.get();
+		return total == 0L ? 0.0 : (double) hitCount / total;
+	}
+
+	@Override
+	public String toString() {
+		return "FramePool[hits=" + hits.get() + ",misses=" + misses.get() + ']';
+	}
+
+}
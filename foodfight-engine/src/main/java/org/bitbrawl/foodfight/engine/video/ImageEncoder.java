@@ -2,13 +2,14 @@ package org.bitbrawl.foodfight.engine.video;
 
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
-import java.util.function.Function;
 
 import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.match.ActionTrace;
 import org.bitbrawl.foodfight.engine.match.CharFunction;
+import org.bitbrawl.foodfight.engine.match.HistorySink;
 import org.bitbrawl.foodfight.engine.match.MatchHistory;
 
 import io.humble.video.Codec;
@@ -30,6 +31,7 @@ public final class ImageEncoder implements AutoCloseable {
 
 	private final Muxer muxer;
 	private final Encoder encoder;
+	private final YuvConverter frameConverter;
 	private MediaPictureConverter converter;
 	private final MediaPicture picture;
 	private final MediaPacket packet;
@@ -59,15 +61,22 @@ public final class ImageEncoder implements AutoCloseable {
 		converter = null;
 		picture = MediaPicture.make(encoder.getWidth(), encoder.getHeight(), pixelFormat);
 		picture.setTimeBase(framerate);
+		frameConverter = new YuvConverter(picture);
 		packet = MediaPacket.make();
 
 	}
 
 	public void encode(BufferedImage image) {
 
-		if (converter == null)
-			converter = MediaPictureConverterFactory.createConverter(image, picture);
-		converter.toPicture(picture, image, frameNumber++);
+		// frames from a FrameGenerator are converted directly, anything else
+		// through the generic converter
+		if (frameConverter.accepts(image)) {
+			frameConverter.toPicture(picture, image, frameNumber++);
+		} else {
+			if (converter == null)
+				converter = MediaPictureConverterFactory.createConverter(image, picture);
+			converter.toPicture(picture, image, frameNumber++);
+		}
 
 		do {
 			encoder.encode(packet, picture);
@@ -80,11 +89,20 @@ public final class ImageEncoder implements AutoCloseable {
 	@Override
 	public void close() throws IOException {
 
-		do {
-			encoder.encode(packet, null);
-			if (packet.isComplete())
-				muxer.write(packet, false);
-		} while (packet.isComplete());
+		try {
+			do {
+				encoder.encode(packet, null);
+				if (packet.isComplete())
+					muxer.write(packet, false);
+			} while (packet.isComplete());
+		} catch (RuntimeException e) {
+			try {
+				abort();
+			} catch (IOException | RuntimeException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e;
+		}
 
 		muxer.close();
 
@@ -92,14 +110,65 @@ public final class ImageEncoder implements AutoCloseable {
 
 	}
 
+	/**
+	 * Closes the video without finishing it, and deletes what was written of
+	 * it.
+	 */
+	public void abort() throws IOException {
+		try {
+			muxer.close();
+		} finally {
+			Files.deleteIfExists(unfinished);
+		}
+	}
+
 	public static void encode(MatchHistory history, CharFunction<String> names, Path location)
 			throws IOException, InterruptedException {
-		List<FieldState> states = history.getFieldStates();
-		Function<FieldState, BufferedImage> generator = new FrameGenerator(states.get(0), names);
-		try (ImageEncoder encoder = new ImageEncoder(location)) {
-			for (FieldState state : states)
-				encoder.encode(generator.apply(state));
+		PipelinedEncoder stage = new PipelinedEncoder(names, location, PipelinedEncoder.DEFAULT_PARALLELISM,
+				VideoProfile.FULL);
+		try {
+			for (FieldState state : history.getFieldStates())
+				stage.accept(state);
+		} catch (IOException | RuntimeException | Error e) {
+			stage.abort(e);
+			throw e;
 		}
+		stage.close();
+	}
+
+	/**
+	 * Encodes the states replayed from the given trace that the given profile
+	 * keeps, rendering frames on the given number of threads.
+	 */
+	public static void encode(ActionTrace trace, CharFunction<String> names, Path location, int renderThreads,
+			VideoProfile profile) throws IOException, InterruptedException {
+		PipelinedEncoder stage = new PipelinedEncoder(names, location, renderThreads, profile);
+		try {
+			trace.forEachState(state -> {
+				try {
+					stage.accept(state);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			stage.abort(e.getCause());
+			throw e.getCause();
+		} catch (RuntimeException | Error e) {
+			stage.abort(e);
+			throw e;
+		}
+		stage.close();
+	}
+
+	/**
+	 * Returns a {@link HistorySink} stage that encodes the states it is given
+	 * that the given profile keeps, rendering frames on the given number of
+	 * threads.
+	 */
+	public static HistorySink.Stage newStage(CharFunction<String> names, Path location, int renderThreads,
+			VideoProfile profile) throws IOException, InterruptedException {
+		return new PipelinedEncoder(names, location, renderThreads, profile);
 	}
 
 	private static final int FRAMERATE = 30;
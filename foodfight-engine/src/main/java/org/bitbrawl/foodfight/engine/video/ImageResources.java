@@ -5,44 +5,62 @@ import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.imageio.ImageIO;
 
 import org.bitbrawl.foodfight.field.Food;
 
-public final class ImageResources {
+import net.jcip.annotations.ThreadSafe;
 
-	private final BufferedImage table = FrameGenerator.copyImage(staticTable);
-	private final Map<Food.Type, BufferedImage> food = new EnumMap<>(Food.Type.class);
-	private final BufferedImage collision = FrameGenerator.copyImage(staticCollision);
+/**
+ * The images that videos are drawn from, decoded once and shared by every
+ * {@link FrameGenerator}. The images are never drawn on: anything that needs a
+ * modified image, such as a tinted player, works on a copy.
+ */
+@ThreadSafe
+public enum ImageResources {
+
+	INSTANCE;
+
+	private final BufferedImage table = getImage("table.png");
+	private final Map<Food.Type, BufferedImage> food;
+	private final BufferedImage collision = getImage("collision.png");
 	private final List<BufferedImage> players;
 	private final List<BufferedImage> colors;
 	private final List<BufferedImage> profiles;
 	private final List<BufferedImage> colorProfiles;
 
-	public ImageResources() {
+	private ImageResources() {
 
-		for (Entry<Food.Type, BufferedImage> entry : staticFood.entrySet())
-			food.put(entry.getKey(), FrameGenerator.copyImage(entry.getValue()));
+		Map<Food.Type, BufferedImage> foodMap = new EnumMap<>(Food.Type.class);
+		foodMap.put(Food.Type.APPLE, getImage("apple.png"));
+		foodMap.put(Food.Type.BANANA, getImage("banana.png"));
+		foodMap.put(Food.Type.BROCCOLI, getImage("broccoli.png"));
+		foodMap.put(Food.Type.CHOCOLATE, getImage("chocolate.png"));
+		foodMap.put(Food.Type.MILK, getImage("milk.png"));
+		foodMap.put(Food.Type.PIE, getImage("pie.png"));
+		foodMap.put(Food.Type.RASPBERRY, getImage("raspberry.png"));
+		foodMap.put(Food.Type.SANDWICH, getImage("sandwich.png"));
+		food = Collections.unmodifiableMap(foodMap);
 
 		BufferedImage[] playerArray = new BufferedImage[NUM_PLAYER_IMAGES];
 		BufferedImage[] colorArray = new BufferedImage[NUM_PLAYER_IMAGES];
 		BufferedImage[] profileArray = new BufferedImage[NUM_PLAYER_IMAGES];
 		BufferedImage[] colorProfileArray = new BufferedImage[NUM_PLAYER_IMAGES];
 		for (int i = 0; i < NUM_PLAYER_IMAGES; i++) {
-			playerArray[i] = FrameGenerator.copyImage(staticPlayers.get(i));
-			colorArray[i] = FrameGenerator.copyImage(staticColors.get(i));
-			profileArray[i] = FrameGenerator.copyImage(staticProfiles.get(i));
-			colorProfileArray[i] = FrameGenerator.copyImage(staticColorProfiles.get(i));
+			playerArray[i] = getImage("player_" + i + ".png");
+			colorArray[i] = getImage("player_" + i + "_color.png");
+			profileArray[i] = getImage("player_" + i + "_profile.png");
+			colorProfileArray[i] = getImage("player_" + i + "_profile_color.png");
 		}
-		players = Arrays.asList(playerArray);
-		colors = Arrays.asList(colorArray);
-		profiles = Arrays.asList(profileArray);
-		colorProfiles = Arrays.asList(colorProfileArray);
+		players = Collections.unmodifiableList(Arrays.asList(playerArray));
+		colors = Collections.unmodifiableList(Arrays.asList(colorArray));
+		profiles = Collections.unmodifiableList(Arrays.asList(profileArray));
+		colorProfiles = Collections.unmodifiableList(Arrays.asList(colorProfileArray));
 
 	}
 
@@ -74,7 +92,7 @@ public final class ImageResources {
 		return colorProfiles.get(index);
 	}
 
-	private static BufferedImage getImage(String name, boolean transparent) {
+	private static BufferedImage getImage(String name) {
 
 		BufferedImage image;
 		try (InputStream stream = ImageResources.class.getResourceAsStream("/images/" + name)) {
@@ -85,8 +103,7 @@ public final class ImageResources {
 			throw new IllegalStateException("Unable to get image: " + name, e);
 		}
 
-		int type = transparent ? BufferedImage.TYPE_4BYTE_ABGR : BufferedImage.TYPE_3BYTE_BGR;
-		BufferedImage result = new BufferedImage(image.getWidth(), image.getHeight(), type);
+		BufferedImage result = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
 		Graphics2D graphics = result.createGraphics();
 		graphics.drawImage(image, 0, 0, null);
 		graphics.dispose();
@@ -94,40 +111,5 @@ public final class ImageResources {
 	}
 
 	public static final int NUM_PLAYER_IMAGES = 6;
-	private static final BufferedImage staticTable = getImage("table.png", true);
-	private static final Map<Food.Type, BufferedImage> staticFood = new EnumMap<>(Food.Type.class);
-	private static final BufferedImage staticCollision = getImage("collision.png", true);
-	private static final List<BufferedImage> staticPlayers;
-	private static final List<BufferedImage> staticColors;
-	private static final List<BufferedImage> staticProfiles;
-	private static final List<BufferedImage> staticColorProfiles;
-
-	static {
-
-		staticFood.put(Food.Type.APPLE, getImage("apple.png", true));
-		staticFood.put(Food.Type.BANANA, getImage("banana.png", true));
-		staticFood.put(Food.Type.BROCCOLI, getImage("broccoli.png", true));
-		staticFood.put(Food.Type.CHOCOLATE, getImage("chocolate.png", true));
-		staticFood.put(Food.Type.MILK, getImage("milk.png", true));
-		staticFood.put(Food.Type.PIE, getImage("pie.png", true));
-		staticFood.put(Food.Type.RASPBERRY, getImage("raspberry.png", true));
-		staticFood.put(Food.Type.SANDWICH, getImage("sandwich.png", true));
-
-		BufferedImage[] playerArray = new BufferedImage[NUM_PLAYER_IMAGES];
-		BufferedImage[] colorArray = new BufferedImage[NUM_PLAYER_IMAGES];
-		BufferedImage[] profileArray = new BufferedImage[NUM_PLAYER_IMAGES];
-		BufferedImage[] colorProfileArray = new BufferedImage[NUM_PLAYER_IMAGES];
-		for (int i = 0; i < NUM_PLAYER_IMAGES; i++) {
-			playerArray[i] = getImage("player_" + i + ".png", true);
-			colorArray[i] = getImage("player_" + i + "_color.png", true);
-			profileArray[i] = getImage("player_" + i + "_profile.png", true);
-			colorProfileArray[i] = getImage("player_" + i + "_profile_color.png", true);
-		}
-		staticPlayers = Arrays.asList(playerArray);
-		staticColors = Arrays.asList(colorArray);
-		staticProfiles = Arrays.asList(profileArray);
-		staticColorProfiles = Arrays.asList(colorProfileArray);
-
-	}
 
 }
@@ -0,0 +1,182 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+import org.bitbrawl.foodfight.engine.match.CharFunction;
+import org.bitbrawl.foodfight.engine.match.HistorySink;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Encodes a video from a stream of states, rendering the frames on a pool of
+ * worker threads while a single {@link ImageEncoder} encodes them. Frames are
+ * encoded in the order their states arrived. At most {@code window} frames are
+ * being rendered or waiting to be encoded at once; when the window is full,
+ * {@link #accept(FieldState)} blocks until the oldest frame has been encoded.
+ * <p>
+ * With a single worker thread, the states are rendered in order, so each frame
+ * is drawn incrementally over the one that was encoded a window earlier.
+ * <p>
+ * Only the states chosen by the encoder's {@link VideoProfile} become frames.
+ */
+@NotThreadSafe
+public final class PipelinedEncoder implements HistorySink.Stage {
+
+	private final CharFunction<String> names;
+	private final ImageEncoder encoder;
+	private final ExecutorService renderers;
+	private final int window;
+	private final FramePool pool;
+	private final boolean incremental;
+	private final VideoProfile.Selector selector;
+	// the frames in the order they are to be encoded
+	private final Deque<Future<BufferedImage>> pending;
+	private Function<FieldState, BufferedImage> generator;
+
+	public PipelinedEncoder(CharFunction<String> names, Path location, int parallelism, VideoProfile profile)
+			throws IOException, InterruptedException {
+		this(names, location, parallelism, WINDOW_PER_THREAD * parallelism, profile);
+	}
+
+	public PipelinedEncoder(CharFunction<String> names, Path location, int parallelism, int window,
+			VideoProfile profile) throws IOException, InterruptedException {
+
+		Objects.requireNonNull(names, "names cannot be null");
+		Objects.requireNonNull(location, "location cannot be null");
+		Objects.requireNonNull(profile, "profile cannot be null");
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be at least 1");
+		if (window < parallelism)
+			throw new IllegalArgumentException("window must be at least the parallelism");
+
+		this.names = names;
+		this.window = window;
+		pending = new ArrayDeque<>(window);
+		pool = new FramePool(window);
+		incremental = parallelism == 1;
+		selector = profile.newSelector();
+		encoder = new ImageEncoder(location);
+		AtomicInteger numThreads = new AtomicInteger();
+		renderers = Executors.newFixedThreadPool(parallelism, r -> {
+			Thread thread = new Thread(r, "frame-renderer-" + numThreads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	}
+
+	@Override
+	public void accept(FieldState state) throws IOException {
+		for (FieldState frame : selector.select(state))
+			render(frame);
+	}
+
+	private void render(FieldState state) throws IOException {
+
+		// the generator draws the static parts of the field from the first state
+		if (generator == null) {
+			FrameGenerator frames = new FrameGenerator(state, names, pool);
+			// a frame is not drawn over until the frame a window after it is rendered
+			generator = incremental ? frames.incremental(window) : frames;
+		}
+
+		while (pending.size() >= window)
+			encodeNext();
+
+		Function<FieldState, BufferedImage> frames = generator;
+		pending.add(renderers.submit(() -> frames.apply(state)));
+
+		// frames that are already rendered are encoded now to free the window
+		while (!pending.isEmpty() && pending.peek().isDone())
+			encodeNext();
+
+	}
+
+	private void encodeNext() throws IOException {
+
+		BufferedImage frame;
+		try {
+			frame = pending.remove().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a frame");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new IOException("Unable to render a frame", cause);
+		}
+
+		encoder.encode(frame);
+		if (!incremental)
+			pool.release(frame);
+
+	}
+
+	/** Returns the pool the frames of this video are drawn into. */
+	public FramePool getFramePool() {
+		return pool;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			for (FieldState frame : selector.finish())
+				render(frame);
+			while (!pending.isEmpty())
+				encodeNext();
+		} catch (IOException | RuntimeException | Error e) {
+			abort(e);
+			throw e;
+		} finally {
+			renderers.shutdownNow();
+		}
+		encoder.close();
+		if (!incremental)
+			logger.log(Level.FINE, "Frame pool hit rate: {0}", pool.getHitRate());
+	}
+
+	/**
+	 * Stops rendering and deletes the unfinished video, for when the video
+	 * cannot be completed.
+	 */
+	@Override
+	public void abort() throws IOException {
+		renderers.shutdownNow();
+		encoder.abort();
+	}
+
+	/*
+	 * Aborts after the given problem, which stays the one that is reported.
+	 */
+	void abort(Throwable cause) {
+		try {
+			abort();
+		} catch (IOException | RuntimeException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+	private static final int WINDOW_PER_THREAD = 2;
+	private static final Logger logger = EngineLogger.INSTANCE;
+
+}
@@ -0,0 +1,132 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import org.bitbrawl.foodfight.util.Direction;
+
+import net.jcip.annotations.Immutable;
+
+/**
+ * A sprite rendered ahead of time at a fixed number of evenly spaced headings,
+ * so that drawing it at any heading is a plain blit of the nearest rotation.
+ * Each rotation is trimmed to its visible pixels and remembers where it sits
+ * relative to the sprite's center.
+ * <p>
+ * A sprite drawn at a heading of {@link Direction#NORTH} is upright, as in
+ * {@link FrameGenerator}, whose sprites face up.
+ */
+@Immutable
+final class SpriteAtlas {
+
+	private final BufferedImage[] rotations;
+	private final double[] offsetsX;
+	private final double[] offsetsY;
+
+	SpriteAtlas(BufferedImage sprite) {
+		this(sprite, DEFAULT_HEADINGS);
+	}
+
+	SpriteAtlas(BufferedImage sprite, int numHeadings) {
+
+		if (numHeadings < 1)
+			throw new IllegalArgumentException("numHeadings must be at least 1");
+
+		rotations = new BufferedImage[numHeadings];
+		offsetsX = new double[numHeadings];
+		offsetsY = new double[numHeadings];
+
+		int width = sprite.getWidth();
+		int height = sprite.getHeight();
+		double diagonal = Math.hypot(width, height);
+		// whole-pixel padding keeps the upright rotation aligned with the source
+		int padX = (int) Math.ceil((diagonal - width) / 2.0) + 1;
+		int padY = (int) Math.ceil((diagonal - height) / 2.0) + 1;
+		double centerX = padX + width / 2.0;
+		double centerY = padY + height / 2.0;
+
+		for (int i = 0; i < numHeadings; i++) {
+
+			BufferedImage canvas = new BufferedImage(width + 2 * padX, height + 2 * padY,
+					BufferedImage.TYPE_INT_ARGB_PRE);
+			Graphics2D graphics = canvas.createGraphics();
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.translate(padX, padY);
+			graphics.rotate(Math.PI / 2.0 - getHeading(i, numHeadings), width / 2.0, height / 2.0);
+			graphics.drawImage(sprite, 0, 0, null);
+			graphics.dispose();
+
+			trim(canvas, i, centerX, centerY);
+
+		}
+
+	}
+
+	private void trim(BufferedImage canvas, int index, double centerX, double centerY) {
+
+		int width = canvas.getWidth();
+		int height = canvas.getHeight();
+		int[] pixels = ((DataBufferInt) canvas.getRaster().getDataBuffer()).getData();
+		int minX = width, minY = height, maxX = -1, maxY = -1;
+		for (int y = 0; y < height; y++)
+			for (int x = 0; x < width; x++)
+				if (pixels[y * width + x] >>> 24 != 0) {
+					minX = Math.min(minX, x);
+					minY = Math.min(minY, y);
+					maxX = Math.max(maxX, x);
+					maxY = Math.max(maxY, y);
+				}
+
+		// a fully transparent sprite is kept as a single transparent pixel
+		if (maxX < 0) {
+			minX = maxX = 0;
+			minY = maxY = 0;
+		}
+
+		BufferedImage trimmed = new BufferedImage(maxX - minX + 1, maxY - minY + 1, BufferedImage.TYPE_INT_ARGB_PRE);
+		Graphics2D graphics = trimmed.createGraphics();
+		graphics.drawImage(canvas, -minX, -minY, null);
+		graphics.dispose();
+
+		rotations[index] = trimmed;
+		offsetsX[index] = minX - centerX;
+		offsetsY[index] = minY - centerY;
+
+	}
+
+	/** Returns the rotation nearest the given heading. */
+	BufferedImage getRotation(Direction heading) {
+		return rotations[getIndex(heading)];
+	}
+
+	/**
+	 * Returns where the rotation nearest the given heading is drawn when the
+	 * sprite is centered on the given point of the frame.
+	 */
+	Rectangle getBounds(double centerX, double centerY, Direction heading) {
+		int index = getIndex(heading);
+		int x = (int) Math.round(centerX + offsetsX[index]);
+		int y = (int) Math.round(centerY + offsetsY[index]);
+		return new Rectangle(x, y, rotations[index].getWidth(), rotations[index].getHeight());
+	}
+
+	int getNumberOfHeadings() {
+		return rotations.length;
+	}
+
+	private int getIndex(Direction heading) {
+		int index = (int) Math.round(heading.get() / TWO_PI * rotations.length);
+		return index == rotations.length ? 0 : index;
+	}
+
+	private static double getHeading(int index, int numHeadings) {
+		return TWO_PI * index / numHeadings;
+	}
+
+	static final int DEFAULT_HEADINGS = 256;
+	private static final double TWO_PI = 2.0 * Math.PI;
+
+}
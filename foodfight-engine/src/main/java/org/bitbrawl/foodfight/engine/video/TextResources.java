@@ -0,0 +1,160 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The fonts and laid-out text a {@link FrameGenerator} draws with. Every label
+ * and every digit is laid out once, for the font render context of a frame,
+ * so drawing a frame neither creates a font nor lays out a string. Numbers are
+ * drawn digit by digit, which matches the layout of the whole string because
+ * the fonts are monospaced.
+ * <p>
+ * Nothing is added after the generator's constructor, and the glyph positions
+ * are computed up front, so frames may be drawn from several threads.
+ * <p>
+ * The bounds of each piece of text cover every pixel that drawing it can
+ * change, so that {@link FrameGenerator} knows which parts of a frame to draw
+ * again when the text changes.
+ */
+final class TextResources {
+
+	private final FontRenderContext context;
+	private final Map<Character, GlyphVector> labels = new HashMap<>();
+	private final Map<Character, Color> labelColors = new HashMap<>();
+	private final GlyphVector points;
+	private final float pointsWidth;
+	private final GlyphVector energy;
+	private final float energyWidth;
+	private final Digits infoDigits;
+	private final Digits turnDigits;
+
+	TextResources(FontRenderContext context) {
+		this.context = context;
+		points = layOut(INFO_FONT, "Points: ");
+		pointsWidth = getWidth(points);
+		energy = layOut(INFO_FONT, "Energy: ");
+		energyWidth = getWidth(energy);
+		infoDigits = new Digits(INFO_FONT);
+		turnDigits = new Digits(TURN_FONT);
+	}
+
+	void addLabel(char player, String label, Color color) {
+		labels.put(player, layOut(INFO_FONT, label));
+		labelColors.put(player, color);
+	}
+
+	void drawLabel(Graphics2D graphics, char player, float x, float y) {
+		graphics.setColor(labelColors.get(player));
+		graphics.drawGlyphVector(labels.get(player), x, y);
+	}
+
+	void drawPoints(Graphics2D graphics, int value, float x, float y) {
+		graphics.drawGlyphVector(points, x, y);
+		infoDigits.draw(graphics, value, x + pointsWidth, y);
+	}
+
+	void drawEnergy(Graphics2D graphics, long value, float x, float y) {
+		graphics.drawGlyphVector(energy, x, y);
+		infoDigits.draw(graphics, value, x + energyWidth, y);
+	}
+
+	void drawTurnNumber(Graphics2D graphics, int turnNumber, float x, float y) {
+		turnDigits.draw(graphics, turnNumber, x, y);
+	}
+
+	Rectangle getLabelBounds(char player, float x, float y) {
+		return getBounds(labels.get(player).getLogicalBounds(), x, y);
+	}
+
+	Rectangle getPointsBounds(int value, float x, float y) {
+		return getBounds(points.getLogicalBounds(), x, y).union(infoDigits.getBounds(value, x + pointsWidth, y));
+	}
+
+	Rectangle getEnergyBounds(long value, float x, float y) {
+		return getBounds(energy.getLogicalBounds(), x, y).union(infoDigits.getBounds(value, x + energyWidth, y));
+	}
+
+	Rectangle getTurnNumberBounds(int turnNumber, float x, float y) {
+		return turnDigits.getBounds(turnNumber, x, y);
+	}
+
+	private GlyphVector layOut(Font font, String text) {
+		GlyphVector result = font.createGlyphVector(context, text);
+		// computes the glyph positions now, rather than on the first draw
+		result.getLogicalBounds();
+		return result;
+	}
+
+	private static float getWidth(GlyphVector glyphs) {
+		return (float) glyphs.getGlyphPosition(glyphs.getNumGlyphs()).getX();
+	}
+
+	private static Rectangle getBounds(Rectangle2D logical, float x, float y) {
+		// glyphs may reach a little past their logical bounds
+		return new Rectangle2D.Double(x + logical.getX() - MARGIN, y + logical.getY() - MARGIN,
+				logical.getWidth() + 2.0 * MARGIN, logical.getHeight() + 2.0 * MARGIN).getBounds();
+	}
+
+	private final class Digits {
+
+		private final GlyphVector[] digits = new GlyphVector[10];
+		private final float[] advances = new float[10];
+		private final GlyphVector minus;
+		private final float minusAdvance;
+
+		Digits(Font font) {
+			for (int i = 0; i < digits.length; i++) {
+				digits[i] = layOut(font, Integer.toString(i));
+				advances[i] = getWidth(digits[i]);
+			}
+			minus = layOut(font, "-");
+			minusAdvance = getWidth(minus);
+		}
+
+		Rectangle getBounds(long value, float x, float y) {
+			float width = 0.0F;
+			if (value < 0L) {
+				width += minusAdvance;
+				value = -value;
+			}
+			do {
+				width += advances[(int) (value % 10L)];
+				value /= 10L;
+			} while (value > 0L);
+			Rectangle2D cell = digits[0].getLogicalBounds();
+			return TextResources.getBounds(new Rectangle2D.Float(0.0F, (float) cell.getY(), width,
+					(float) cell.getHeight()), x, y);
+		}
+
+		void draw(Graphics2D graphics, long value, float x, float y) {
+			if (value < 0L) {
+				graphics.drawGlyphVector(minus, x, y);
+				x += minusAdvance;
+				value = -value;
+			}
+			long divisor = 1L;
+			while (divisor <= value / 10L)
+				divisor *= 10L;
+			for (; divisor > 0L; divisor /= 10L) {
+				int digit = (int) (value / divisor % 10L);
+				graphics.drawGlyphVector(digits[digit], x, y);
+				x += advances[digit];
+			}
+		}
+
+	}
+
+	static final Font SYMBOL_FONT = new Font(Font.MONOSPACED, Font.BOLD, 50);
+	static final Font INFO_FONT = new Font(Font.MONOSPACED, Font.BOLD, 20);
+	static final Font TURN_FONT = new Font(Font.MONOSPACED, Font.BOLD, 100);
+	private static final double MARGIN = 2.0;
+
+}
@@ -0,0 +1,169 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.FoodState;
+import org.bitbrawl.foodfight.engine.field.TeamState;
+
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Which states of a match become frames of its video. Frames are always played
+ * at the encoder's frame rate, so a profile that leaves out turns speeds the
+ * video up.
+ * <ul>
+ * <li>{@link Mode#FULL} keeps every turn.
+ * <li>{@link Mode#EVERY_NTH_TURN} keeps one turn in every {@code speedUp}.
+ * <li>{@link Mode#HIGHLIGHTS} keeps every turn close to an interesting one,
+ * that is, one with a collision, a throw or a change of score, and one turn in
+ * every {@code speedUp} of the rest.
+ * </ul>
+ * The first and last states of a match are always kept.
+ */
+@Immutable
+public final class VideoProfile {
+
+	private final Mode mode;
+	private final int speedUp;
+
+	public VideoProfile(Mode mode, int speedUp) {
+		Objects.requireNonNull(mode, "mode cannot be null");
+		if (speedUp < 1)
+			throw new IllegalArgumentException("speedUp must be at least 1");
+		this.mode = mode;
+		this.speedUp = speedUp;
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public int getSpeedUp() {
+		return speedUp;
+	}
+
+	Selector newSelector() {
+		return new Selector();
+	}
+
+	@Override
+	public String toString() {
+		return "VideoProfile[mode=" + mode + ",speedUp=" + speedUp + ']';
+	}
+
+	/*
+	 * A turn is interesting if something collided, a piece of food was thrown
+	 * or a team scored.
+	 */
+	static boolean isInteresting(FieldState previous, FieldState state) {
+
+		if (!state.getCollisionStates().isEmpty())
+			return true;
+
+		if (countAirborne(state) > countAirborne(previous))
+			return true;
+
+		for (TeamState team : state.getTeamStates()) {
+			TeamState previousTeam = previous.getTeam(team.getSymbol());
+			if (previousTeam == null
+					|| previousTeam.getScore().getTotalPoints() != team.getScore().getTotalPoints())
+				return true;
+		}
+
+		return false;
+
+	}
+
+	private static int countAirborne(FieldState state) {
+		int result = 0;
+		for (FoodState food : state.getFoodStates())
+			if (food.getHeight() > 0.0)
+				result++;
+		return result;
+	}
+
+	public enum Mode {
+		FULL, EVERY_NTH_TURN, HIGHLIGHTS;
+	}
+
+	/**
+	 * Chooses the frames of one video. Each state of the match is passed to
+	 * {@link #select(FieldState)} in order, which returns the states to draw
+	 * now; a highlight may bring back a few of the turns just before it.
+	 */
+	@NotThreadSafe
+	final class Selector {
+
+		// the most recent turns that were left out, which are kept after all
+		// if an interesting turn follows
+		private final Deque<FieldState> skipped = new ArrayDeque<>();
+		private FieldState last;
+		private boolean lastKept;
+		private int sinceKept;
+		private int fullRateLeft;
+
+		List<FieldState> select(FieldState state) {
+
+			FieldState previous = last;
+			last = state;
+
+			if (previous == null || mode == Mode.FULL)
+				return keep(state);
+
+			if (mode == Mode.HIGHLIGHTS) {
+				if (isInteresting(previous, state)) {
+					fullRateLeft = HIGHLIGHT_CONTEXT;
+					List<FieldState> result = new ArrayList<>(skipped);
+					result.add(state);
+					keep(state);
+					return result;
+				}
+				if (fullRateLeft > 0) {
+					fullRateLeft--;
+					return keep(state);
+				}
+			}
+
+			if (++sinceKept >= speedUp)
+				return keep(state);
+
+			lastKept = false;
+			if (mode == Mode.HIGHLIGHTS) {
+				skipped.addLast(state);
+				if (skipped.size() > HIGHLIGHT_CONTEXT)
+					skipped.removeFirst();
+			}
+			return Collections.emptyList();
+
+		}
+
+		/** Returns the last state, if it was left out. */
+		List<FieldState> finish() {
+			if (last == null || lastKept)
+				return Collections.emptyList();
+			lastKept = true;
+			return Collections.singletonList(last);
+		}
+
+		private List<FieldState> keep(FieldState state) {
+			skipped.clear();
+			sinceKept = 0;
+			lastKept = true;
+			return Collections.singletonList(state);
+		}
+
+	}
+
+	public static final VideoProfile FULL = new VideoProfile(Mode.FULL, 1);
+	public static final int DEFAULT_SPEED_UP = 4;
+	// one second of turns either side of an interesting turn
+	static final int HIGHLIGHT_CONTEXT = 30;
+
+}
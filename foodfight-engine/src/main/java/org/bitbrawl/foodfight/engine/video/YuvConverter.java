@@ -0,0 +1,124 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.stream.IntStream;
+
+import io.humble.ferry.Buffer;
+import io.humble.video.MediaPicture;
+import io.humble.video.PixelFormat;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Converts frames to the YUV 4:2:0 pictures that the encoder takes, reading
+ * the bytes of each frame directly rather than going through a BGR picture
+ * and a resampler. The colors are converted with the BT.601 studio-range
+ * coefficients that the resampler uses, and each chroma sample is the average
+ * of the four pixels it covers. Rows are converted in parallel, two at a time,
+ * since each pair of rows shares a row of chroma samples.
+ * <p>
+ * The conversion itself is plain Java, so it only beats the resampler when it
+ * can be spread over more than one processor; see YuvConverterBenchmark.
+ */
+@NotThreadSafe
+final class YuvConverter {
+
+	private final int width;
+	private final int height;
+	private final int lumaStride;
+	private final int chromaStride;
+	private final byte[] luma;
+	private final byte[] blueDifference;
+	private final byte[] redDifference;
+
+	YuvConverter(MediaPicture picture) {
+
+		if (picture.getFormat() != PixelFormat.Type.PIX_FMT_YUV420P)
+			throw new IllegalArgumentException("Picture must be YUV 4:2:0: " + picture.getFormat());
+		width = picture.getWidth();
+		height = picture.getHeight();
+		if (width % 2 != 0 || height % 2 != 0)
+			throw new IllegalArgumentException("Picture must have an even width and height");
+
+		lumaStride = picture.getLineSize(0);
+		chromaStride = picture.getLineSize(1);
+		if (picture.getLineSize(2) != chromaStride)
+			throw new IllegalArgumentException("Chroma planes must have the same line size");
+		luma = new byte[lumaStride * height];
+		blueDifference = new byte[chromaStride * height / 2];
+		redDifference = new byte[chromaStride * height / 2];
+
+	}
+
+	/** Whether the given image can be converted by this converter. */
+	boolean accepts(BufferedImage image) {
+		return image.getType() == BufferedImage.TYPE_3BYTE_BGR && image.getWidth() == width
+				&& image.getHeight() == height;
+	}
+
+	void toPicture(MediaPicture picture, BufferedImage image, long timeStamp) {
+
+		if (!accepts(image))
+			throw new IllegalArgumentException("Image must be " + width + "x" + height + " BGR: " + image);
+
+		byte[] bgr = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+		IntStream.range(0, height / 2).parallel().forEach(pair -> convertRows(bgr, pair));
+
+		copyPlane(picture, 0, luma);
+		copyPlane(picture, 1, blueDifference);
+		copyPlane(picture, 2, redDifference);
+		picture.setTimeStamp(timeStamp);
+		picture.setComplete(true);
+
+	}
+
+	private void convertRows(byte[] bgr, int pair) {
+
+		int top = 2 * pair * width * 3;
+		int bottom = top + width * 3;
+		int topLuma = 2 * pair * lumaStride;
+		int bottomLuma = topLuma + lumaStride;
+		int chroma = pair * chromaStride;
+
+		for (int x = 0; x < width; x += 2) {
+
+			int b0 = bgr[top] & 0xFF, g0 = bgr[top + 1] & 0xFF, r0 = bgr[top + 2] & 0xFF;
+			int b1 = bgr[top + 3] & 0xFF, g1 = bgr[top + 4] & 0xFF, r1 = bgr[top + 5] & 0xFF;
+			int b2 = bgr[bottom] & 0xFF, g2 = bgr[bottom + 1] & 0xFF, r2 = bgr[bottom + 2] & 0xFF;
+			int b3 = bgr[bottom + 3] & 0xFF, g3 = bgr[bottom + 4] & 0xFF, r3 = bgr[bottom + 5] & 0xFF;
+			top += 6;
+			bottom += 6;
+
+			luma[topLuma + x] = getLuma(r0, g0, b0);
+			luma[topLuma + x + 1] = getLuma(r1, g1, b1);
+			luma[bottomLuma + x] = getLuma(r2, g2, b2);
+			luma[bottomLuma + x + 1] = getLuma(r3, g3, b3);
+
+			int r = r0 + r1 + r2 + r3;
+			int g = g0 + g1 + g2 + g3;
+			int b = b0 + b1 + b2 + b3;
+			blueDifference[chroma] = (byte) (((-38 * r - 74 * g + 112 * b + 512) >> 10) + 128);
+			redDifference[chroma] = (byte) (((112 * r - 94 * g - 18 * b + 512) >> 10) + 128);
+			chroma++;
+
+		}
+
+	}
+
+	private static byte getLuma(int r, int g, int b) {
+		return (byte) (((66 * r + 129 * g + 25 * b + 128) >> 8) + 16);
+	}
+
+	private static void copyPlane(MediaPicture picture, int plane, byte[] data) {
+		Buffer buffer = picture.getData(plane);
+		try {
+			if (buffer.getBufferSize() < data.length)
+				throw new IllegalStateException("Plane " + plane + " is smaller than expected");
+			buffer.put(data, 0, 0, data.length);
+		} finally {
+			buffer.delete();
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package org.bitbrawl.foodfight.engine.field;
+
+import org.bitbrawl.foodfight.engine.match.MatchHistory;
+import org.bitbrawl.foodfight.engine.match.RandomMatches;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.util.Direction;
+import org.bitbrawl.foodfight.util.Vector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+class StateAdapterFactoryTest {
+
+	@Test
+	void testSameJson() {
+
+		for (MatchType type : MatchType.values()) {
+			MatchHistory history = RandomMatches.newMatch(type, 11L).build().run();
+
+			for (FieldState state : history.getFieldStates()) {
+				String expected = treeWriter.toJson(state);
+				String actual = streamGson.toJson(state);
+				Assertions.assertEquals(expected, actual);
+				Assertions.assertEquals(expected, streamGson.toJson(streamGson.fromJson(actual, FieldState.class)));
+				Assertions.assertEquals(expected, streamGson.toJson(treeReader.fromJson(actual, FieldState.class)));
+			}
+		}
+
+	}
+
+	private static final Gson treeWriter = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapter(ScoreState.class, ScoreState.Serializer.INSTANCE)
+			.registerTypeAdapter(InventoryState.class, InventoryState.Serializer.INSTANCE)
+			.registerTypeAdapter(Vector.class, Vector.Serializer.INSTANCE)
+			.registerTypeAdapter(Direction.class, Direction.Serializer.INSTANCE).create();
+	private static final Gson treeReader = new GsonBuilder()
+			.registerTypeAdapter(FieldState.class, FieldState.Deserializer.INSTANCE)
+			.registerTypeAdapter(TeamState.class, TeamState.Deserializer.INSTANCE)
+			.registerTypeAdapter(TableState.class, TableState.Deserializer.INSTANCE)
+			.registerTypeAdapter(ScoreState.class, ScoreState.Deserializer.INSTANCE)
+			.registerTypeAdapter(InventoryState.class, InventoryState.Deserializer.INSTANCE)
+			.registerTypeAdapter(Vector.class, Vector.Deserializer.INSTANCE)
+			.registerTypeAdapter(Direction.class, Direction.Deserializer.INSTANCE).create();
+	private static final Gson streamGson = new GsonBuilder()
+			.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE).create();
+
+}
@@ -0,0 +1,157 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.StateAdapterFactory;
+import org.bitbrawl.foodfight.engine.match.RandomMatches;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+class FieldDeltaTest {
+
+	private static List<FieldState> states;
+
+	@BeforeAll
+	static void setUp() {
+		states = RandomMatches.newMatch(MatchType.TEAM, 17L).build().run().getFieldStates();
+	}
+
+	@Test
+	void testDeltas() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (MessageWriter writer = WireFormat.DELTA.newWriter(bytes)) {
+			for (FieldState state : states)
+				writer.writeTurn(state, 'a', 'b');
+		}
+		byte[] written = bytes.toByteArray();
+
+		try (MessageReader reader = WireFormat.DELTA.newReader(new ByteArrayInputStream(written))) {
+			for (FieldState state : states)
+				Assertions.assertEquals(gson.toJson(state), gson.toJson(reader.readTurn().getField()),
+						"Turn " + state.getTurnNumber());
+			Assertions.assertEquals(MessageType.END, reader.peek());
+		}
+
+		// a keyframe is followed by KEYFRAME_INTERVAL deltas
+		List<Byte> tags = getTags(written);
+		for (int i = 0; i < tags.size(); i++) {
+			byte expected = i % (BinaryMessageWriter.KEYFRAME_INTERVAL + 1) == 0 ? BinaryFrames.TURN
+					: BinaryFrames.DELTA;
+			Assertions.assertEquals(expected, (byte) tags.get(i), "Frame " + i);
+		}
+
+		// deltas are what make the format worth having
+		ByteArrayOutputStream full = new ByteArrayOutputStream();
+		try (MessageWriter writer = WireFormat.BINARY.newWriter(full)) {
+			for (FieldState state : states)
+				writer.writeTurn(state, 'a', 'b');
+		}
+		Assertions.assertTrue(written.length * 2 < full.size());
+
+	}
+
+	@Test
+	void testChecksumMismatch() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		MessageWriter writer = WireFormat.DELTA.newWriter(bytes);
+		writer.writeTurn(states.get(0), 'a', 'b');
+		writer.writeTurn(states.get(1), 'a', 'b');
+		writer.writeTurn(states.get(2), 'a', 'b');
+		writer.flush();
+		int secondFrameEnd = getFrameEnds(bytes.toByteArray()).get(1);
+		writer.resync();
+		writer.writeTurn(states.get(2), 'a', 'b');
+		writer.close();
+
+		// the checksum sits just before the team and player symbols
+		byte[] corrupted = bytes.toByteArray();
+		corrupted[secondFrameEnd - 2 * Character.BYTES - 1] ^= 1;
+
+		try (MessageReader reader = WireFormat.DELTA.newReader(new ByteArrayInputStream(corrupted))) {
+			reader.readTurn();
+			Assertions.assertThrows(DesyncException.class, reader::readTurn);
+			// later deltas have nothing to apply to until a keyframe arrives
+			Assertions.assertThrows(DesyncException.class, reader::readTurn);
+			Assertions.assertEquals(gson.toJson(states.get(2)), gson.toJson(reader.readTurn().getField()));
+		}
+
+	}
+
+	@Test
+	void testTruncatedFrame() throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (MessageWriter writer = WireFormat.DELTA.newWriter(bytes)) {
+			writer.writeTurn(states.get(0), 'a', 'b');
+			writer.writeTurn(states.get(1), 'a', 'b');
+		}
+		byte[] written = bytes.toByteArray();
+		int firstFrameEnd = getFrameEnds(written).get(0);
+
+		// the stream ends in the middle of a frame
+		byte[] truncated = Arrays.copyOf(written, written.length - 3);
+		try (MessageReader reader = WireFormat.DELTA.newReader(new ByteArrayInputStream(truncated))) {
+			reader.readTurn();
+			Assertions.assertThrows(StreamCorruptedException.class, reader::readTurn);
+		}
+
+		// a frame that is shorter than what it holds
+		ByteArrayOutputStream shortFrame = new ByteArrayOutputStream();
+		shortFrame.write(written, 0, 1);
+		shortFrame.write(new byte[] { 0, 0, 0, 3, 0, 0, 0 });
+		try (MessageReader reader = WireFormat.DELTA.newReader(new ByteArrayInputStream(shortFrame.toByteArray()))) {
+			Assertions.assertThrows(StreamCorruptedException.class, reader::readTurn);
+		}
+
+		// the stream may end between frames
+		try (MessageReader reader = WireFormat.DELTA
+				.newReader(new ByteArrayInputStream(Arrays.copyOf(written, firstFrameEnd)))) {
+			reader.readTurn();
+			Assertions.assertEquals(MessageType.END, reader.peek());
+		}
+
+	}
+
+	private static List<Byte> getTags(byte[] written) throws IOException {
+		List<Byte> result = new ArrayList<>();
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(written));
+		while (in.available() > 0) {
+			result.add(in.readByte());
+			in.skipBytes(in.readInt());
+		}
+		return result;
+	}
+
+	private static List<Integer> getFrameEnds(byte[] written) throws IOException {
+		List<Integer> result = new ArrayList<>();
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(written));
+		int position = 0;
+		while (in.available() > 0) {
+			in.readByte();
+			int length = in.readInt();
+			in.skipBytes(length);
+			position += 1 + Integer.BYTES + length;
+			result.add(position);
+		}
+		return result;
+	}
+
+	private static final Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE).create();
+
+}
@@ -0,0 +1,89 @@
+package org.bitbrawl.foodfight.engine.ipc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.StateAdapterFactory;
+import org.bitbrawl.foodfight.engine.match.RandomMatches;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+class WireFormatTest {
+
+	@Test
+	void testTurns() throws IOException {
+		for (MatchType type : MatchType.values()) {
+			List<FieldState> states = RandomMatches.newMatch(type, 13L).build().run().getFieldStates();
+			assertTurns(WireFormat.JSON, states);
+			assertTurns(WireFormat.BINARY, states);
+		}
+	}
+
+	@Test
+	void testMessages() throws IOException {
+		FieldState field = RandomMatches.newMatch(MatchType.DUEL, 13L).build().run().getFinalState();
+		for (WireFormat format : WireFormat.values()) {
+
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (MessageWriter writer = format.newWriter(bytes)) {
+				writer.writeText("match");
+				writer.writeText("caf\u00e9 \"log\".txt");
+				writer.writeTurn(field, 'a', 'b');
+				for (Action action : Action.values())
+					writer.writeAction(action);
+				writer.writeAction(null);
+			}
+
+			try (MessageReader reader = format.newReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+				Assertions.assertEquals(MessageType.TEXT, reader.peek(), format.name());
+				Assertions.assertEquals("match", reader.readText());
+				Assertions.assertEquals("caf\u00e9 \"log\".txt", reader.readText());
+				Assertions.assertEquals(MessageType.TURN, reader.peek(), format.name());
+				TurnMessage turn = reader.readTurn();
+				Assertions.assertEquals(gson.toJson(field), gson.toJson(turn.getField()));
+				Assertions.assertEquals('a', turn.getTeamSymbol());
+				Assertions.assertEquals('b', turn.getPlayerSymbol());
+				for (Action action : Action.values()) {
+					// JSON actions are strings, which peek as text
+					if (format != WireFormat.JSON)
+						Assertions.assertEquals(MessageType.ACTION, reader.peek(), format.name());
+					Assertions.assertEquals(action, reader.readAction());
+				}
+				Assertions.assertNull(reader.readAction());
+				Assertions.assertEquals(MessageType.END, reader.peek(), format.name());
+			}
+
+		}
+	}
+
+	private static void assertTurns(WireFormat format, List<FieldState> states) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (MessageWriter writer = format.newWriter(bytes)) {
+			for (FieldState state : states)
+				writer.writeTurn(state, 'a', 'b');
+		}
+
+		try (MessageReader reader = format.newReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+			for (FieldState state : states) {
+				TurnMessage turn = reader.readTurn();
+				Assertions.assertEquals(gson.toJson(state), gson.toJson(turn.getField()),
+						format + " turn " + state.getTurnNumber());
+			}
+			Assertions.assertEquals(MessageType.END, reader.peek());
+		}
+
+	}
+
+	private static final Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE).create();
+
+}
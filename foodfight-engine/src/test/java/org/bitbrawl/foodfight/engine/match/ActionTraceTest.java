@@ -0,0 +1,70 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.InventoryState;
+import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.engine.field.TableState;
+import org.bitbrawl.foodfight.engine.field.TeamState;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.util.Direction;
+import org.bitbrawl.foodfight.util.Vector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+class ActionTraceTest {
+
+	@Test
+	void testReplay() {
+
+		for (MatchType type : MatchType.values()) {
+
+			ActionTrace.Recorder recorder = new ActionTrace.Recorder(0, 11L, RandomMatches::getName, 64);
+			MatchHistory history = RandomMatches.newMatch(type, 11L).recorder(recorder).build().run();
+			ActionTrace trace = recorder.build();
+
+			List<FieldState> states = history.getFieldStates();
+			Assertions.assertEquals(states.size(), trace.getNumberOfStates());
+			for (int i = 0; i < states.size(); i += 37)
+				Assertions.assertEquals(writer.toJson(states.get(i)), writer.toJson(trace.getState(i)));
+			Assertions.assertEquals(writer.toJson(history.getFinalState()), writer.toJson(trace.getFinalState()));
+
+			ActionTrace read = reader.fromJson(writer.toJson(trace), ActionTrace.class);
+			Assertions.assertEquals(writer.toJson(history), writer.toJson(read.toHistory()));
+
+		}
+
+	}
+
+	@Test
+	void testEncodeActions() {
+		Map<Character, Action> actions = new LinkedHashMap<>();
+		actions.put('c', Action.EAT_RIGHT);
+		actions.put('a', null);
+		actions.put('b', Action.MOVE_FORWARD);
+		Assertions.assertEquals(actions, ActionTrace.decodeActions(ActionTrace.encodeActions(actions)));
+	}
+
+	private static final Gson writer = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapter(ScoreState.class, ScoreState.Serializer.INSTANCE)
+			.registerTypeAdapter(InventoryState.class, InventoryState.Serializer.INSTANCE)
+			.registerTypeAdapter(Vector.class, Vector.Serializer.INSTANCE)
+			.registerTypeAdapter(Direction.class, Direction.Serializer.INSTANCE).create();
+	private static final Gson reader = new GsonBuilder()
+			.registerTypeAdapter(ActionTrace.class, ActionTrace.Deserializer.INSTANCE)
+			.registerTypeAdapter(FieldState.class, FieldState.Deserializer.INSTANCE)
+			.registerTypeAdapter(TeamState.class, TeamState.Deserializer.INSTANCE)
+			.registerTypeAdapter(TableState.class, TableState.Deserializer.INSTANCE)
+			.registerTypeAdapter(ScoreState.class, ScoreState.Deserializer.INSTANCE)
+			.registerTypeAdapter(InventoryState.class, InventoryState.Deserializer.INSTANCE)
+			.registerTypeAdapter(Vector.class, Vector.Deserializer.INSTANCE)
+			.registerTypeAdapter(Direction.class, Direction.Deserializer.INSTANCE).create();
+
+}
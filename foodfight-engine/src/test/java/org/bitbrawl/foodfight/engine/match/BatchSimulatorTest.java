@@ -0,0 +1,147 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import org.bitbrawl.foodfight.controller.JavaController;
+import org.bitbrawl.foodfight.engine.match.BatchStatistics.ControllerStatistics;
+import org.bitbrawl.foodfight.engine.match.BatchStatistics.Outcome;
+import org.bitbrawl.foodfight.field.Field;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.field.Player;
+import org.bitbrawl.foodfight.field.Team;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class BatchSimulatorTest {
+
+	@Test
+	void testStatistics() {
+
+		BatchStatistics.Builder builder = new BatchStatistics.Builder(MatchType.DUEL);
+		builder.addMatch();
+		builder.addResult("first", 10, Outcome.TIE);
+		builder.addResult("second", 10, Outcome.TIE);
+		builder.addMatch();
+		builder.addResult("first", 20, Outcome.WIN);
+		builder.addResult("second", 0, Outcome.LOSS);
+		builder.addFailedMatch();
+		BatchStatistics statistics = builder.build(1_000_000_000L);
+
+		Assertions.assertEquals(2, statistics.getMatches());
+		Assertions.assertEquals(1, statistics.getFailedMatches());
+		Assertions.assertEquals(1.0, statistics.getSeconds());
+
+		ControllerStatistics first = statistics.getControllers().get("first");
+		Assertions.assertEquals(2, first.getPlayed());
+		Assertions.assertEquals(1, first.getWins());
+		Assertions.assertEquals(1, first.getTies());
+		Assertions.assertEquals(0.5, first.getWinRate());
+		Assertions.assertEquals(15.0, first.getMeanScore());
+		Assertions.assertEquals(Math.sqrt(50.0), first.getScoreStandardDeviation(), 1e-9);
+
+		ControllerStatistics second = statistics.getControllers().get("second");
+		Assertions.assertEquals(0, second.getWins());
+		Assertions.assertEquals(1, second.getTies());
+		Assertions.assertEquals(0.0, second.getWinRate());
+
+	}
+
+	@Test
+	void testSameSeedSameStatistics() throws InterruptedException {
+
+		BatchSimulator simulator = new BatchSimulator(MatchType.DUEL, Arrays.asList(Eater.class, Walker.class), 2);
+		BatchStatistics first = simulator.run(NUM_MATCHES, 3L);
+		BatchStatistics second = simulator.run(NUM_MATCHES, 3L);
+		// the array runner is opt-in, and plays the same matches
+		BatchStatistics array = new BatchSimulator(MatchType.DUEL, Arrays.asList(Eater.class, Walker.class), 2,
+				ArrayTurnRunner::new).run(NUM_MATCHES, 3L);
+
+		Assertions.assertEquals(NUM_MATCHES, first.getMatches());
+		Assertions.assertEquals(0, first.getFailedMatches());
+		Assertions.assertEquals(first.getControllers().keySet(), second.getControllers().keySet());
+
+		int played = 0;
+		for (Map.Entry<String, ControllerStatistics> entry : first.getControllers().entrySet()) {
+			ControllerStatistics expected = entry.getValue();
+			ControllerStatistics actual = second.getControllers().get(entry.getKey());
+			Assertions.assertEquals(expected.toString(), actual.toString());
+			Assertions.assertEquals(expected.toString(), array.getControllers().get(entry.getKey()).toString());
+			Assertions.assertTrue(expected.getWins() + expected.getTies() <= expected.getPlayed());
+			played += expected.getPlayed();
+		}
+		Assertions.assertEquals(NUM_MATCHES * MatchType.DUEL.getNumberOfPlayers(), played);
+
+	}
+
+	@Test
+	void testBrokenController() throws InterruptedException {
+
+		// every player whose controller cannot be loaded needs its own stand-in
+		Assertions.assertNotSame(BatchSimulator.newController(Broken.class),
+				BatchSimulator.newController(Broken.class));
+
+		BatchStatistics statistics = new BatchSimulator(MatchType.DUEL, Collections.singletonList(Broken.class), 1)
+				.run(1, 3L);
+		ControllerStatistics broken = statistics.getControllers().get(Broken.class.getSimpleName());
+		Assertions.assertEquals(MatchType.DUEL.getNumberOfPlayers(), broken.getPlayed());
+		// both players are the same controller, so one wins or both tie
+		Assertions.assertTrue(broken.getWins() == 1 && broken.getTies() == 0
+				|| broken.getWins() == 0 && broken.getTies() == MatchType.DUEL.getNumberOfPlayers());
+
+	}
+
+	@Test
+	void testThrowingController() throws InterruptedException {
+
+		BatchStatistics statistics = new BatchSimulator(MatchType.DUEL, Arrays.asList(Thrower.class, Eater.class), 1)
+				.run(1, 3L);
+		Assertions.assertEquals(1, statistics.getMatches());
+		Assertions.assertEquals(0, statistics.getFailedMatches());
+		Assertions.assertEquals(1, statistics.getControllers().get(Thrower.class.getSimpleName()).getPlayed());
+
+	}
+
+	public static final class Eater extends JavaController {
+
+		@Override
+		public Action playAction(Field field, Team team, Player player) {
+			return Action.EAT_LEFT;
+		}
+
+	}
+
+	public static final class Walker extends JavaController {
+
+		@Override
+		public Action playAction(Field field, Team team, Player player) {
+			return Action.MOVE_FORWARD;
+		}
+
+	}
+
+	public static final class Broken extends JavaController {
+
+		private Broken() {
+		}
+
+		@Override
+		public Action playAction(Field field, Team team, Player player) {
+			return null;
+		}
+
+	}
+
+	public static final class Thrower extends JavaController {
+
+		@Override
+		public Action playAction(Field field, Team team, Player player) {
+			throw new IllegalStateException("Lost track of the field");
+		}
+
+	}
+
+	private static final int NUM_MATCHES = 4;
+
+}
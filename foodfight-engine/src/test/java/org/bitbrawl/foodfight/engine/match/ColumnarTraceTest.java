@@ -0,0 +1,151 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.FoodState;
+import org.bitbrawl.foodfight.engine.field.InventoryState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.engine.field.TeamState;
+import org.bitbrawl.foodfight.field.Event;
+import org.bitbrawl.foodfight.field.Food;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.util.Direction;
+import org.bitbrawl.foodfight.util.Vector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+
+class ColumnarTraceTest {
+
+	@Test
+	void testConvert() throws IOException {
+
+		MatchHistory history = RandomMatches.newMatch(4, MatchType.TEAM, 5L).build().run();
+		FieldState field = history.getFieldStates().get(0);
+
+		Path folder = Files.createTempDirectory("columnar-trace");
+		Path jsonTrace = folder.resolve("trace.json");
+		Path columnarTrace = folder.resolve("trace.bin");
+		try {
+			try (Writer writer = Files.newBufferedWriter(jsonTrace)) {
+				gson.toJson(history, writer);
+			}
+			ColumnarTraceWriter.convert(jsonTrace, columnarTrace);
+			ColumnarTrace trace = ColumnarTrace.open(columnarTrace);
+
+			List<FieldState> states = history.getFieldStates();
+			Assertions.assertEquals(4, trace.getMatchNumber());
+			Assertions.assertEquals(5L, trace.getSeed());
+			Assertions.assertEquals(MatchType.TEAM, trace.getMatchType());
+			Assertions.assertEquals(states.size(), trace.getNumberOfStates());
+			Assertions.assertEquals(history.getNames(), trace.getNames());
+
+			for (PlayerState player : field.getPlayerStates()) {
+				char symbol = player.getSymbol();
+				double[] energy = trace.getPlayerColumn(symbol, ColumnarTrace.PlayerColumn.ENERGY);
+				for (int i = 0; i < states.size(); i++) {
+					PlayerState expected = states.get(i).getPlayer(symbol);
+					Assertions.assertEquals(expected.getEnergy(), energy[i]);
+					Assertions.assertEquals(expected.getLocation().getX(),
+							trace.getPlayerValue(symbol, ColumnarTrace.PlayerColumn.X, i));
+					Assertions.assertEquals(expected.getHeading().get(),
+							trace.getPlayerValue(symbol, ColumnarTrace.PlayerColumn.HEADING, i));
+				}
+			}
+
+			for (int i = 0; i < states.size(); i += 50) {
+				for (Food.Type type : Food.Type.values()) {
+					FoodState food = states.get(i).getFood(type);
+					double y = trace.getFoodValue(type, ColumnarTrace.FoodColumn.Y, i);
+					if (food == null)
+						Assertions.assertTrue(Double.isNaN(y));
+					else
+						Assertions.assertEquals(food.getLocation().getY(), y);
+				}
+			}
+
+			for (TeamState team : history.getFinalState().getTeamStates()) {
+				int last = states.size() - 1;
+				Assertions.assertEquals(team.getScore().getTotalPoints(), trace.getScore(team.getSymbol(), last));
+				Assertions.assertEquals(team.getScore().getTotalPoints(),
+						trace.getScoreColumn(team.getSymbol())[last]);
+				for (Event event : Event.values())
+					Assertions.assertEquals(team.getScore().getCount(event),
+							trace.getEventCount(team.getSymbol(), event, last));
+			}
+		} finally {
+			Files.deleteIfExists(jsonTrace);
+			Files.deleteIfExists(columnarTrace);
+			Files.delete(folder);
+		}
+
+	}
+
+	@Test
+	void testConvertFailure() throws IOException {
+
+		MatchHistory history = RandomMatches.newMatch(MatchType.DUEL, 5L).build().run();
+		JsonObject json = gson.toJsonTree(history).getAsJsonObject();
+		json.add("states", json.get("fieldStates"));
+
+		Path folder = Files.createTempDirectory("columnar-trace");
+		Path jsonTrace = folder.resolve("trace.json");
+		Path columnarTrace = folder.resolve("trace.bin");
+		try {
+			try (Writer writer = Files.newBufferedWriter(jsonTrace)) {
+				gson.toJson(json, writer);
+			}
+			Assertions.assertThrows(IOException.class, () -> ColumnarTraceWriter.convert(jsonTrace, columnarTrace));
+			// nothing is left to stop the conversion from running again
+			Assertions.assertFalse(Files.exists(columnarTrace));
+		} finally {
+			Files.deleteIfExists(jsonTrace);
+			Files.deleteIfExists(columnarTrace);
+			Files.delete(folder);
+		}
+
+	}
+
+	@Test
+	void testDuplicateFood() throws IOException {
+
+		FieldState field = RandomMatches.newMatch(MatchType.DUEL, 5L).build().run().getFinalState();
+		List<FoodState> food = new ArrayList<>(field.getFoodStates());
+		food.add(new FoodState(Food.Type.APPLE, Vector.cartesian(100.0, 100.0), 0.0, Direction.NORTH));
+		food.add(new FoodState(Food.Type.APPLE, Vector.cartesian(200.0, 200.0), 0.0, Direction.NORTH));
+		FieldState duplicated = new FieldState(field.getTurnNumber(), field.getMatchType(), field.getTeamStates(),
+				food, field.getCollisionStates());
+
+		Path folder = Files.createTempDirectory("columnar-trace");
+		Path columnarTrace = folder.resolve("trace.bin");
+		try {
+			ColumnarTraceWriter writer = new ColumnarTraceWriter(columnarTrace, 0, 5L, RandomMatches::getName);
+			try {
+				Assertions.assertThrows(IllegalArgumentException.class, () -> writer.accept(duplicated));
+			} finally {
+				writer.close();
+			}
+		} finally {
+			Files.deleteIfExists(columnarTrace);
+			Files.delete(folder);
+		}
+
+	}
+
+	private static final Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapter(ScoreState.class, ScoreState.Serializer.INSTANCE)
+			.registerTypeAdapter(InventoryState.class, InventoryState.Serializer.INSTANCE)
+			.registerTypeAdapter(Vector.class, Vector.Serializer.INSTANCE)
+			.registerTypeAdapter(Direction.class, Direction.Serializer.INSTANCE).setPrettyPrinting().create();
+
+}
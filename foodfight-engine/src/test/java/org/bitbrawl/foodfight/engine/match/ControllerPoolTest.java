@@ -0,0 +1,138 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.ipc.WireFormat;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.field.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ControllerPoolTest {
+
+	private static List<FieldState> states;
+	private Path folder;
+	private Path jar;
+	private int numLogs;
+
+	@BeforeAll
+	static void setUpStates() {
+		states = RandomMatches.newMatch(MatchType.DUEL, 9L).build().run().getFieldStates();
+	}
+
+	@BeforeEach
+	void setUp() throws IOException {
+		folder = Files.createTempDirectory("controller-pool");
+		jar = Files.createFile(folder.resolve("controller.jar"));
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		try (Stream<Path> files = Files.list(folder)) {
+			for (Path file : (Iterable<Path>) files::iterator)
+				Files.delete(file);
+		}
+		Files.delete(folder);
+	}
+
+	@Test
+	void testHostReused() throws IOException {
+		try (ControllerPool pool = newPool(2)) {
+			List<String> first = playMatch(pool, "healthy", 0, 0);
+			List<String> second = playMatch(pool, "healthy", 0, 0);
+			Assertions.assertEquals(first.get(0), second.get(0));
+		}
+	}
+
+	@Test
+	void testHostRecycled() throws IOException {
+		try (ControllerPool pool = newPool(2)) {
+			String firstHost = playMatch(pool, "healthy", 0, 0).get(0);
+			playMatch(pool, "healthy", 0, 0);
+			Assertions.assertNotEquals(firstHost, playMatch(pool, "healthy", 0, 0).get(0));
+		}
+	}
+
+	@Test
+	void testUnhealthyHostReplaced() throws IOException {
+		try (ControllerPool pool = newPool(3)) {
+			String firstHost = playMatch(pool, "unhealthy", 0, 0).get(0);
+			Assertions.assertNotEquals(firstHost, playMatch(pool, "unhealthy", 0, 0).get(0));
+		}
+	}
+
+	@Test
+	void testChangedJarNotReused() throws IOException {
+		try (ControllerPool pool = newPool(3)) {
+			String firstHost = playMatch(pool, "healthy", 0, 0).get(0);
+			FileTime modified = Files.getLastModifiedTime(jar);
+			Files.setLastModifiedTime(jar, FileTime.fromMillis(modified.toMillis() + 10_000L));
+			Assertions.assertNotEquals(firstHost, playMatch(pool, "healthy", 0, 0).get(0));
+		}
+	}
+
+	@Test
+	void testKeyframeAtMatchStart() throws IOException {
+		try (ControllerPool pool = newPool(2)) {
+			List<String> expected = Arrays.asList("keyframe", "delta", "delta");
+			Assertions.assertEquals(expected, playMatch(pool, "healthy", 0, 3).subList(1, 4));
+			// the next match carries on from the turn the last one stopped at,
+			// so only the start of the match stands in the way of a delta
+			Assertions.assertEquals(expected, playMatch(pool, "healthy", 3, 6).subList(1, 4));
+		}
+	}
+
+	@Test
+	void testResync() throws IOException {
+		try (ControllerPool pool = newPool(2)) {
+			// the runner asks for a keyframe instead of answering the first delta
+			List<String> expected = Arrays.asList("keyframe", "delta", "keyframe", "delta");
+			Assertions.assertEquals(expected, playMatch(pool, "desync", 0, 3).subList(1, 5));
+		}
+	}
+
+	private ControllerPool newPool(int matchesPerHost) {
+		String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+		List<String> command = Arrays.asList(java, "-cp", System.getProperty("java.class.path"),
+				StubRunner.class.getName());
+		return new ControllerPool(matchesPerHost, WireFormat.DELTA, command);
+	}
+
+	/*
+	 * Plays the given turns of the test match through a controller from the
+	 * pool and returns what the stub runner logged.
+	 */
+	private List<String> playMatch(ControllerPool pool, String behavior, int fromTurn, int toTurn)
+			throws IOException {
+
+		Path log = folder.resolve("match-" + numLogs++ + ".log");
+		char symbol = states.get(0).getPlayers().iterator().next().getSymbol();
+
+		List<Action> actions = new ArrayList<>();
+		try (JarController controller = pool.acquire(jar, behavior, log)) {
+			for (FieldState field : states.subList(fromTurn, toTurn)) {
+				Player player = field.getPlayer(symbol);
+				actions.add(controller.playAction(field, field.getTeam(player), player));
+			}
+		}
+		for (Action action : actions)
+			Assertions.assertEquals(Action.values()[0], action);
+
+		return Files.readAllLines(log);
+
+	}
+
+}
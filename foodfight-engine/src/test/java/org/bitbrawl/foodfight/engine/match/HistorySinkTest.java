@@ -0,0 +1,139 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.InventoryState;
+import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.util.Direction;
+import org.bitbrawl.foodfight.util.Vector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+class HistorySinkTest {
+
+	@Test
+	void testStreamedTrace() throws IOException, InterruptedException {
+
+		MatchHistory full = newMatch(f -> {
+		}, true).run();
+
+		Path folder = Files.createTempDirectory("history-sink");
+		Path traceFile = folder.resolve("trace.json");
+		List<FieldState> seen = new ArrayList<>();
+		try {
+			MatchHistory streamed;
+			try (HistorySink sink = new HistorySink(4, new TraceWriter(traceFile, gson, 0, 3L, RandomMatches::getName),
+					new ListStage(seen))) {
+				streamed = newMatch(sink, false).run();
+			}
+			Assertions.assertEquals(1, streamed.getFieldStates().size());
+			Assertions.assertEquals(full.getFieldStates().size(), seen.size());
+			String expected = gson.toJson(full);
+			Assertions.assertEquals(expected, new String(Files.readAllBytes(traceFile), StandardCharsets.UTF_8));
+		} finally {
+			Files.deleteIfExists(traceFile);
+			Files.delete(folder);
+		}
+
+	}
+
+	@Test
+	void testFailure() {
+
+		ListStage failing = new ListStage(new ArrayList<>()) {
+			@Override
+			public void accept(FieldState state) throws IOException {
+				throw new IOException("Disk full");
+			}
+		};
+		List<FieldState> seen = new ArrayList<>();
+		ListStage healthy = new ListStage(seen);
+		HistorySink sink = new HistorySink(1, failing, healthy);
+		FieldState state = new FieldGenerator(MatchType.DUEL, new MatchRandom(1L)).get();
+		for (int i = 0; i < 10; i++)
+			sink.accept(state);
+		Assertions.assertThrows(IOException.class, sink::close);
+
+		// only the stage that failed loses its output
+		Assertions.assertTrue(failing.aborted);
+		Assertions.assertFalse(failing.closed);
+		Assertions.assertEquals(10, seen.size());
+		Assertions.assertTrue(healthy.closed);
+		Assertions.assertFalse(healthy.aborted);
+
+	}
+
+	@Test
+	void testAbort() throws IOException {
+
+		Path folder = Files.createTempDirectory("history-sink");
+		Path traceFile = folder.resolve("trace.json");
+		ListStage stage = new ListStage(new ArrayList<>());
+		try {
+			HistorySink sink = new HistorySink(4, new TraceWriter(traceFile, gson, 0, 3L, RandomMatches::getName),
+					stage);
+			FieldState state = new FieldGenerator(MatchType.DUEL, new MatchRandom(1L)).get();
+			for (int i = 0; i < 10; i++)
+				sink.accept(state);
+			sink.abort();
+			// closing after an abort must not finish what was discarded
+			sink.close();
+			Assertions.assertFalse(Files.exists(traceFile));
+			Assertions.assertTrue(stage.aborted);
+			Assertions.assertFalse(stage.closed);
+		} finally {
+			Files.deleteIfExists(traceFile);
+			Files.delete(folder);
+		}
+
+	}
+
+	private static Match newMatch(Consumer<FieldState> uiConsumer, boolean keepHistory) {
+		return RandomMatches.newMatch(MatchType.TEAM, 3L).uiConsumer(uiConsumer).keepHistory(keepHistory).build();
+	}
+
+	private static class ListStage implements HistorySink.Stage {
+
+		private final List<FieldState> states;
+		boolean closed;
+		boolean aborted;
+
+		ListStage(List<FieldState> states) {
+			this.states = states;
+		}
+
+		@Override
+		public void accept(FieldState state) throws IOException {
+			states.add(state);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+		@Override
+		public void abort() {
+			aborted = true;
+		}
+
+	}
+
+	private static final Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapter(ScoreState.class, ScoreState.Serializer.INSTANCE)
+			.registerTypeAdapter(InventoryState.class, InventoryState.Serializer.INSTANCE)
+			.registerTypeAdapter(Vector.class, Vector.Serializer.INSTANCE)
+			.registerTypeAdapter(Direction.class, Direction.Serializer.INSTANCE).setPrettyPrinting().create();
+
+}
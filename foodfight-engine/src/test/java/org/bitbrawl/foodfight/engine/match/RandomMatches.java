@@ -0,0 +1,52 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.bitbrawl.foodfight.controller.Controller;
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.field.Player;
+
+/*
+ * Matches between players that pick random actions, for tests that need a
+ * realistic history. Every player gets a controller of its own, since a match
+ * keeps one player per controller, and each controller draws from its own
+ * seeded random, so a given seed always gives the same match.
+ */
+public final class RandomMatches {
+
+	private RandomMatches() {
+		throw new AssertionError("RandomMatches is not instantiable");
+	}
+
+	public static Match.Builder newMatch(MatchType type, long seed) {
+		return newMatch(0, type, seed);
+	}
+
+	public static Match.Builder newMatch(int matchNumber, MatchType type, long seed) {
+
+		MatchRandom random = new MatchRandom(seed);
+		FieldState field = new FieldGenerator(type, random).get();
+
+		Map<Character, Controller> controllers = new HashMap<>();
+		for (Player player : field.getPlayers()) {
+			char symbol = player.getSymbol();
+			Random actionRandom = new Random(seed * 31 + symbol);
+			controllers.put(symbol, (f, t, p) -> ACTIONS[actionRandom.nextInt(ACTIONS.length)]);
+		}
+
+		return new Match.Builder(matchNumber, field, controllers::get, RandomMatches::getName, new DefaultTurnRunner())
+				.random(random);
+
+	}
+
+	public static String getName(char symbol) {
+		return "player-" + symbol;
+	}
+
+	private static final Action[] ACTIONS = Action.values();
+
+}
@@ -0,0 +1,147 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+import org.bitbrawl.foodfight.engine.ipc.MessageReader;
+import org.bitbrawl.foodfight.engine.ipc.MessageWriter;
+import org.bitbrawl.foodfight.engine.ipc.WireFormat;
+
+/*
+ * Stands in for the controller runner in ControllerPoolTest. It speaks the
+ * binary formats at the frame level, without decoding fields, and writes what
+ * it sees into each match's log: the id of the process when a match starts,
+ * and whether each turn arrived as a keyframe or a delta. The class name it is
+ * given picks its behavior:
+ * - "healthy" plays the first action every turn;
+ * - "unhealthy" answers pings with something other than "pong";
+ * - "desync" asks for a keyframe whenever a match's first delta arrives.
+ */
+final class StubRunner {
+
+	private final String behavior;
+	private final String id = UUID.randomUUID().toString();
+	private final DataInputStream in = new DataInputStream(System.in);
+	private final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(System.out));
+	private PrintStream log;
+	private boolean hasResynced;
+
+	private StubRunner(String behavior) {
+		this.behavior = behavior;
+	}
+
+	public static void main(String[] args) throws IOException {
+		new StubRunner(args[1]).run();
+	}
+
+	private void run() throws IOException {
+
+		// the format is negotiated in JSON, like the real runner does
+		MessageReader jsonReader = WireFormat.JSON.newReader(System.in);
+		MessageWriter jsonWriter = WireFormat.JSON.newWriter(System.out);
+		if (!jsonReader.readText().equals("format"))
+			return;
+		WireFormat format = WireFormat.valueOf(jsonReader.readText());
+		jsonWriter.writeText(format.name());
+		jsonWriter.flush();
+		if (format == WireFormat.JSON)
+			return;
+
+		while (true) {
+
+			int tag = in.read();
+			if (tag < 0)
+				return;
+			byte[] payload = new byte[in.readInt()];
+			in.readFully(payload);
+
+			switch (tag) {
+			case TEXT:
+				if (!serve(getText(payload)))
+					return;
+				break;
+			case TURN:
+				log.println("keyframe");
+				writeAction();
+				break;
+			case DELTA:
+				log.println("delta");
+				if (behavior.equals("desync") && !hasResynced) {
+					hasResynced = true;
+					writeText("resync");
+				} else {
+					writeAction();
+				}
+				break;
+			default:
+				throw new IOException("Unknown frame tag: " + tag);
+			}
+
+		}
+
+	}
+
+	private boolean serve(String command) throws IOException {
+		switch (command) {
+		case "match":
+			if (in.read() != TEXT)
+				throw new IOException("Expected the path of the match log");
+			byte[] payload = new byte[in.readInt()];
+			in.readFully(payload);
+			log = new PrintStream(Files.newOutputStream(Paths.get(getText(payload)), StandardOpenOption.APPEND),
+					true);
+			log.println(id);
+			hasResynced = false;
+			writeText("ready");
+			return true;
+		case "end":
+			log.close();
+			log = null;
+			return true;
+		case "ping":
+			writeText(behavior.equals("unhealthy") ? "busy" : "pong");
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private static String getText(byte[] payload) throws IOException {
+		DataInputStream text = new DataInputStream(new ByteArrayInputStream(payload));
+		byte[] bytes = new byte[text.readInt()];
+		text.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void writeText(String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeByte(TEXT);
+		out.writeInt(Integer.BYTES + bytes.length);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+		out.flush();
+	}
+
+	private void writeAction() throws IOException {
+		out.writeByte(ACTION);
+		out.writeInt(1);
+		out.writeByte(0);
+		out.flush();
+	}
+
+	// the frame tags of BinaryFrames
+	private static final int TEXT = 1;
+	private static final int TURN = 2;
+	private static final int ACTION = 3;
+	private static final int DELTA = 4;
+
+}
@@ -0,0 +1,119 @@
+package org.bitbrawl.foodfight.engine.match;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.bitbrawl.foodfight.controller.Controller.Action;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.field.InventoryState;
+import org.bitbrawl.foodfight.engine.field.PlayerState;
+import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.field.Field;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.util.Direction;
+import org.bitbrawl.foodfight.util.PlayerUtils;
+import org.bitbrawl.foodfight.util.Vector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+class TurnRunnerTest {
+
+	@Test
+	void testFieldGeneratorSeed() {
+
+		for (MatchType type : MatchType.values()) {
+			FieldState first = new FieldGenerator(type, new MatchRandom(42L)).get();
+			FieldState second = new FieldGenerator(type, new MatchRandom(42L)).get();
+			Assertions.assertEquals(gson.toJson(first), gson.toJson(second));
+		}
+
+	}
+
+	@Test
+	void testSameSeedSameMatch() {
+
+		for (MatchType type : MatchType.values()) {
+			String first = gson.toJson(playMatch(type, new DefaultTurnRunner(), 7L));
+			Assertions.assertEquals(first, gson.toJson(playMatch(type, new DefaultTurnRunner(), 7L)));
+			Assertions.assertEquals(first, gson.toJson(playMatch(type, new ArrayTurnRunner(), 7L)));
+		}
+
+	}
+
+	@Test
+	void testArrayRunnerEveryTurn() {
+
+		for (MatchType type : MatchType.values()) {
+			for (long seed = 0L; seed < 5L; seed++) {
+
+				TurnRunner defaultRunner = new DefaultTurnRunner();
+				TurnRunner arrayRunner = new ArrayTurnRunner();
+				MatchRandom defaultRandom = new MatchRandom(seed);
+				MatchRandom arrayRandom = new MatchRandom(seed);
+				Random actionRandom = new Random(seed);
+
+				FieldState field = new FieldGenerator(type, defaultRandom).get();
+				new FieldGenerator(type, arrayRandom).get();
+				while (field.getTurnNumber() < Field.TOTAL_TURNS) {
+
+					// like a match, the runners see invalid actions, missing
+					// actions and players in a shuffled order
+					List<PlayerState> players = new ArrayList<>(field.getPlayerStates());
+					Collections.shuffle(players, actionRandom);
+					Map<Character, Action> actions = new LinkedHashMap<>();
+					for (PlayerState player : players) {
+						int index = actionRandom.nextInt(ALL_ACTIONS.length + 1);
+						actions.put(player.getSymbol(), index == ALL_ACTIONS.length ? null : ALL_ACTIONS[index]);
+					}
+
+					FieldState expected = defaultRunner.runTurn(field, actions, defaultRandom);
+					FieldState actual = arrayRunner.runTurn(field, actions, arrayRandom);
+					String message = type + " seed " + seed + " turn " + field.getTurnNumber();
+					Assertions.assertEquals(gson.toJson(expected), gson.toJson(actual), message);
+					Assertions.assertEquals(defaultRandom.getState(), arrayRandom.getState(), message);
+					field = expected;
+
+				}
+
+			}
+		}
+
+	}
+
+	private static FieldState playMatch(MatchType type, TurnRunner runner, long seed) {
+
+		MatchRandom random = new MatchRandom(seed);
+		// the actions come from their own stream, like controllers would
+		Random actionRandom = new Random(seed);
+
+		FieldState field = new FieldGenerator(type, random).get();
+		while (field.getTurnNumber() < Field.TOTAL_TURNS) {
+			Map<Character, Action> actions = new HashMap<>();
+			for (PlayerState player : field.getPlayerStates()) {
+				Action action = ALL_ACTIONS[actionRandom.nextInt(ALL_ACTIONS.length)];
+				if (PlayerUtils.isValidAction(field, player, action))
+					actions.put(player.getSymbol(), action);
+			}
+			field = runner.runTurn(field, actions, random);
+		}
+		return field;
+
+	}
+
+	private static final Action[] ALL_ACTIONS = Action.values();
+
+	private static final Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapter(ScoreState.class, ScoreState.Serializer.INSTANCE)
+			.registerTypeAdapter(InventoryState.class, InventoryState.Serializer.INSTANCE)
+			.registerTypeAdapter(Vector.class, Vector.Serializer.INSTANCE)
+			.registerTypeAdapter(Direction.class, Direction.Serializer.INSTANCE).create();
+
+}
@@ -0,0 +1,35 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.match.RandomMatches;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FrameGeneratorTest {
+
+	@Test
+	void testIncrementalFrames() {
+
+		List<FieldState> states = RandomMatches.newMatch(MatchType.TEAM, 5L).build().run().getFieldStates();
+
+		FrameGenerator generator = new FrameGenerator(states.get(0), RandomMatches::getName);
+		Function<FieldState, BufferedImage> incremental = generator.incremental(2);
+		for (FieldState state : states.subList(0, NUM_FRAMES))
+			Assertions.assertArrayEquals(getData(generator.apply(state)), getData(incremental.apply(state)),
+					"Turn " + state.getTurnNumber());
+
+	}
+
+	private static byte[] getData(BufferedImage image) {
+		return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+	}
+
+	private static final int NUM_FRAMES = 300;
+
+}
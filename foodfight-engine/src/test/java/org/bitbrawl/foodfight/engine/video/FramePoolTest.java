@@ -0,0 +1,44 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.match.FieldGenerator;
+import org.bitbrawl.foodfight.engine.match.MatchRandom;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class FramePoolTest {
+
+	@Test
+	void testReusedFrames() {
+
+		FieldState state = newState();
+		FramePool pool = new FramePool(1);
+		FrameGenerator pooled = new FrameGenerator(state, c -> "player-" + c, pool);
+
+		BufferedImage first = pooled.apply(state);
+		byte[] expected = getData(first).clone();
+		getData(first)[0] ^= 0xFF;
+		pool.release(first);
+
+		BufferedImage second = pooled.apply(state);
+		Assertions.assertSame(first, second);
+		Assertions.assertArrayEquals(expected, getData(second));
+		Assertions.assertEquals(1L, pool.getHits());
+		Assertions.assertEquals(1L, pool.getMisses());
+		Assertions.assertEquals(0.5, pool.getHitRate());
+
+	}
+
+	private static FieldState newState() {
+		return new FieldGenerator(MatchType.DUEL, new MatchRandom(9L)).get();
+	}
+
+	private static byte[] getData(BufferedImage image) {
+		return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+	}
+
+}
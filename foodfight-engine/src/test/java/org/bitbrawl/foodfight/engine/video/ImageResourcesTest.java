@@ -0,0 +1,86 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.match.FieldGenerator;
+import org.bitbrawl.foodfight.engine.match.MatchRandom;
+import org.bitbrawl.foodfight.field.Food;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+class ImageResourcesTest {
+
+	@Test
+	void testGettersDoNotCopy() {
+
+		ImageResources resources = ImageResources.INSTANCE;
+		// loads the images before measuring
+		visitAll(resources);
+
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		Assumptions.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported());
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) threadBean;
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		long threadId = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(threadId);
+		long imageBytes = 0L;
+		for (int i = 0; i < 100; i++)
+			imageBytes = visitAll(resources);
+		long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+		// a single copy of the images would allocate far more than this
+		Assertions.assertTrue(allocated < imageBytes, "Allocated " + allocated + " bytes");
+
+	}
+
+	@Test
+	void testUntouchedByGenerators() {
+
+		ImageResources resources = ImageResources.INSTANCE;
+		byte[] table = getData(resources.getTable()).clone();
+		byte[][] players = new byte[ImageResources.NUM_PLAYER_IMAGES][];
+		byte[][] profiles = new byte[ImageResources.NUM_PLAYER_IMAGES][];
+		for (int i = 0; i < ImageResources.NUM_PLAYER_IMAGES; i++) {
+			players[i] = getData(resources.getPlayer(i)).clone();
+			profiles[i] = getData(resources.getProfile(i)).clone();
+		}
+
+		FieldState state = new FieldGenerator(MatchType.TEAM, new MatchRandom(4L)).get();
+		new FrameGenerator(state, c -> "player-" + c).apply(state);
+		new FrameGenerator(state, c -> "player-" + c).apply(state);
+
+		Assertions.assertArrayEquals(table, getData(resources.getTable()));
+		for (int i = 0; i < ImageResources.NUM_PLAYER_IMAGES; i++) {
+			Assertions.assertArrayEquals(players[i], getData(resources.getPlayer(i)));
+			Assertions.assertArrayEquals(profiles[i], getData(resources.getProfile(i)));
+		}
+
+	}
+
+	private static long visitAll(ImageResources resources) {
+		long result = getSize(resources.getTable()) + getSize(resources.getCollision());
+		for (Food.Type type : Food.Type.values())
+			result += getSize(resources.getFood(type));
+		for (int i = 0; i < ImageResources.NUM_PLAYER_IMAGES; i++)
+			result += getSize(resources.getPlayer(i)) + getSize(resources.getColor(i))
+					+ getSize(resources.getProfile(i)) + getSize(resources.getColorProfile(i));
+		return result;
+	}
+
+	private static long getSize(BufferedImage image) {
+		return getData(image).length;
+	}
+
+	private static byte[] getData(BufferedImage image) {
+		return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+	}
+
+}
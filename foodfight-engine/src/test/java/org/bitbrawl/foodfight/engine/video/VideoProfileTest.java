@@ -0,0 +1,78 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.match.RandomMatches;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class VideoProfileTest {
+
+	private static List<FieldState> states;
+
+	@BeforeAll
+	static void setUp() {
+		states = RandomMatches.newMatch(MatchType.TEAM, 11L).build().run().getFieldStates();
+	}
+
+	@Test
+	void testFull() {
+		Assertions.assertEquals(states, select(VideoProfile.FULL));
+	}
+
+	@Test
+	void testEveryNthTurn() {
+
+		List<FieldState> selected = select(new VideoProfile(VideoProfile.Mode.EVERY_NTH_TURN, SPEED_UP));
+
+		Assertions.assertEquals(states.get(0), selected.get(0));
+		Assertions.assertEquals(states.get(states.size() - 1), selected.get(selected.size() - 1));
+		Assertions.assertEquals((states.size() - 2) / SPEED_UP + 2, selected.size());
+		assertInOrder(selected, SPEED_UP);
+
+	}
+
+	@Test
+	void testHighlights() {
+
+		List<FieldState> selected = select(new VideoProfile(VideoProfile.Mode.HIGHLIGHTS, SPEED_UP));
+
+		Assertions.assertEquals(states.get(0), selected.get(0));
+		Assertions.assertEquals(states.get(states.size() - 1), selected.get(selected.size() - 1));
+		Assertions.assertTrue(selected.size() < states.size());
+		assertInOrder(selected, SPEED_UP);
+
+		int numInteresting = 0;
+		for (int i = 1; i < states.size(); i++) {
+			if (VideoProfile.isInteresting(states.get(i - 1), states.get(i))) {
+				numInteresting++;
+				Assertions.assertTrue(selected.contains(states.get(i)), "Turn " + states.get(i).getTurnNumber());
+			}
+		}
+		Assertions.assertTrue(numInteresting > 0);
+
+	}
+
+	private static List<FieldState> select(VideoProfile profile) {
+		VideoProfile.Selector selector = profile.newSelector();
+		List<FieldState> result = new ArrayList<>();
+		for (FieldState state : states)
+			result.addAll(selector.select(state));
+		result.addAll(selector.finish());
+		return result;
+	}
+
+	private static void assertInOrder(List<FieldState> selected, int maxGap) {
+		for (int i = 1; i < selected.size(); i++) {
+			int gap = selected.get(i).getTurnNumber() - selected.get(i - 1).getTurnNumber();
+			Assertions.assertTrue(gap > 0 && gap <= maxGap, "Turn " + selected.get(i).getTurnNumber());
+		}
+	}
+
+	private static final int SPEED_UP = 4;
+
+}
@@ -0,0 +1,86 @@
+package org.bitbrawl.foodfight.engine.video;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.match.RandomMatches;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.humble.video.MediaPicture;
+import io.humble.video.PixelFormat;
+import io.humble.video.awt.MediaPictureConverter;
+import io.humble.video.awt.MediaPictureConverterFactory;
+
+/*
+ * Measures converting real frames of a team match to the pictures the encoder
+ * takes, with YuvConverter and with the generic converter ImageEncoder used
+ * before it. Run with main().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YuvConverterBenchmark {
+
+	private final List<BufferedImage> frames = new ArrayList<>();
+	private MediaPicture picture;
+	private YuvConverter direct;
+	private MediaPictureConverter generic;
+	private int frameNumber;
+
+	@Setup
+	public void setUp() {
+
+		List<FieldState> states = RandomMatches.newMatch(MatchType.TEAM, 7L).build().run().getFieldStates();
+
+		FrameGenerator generator = new FrameGenerator(states.get(0), RandomMatches::getName);
+		for (int i = 0; i < states.size(); i += states.size() / NUM_FRAMES)
+			frames.add(generator.apply(states.get(i)));
+
+		picture = MediaPicture.make(FrameGenerator.FRAME_WIDTH, FrameGenerator.FRAME_HEIGHT,
+				PixelFormat.Type.PIX_FMT_YUV420P);
+		direct = new YuvConverter(picture);
+		generic = MediaPictureConverterFactory.createConverter(frames.get(0), picture);
+
+	}
+
+	@Benchmark
+	public MediaPicture convertDirect() {
+		direct.toPicture(picture, nextFrame(), frameNumber);
+		return picture;
+	}
+
+	@Benchmark
+	public MediaPicture convertGeneric() {
+		return generic.toPicture(picture, nextFrame(), frameNumber);
+	}
+
+	private BufferedImage nextFrame() {
+		return frames.get(frameNumber++ % frames.size());
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(YuvConverterBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	private static final int NUM_FRAMES = 10;
+
+}
@@ -1,22 +1,25 @@
 package org.bitbrawl.foodfight.runner;
 
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.bitbrawl.foodfight.controller.Clock;
 
-public final class ControllerClock implements Clock {
+import net.jcip.annotations.ThreadSafe;
 
-	private volatile long timeLeft;
-	private volatile long startTime;
+@ThreadSafe
+public final class ControllerClock implements Clock {
 
-	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	/*
+	 * The lowest bit of the state says whether the clock is running. The rest
+	 * holds the time left while the clock is stopped, or the deadline
+	 * (relative to origin) while it is running, so a poll is a single read.
+	 */
+	private final AtomicLong state;
+	private final long origin = System.nanoTime();
 
 	public ControllerClock(long limit, TimeUnit unit) {
-		timeLeft = unit.toNanos(limit);
-		startTime = -1;
+		state = new AtomicLong(stopped(unit.toNanos(limit)));
 	}
 
 	@Override
@@ -30,42 +33,50 @@ public final class ControllerClock implements Clock {
 	}
 
 	void start() {
-		Lock writeLock = lock.writeLock();
-		writeLock.lock();
-		try {
-			assert startTime < 0;
-			assert timeLeft > 0;
-			startTime = System.nanoTime();
-		} finally {
-			writeLock.unlock();
-		}
+		long current = state.get();
+		assert !isRunning(current);
+		assert value(current) > 0;
+		long deadline = elapsed() + value(current);
+		boolean started = state.compareAndSet(current, running(deadline));
+		assert started;
 	}
 
 	void end() {
-		Lock writeLock = lock.writeLock();
-		writeLock.lock();
-		try {
-			if (startTime < 0)
+		while (true) {
+			long current = state.get();
+			if (!isRunning(current))
+				return;
+			long timeLeft = value(current) - elapsed();
+			if (state.compareAndSet(current, stopped(timeLeft)))
 				return;
-			long timeSpentThisTurn = System.nanoTime() - startTime;
-			timeLeft -= timeSpentThisTurn;
-			startTime = -1;
-		} finally {
-			writeLock.unlock();
 		}
 	}
 
 	private long getTimeLeftNanos() {
-		Lock readLock = lock.readLock();
-		readLock.lock();
-		try {
-			if (startTime < 0)
-				return timeLeft;
-			long timeSpentThisTurn = System.nanoTime() - startTime;
-			return timeLeft - timeSpentThisTurn;
-		} finally {
-			readLock.unlock();
-		}
+		long current = state.get();
+		if (!isRunning(current))
+			return value(current);
+		return value(current) - elapsed();
+	}
+
+	private long elapsed() {
+		return System.nanoTime() - origin;
+	}
+
+	private static boolean isRunning(long state) {
+		return (state & 1L) != 0;
+	}
+
+	private static long value(long state) {
+		return state >> 1;
+	}
+
+	private static long running(long deadline) {
+		return deadline << 1 | 1L;
+	}
+
+	private static long stopped(long timeLeft) {
+		return timeLeft << 1;
 	}
 
 }
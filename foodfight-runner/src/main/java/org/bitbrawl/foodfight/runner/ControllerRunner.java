@@ -1,14 +1,13 @@
 package org.bitbrawl.foodfight.runner;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
-import java.io.Writer;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -22,81 +21,196 @@ import org.bitbrawl.foodfight.controller.Controller;
 import org.bitbrawl.foodfight.controller.ControllerException;
 import org.bitbrawl.foodfight.controller.JavaController;
 import org.bitbrawl.foodfight.engine.field.DynamicField;
-import org.bitbrawl.foodfight.engine.field.FieldState;
-import org.bitbrawl.foodfight.engine.field.InventoryState;
-import org.bitbrawl.foodfight.engine.field.ScoreState;
-import org.bitbrawl.foodfight.engine.field.TableState;
-import org.bitbrawl.foodfight.engine.field.TeamState;
+import org.bitbrawl.foodfight.engine.ipc.DesyncException;
+import org.bitbrawl.foodfight.engine.ipc.MessageReader;
+import org.bitbrawl.foodfight.engine.ipc.MessageType;
+import org.bitbrawl.foodfight.engine.ipc.MessageWriter;
+import org.bitbrawl.foodfight.engine.ipc.TurnMessage;
+import org.bitbrawl.foodfight.engine.ipc.WireFormat;
+import org.bitbrawl.foodfight.engine.logging.ControllerLogger;
 import org.bitbrawl.foodfight.engine.logging.EngineLogger;
 import org.bitbrawl.foodfight.field.Field;
 import org.bitbrawl.foodfight.field.Player;
 import org.bitbrawl.foodfight.field.Team;
-import org.bitbrawl.foodfight.util.Direction;
-import org.bitbrawl.foodfight.util.Vector;
-
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.stream.JsonReader;
 
 public final class ControllerRunner implements AutoCloseable {
 
-	private final Gson gson = new GsonBuilder().registerTypeAdapter(FieldState.class, FieldState.Deserializer.INSTANCE)
-			.registerTypeAdapter(TeamState.class, TeamState.Deserializer.INSTANCE)
-			.registerTypeAdapter(TableState.class, TableState.Deserializer.INSTANCE)
-			.registerTypeAdapter(ScoreState.class, ScoreState.Deserializer.INSTANCE)
-			.registerTypeAdapter(InventoryState.class, InventoryState.Deserializer.INSTANCE)
-			.registerTypeAdapter(Vector.class, Vector.Deserializer.INSTANCE)
-			.registerTypeAdapter(Direction.class, Direction.Deserializer.INSTANCE).create();
-	private final Reader inReader = new InputStreamReader(System.in);
-	private final Reader reader = new BufferedReader(inReader);
-	private final JsonReader jsonReader = new JsonReader(reader);
-	private final Writer outWriter = new OutputStreamWriter(System.out);
-	private final Writer writer = new BufferedWriter(outWriter);
+	private final InputStream in;
+	private final OutputStream out;
+	private MessageReader reader;
+	private MessageWriter writer;
 	private final ExecutorService executor = Executors.newSingleThreadExecutor();
-	private final ControllerLoader loader;
-	private final Controller controller;
+	private final PrintStream hostErr = System.err;
+	private final Path jar;
+	private final String mainClass;
+	private ControllerLoader loader;
+	private Class<? extends JavaController> controllerClass;
+	private boolean loaderUsed;
+	private ControllerWrapper wrapper;
+	private Controller controller;
 	private DynamicField field;
+	private PrintStream matchErr;
+
+	public ControllerRunner(Path jar, String mainClass) throws IOException, ClassNotFoundException {
+		this(jar, mainClass, System.in, System.out);
+	}
 
-	public ControllerRunner(Path jar, String mainClass)
-			throws IOException, ClassNotFoundException, ControllerException, InterruptedException {
+	ControllerRunner(Path jar, String mainClass, InputStream in, OutputStream out)
+			throws IOException, ClassNotFoundException {
+
+		this.in = in;
+		this.out = out;
+		this.jar = jar;
+		this.mainClass = mainClass;
+		reader = WireFormat.JSON.newReader(in);
+		writer = WireFormat.JSON.newWriter(out);
+		load();
+
+	}
 
-		Class<? extends JavaController> controllerClass;
+	private void load() throws IOException, ClassNotFoundException {
 		loader = new ControllerLoader(jar);
 		controllerClass = loader.loadClass(mainClass).asSubclass(JavaController.class);
-		controller = new ControllerWrapper(controllerClass);
+		loaderUsed = false;
+	}
+
+	public void negotiate() throws IOException, InterruptedException, TimeoutException {
+
+		String request = readWithTimeout(reader::readText);
+		if (!request.equals("format"))
+			throw new IOException("Expected wire format request, but was: " + request);
+		String formatName = readWithTimeout(reader::readText);
 
+		WireFormat format;
+		try {
+			format = WireFormat.valueOf(formatName);
+		} catch (IllegalArgumentException e) {
+			format = WireFormat.JSON;
+		}
+		writer.writeText(format.name());
+		writer.flush();
+
+		if (format != WireFormat.JSON) {
+			reader = format.newReader(in);
+			writer = format.newWriter(out);
+		}
+
+	}
+
+	public void startMatch() throws IOException, ClassNotFoundException, ControllerException, InterruptedException {
+		// every match loads the controller afresh, so that nothing a match
+		// leaves in static fields carries over to the next
+		if (loaderUsed) {
+			ControllerLoader used = loader;
+			loader = null;
+			used.close();
+			load();
+		}
+		loaderUsed = true;
+		wrapper = new ControllerWrapper(controllerClass);
+		controller = wrapper;
+		field = null;
+	}
+
+	public void serve() throws IOException, InterruptedException, TimeoutException {
+
+		while (true) {
+
+			MessageType type = reader.peek();
+			if (type == MessageType.END)
+				return;
+			if (type != MessageType.TEXT) {
+				runTurn();
+				continue;
+			}
+
+			String command = reader.readText();
+			switch (command) {
+			case "match":
+				endMatch();
+				matchErr = new PrintStream(new FileOutputStream(reader.readText(), true), true);
+				System.setErr(matchErr);
+				try {
+					startMatch();
+				} catch (IOException | ClassNotFoundException | ControllerException e) {
+					new ControllerLogger(() -> 0).log(Level.SEVERE, "Problem with controller", e);
+					controller = (f, t, p) -> null;
+				}
+				reply("ready");
+				break;
+			case "end":
+				endMatch();
+				break;
+			case "ping":
+				reply("pong");
+				break;
+			case "exit":
+				return;
+			default:
+				throw new IOException("Unknown command from game engine: " + command);
+			}
+
+		}
+
+	}
+
+	private void endMatch() {
+		if (wrapper != null) {
+			long calls = wrapper.getTimedCalls();
+			if (calls > 0)
+				logger.info(String.format("Timed execution overhead: %.1f us per call over %d calls, %d pools replaced",
+						wrapper.getOverhead(TimeUnit.NANOSECONDS) / 1e3 / calls, calls, wrapper.getPoolsReplaced()));
+			wrapper.close();
+			wrapper = null;
+		}
+		controller = null;
+		field = null;
+		if (matchErr == null)
+			return;
+		System.setErr(hostErr);
+		matchErr.close();
+		matchErr = null;
+	}
+
+	private void reply(String message) throws IOException {
+		writer.writeText(message);
+		writer.flush();
 	}
 
 	public void runTurn() throws IOException, InterruptedException, TimeoutException {
 
-		FieldState input = readJson(FieldState.class);
-		char teamSymbol = readJson(char.class);
-		char playerSymbol = readJson(char.class);
+		TurnMessage input;
+		try {
+			input = readWithTimeout(reader::readTurn);
+		} catch (DesyncException e) {
+			logger.log(Level.WARNING, "Requesting a full field update", e);
+			reply("resync");
+			input = readWithTimeout(reader::readTurn);
+		}
 
 		if (field == null)
-			field = new DynamicField(input);
+			field = new DynamicField(input.getField());
 		else
-			field.update(input);
-		Team team = field.getTeam(teamSymbol);
-		Player player = field.getPlayer(playerSymbol);
-		Controller.Action action = controller.playAction(field, team, player);
-		gson.toJson(action, writer);
-		writer.write(" ");
+			field.update(input.getField());
+		Team team = field.getTeam(input.getTeamSymbol());
+		Player player = field.getPlayer(input.getPlayerSymbol());
+		Controller.Action action = controller == null ? null : controller.playAction(field, team, player);
+		writer.writeAction(action);
 		writer.flush();
 
 	}
 
-	private <T> T readJson(Class<T> classOfT) throws InterruptedException, TimeoutException {
+	private <T> T readWithTimeout(Callable<T> read) throws IOException, InterruptedException, TimeoutException {
 		try {
-			@SuppressWarnings("unchecked")
-			T result = (T) executor.submit(() -> gson.fromJson(jsonReader, classOfT)).get(5L, TimeUnit.MINUTES);
-			return result;
+			return executor.submit(read).get(5L, TimeUnit.MINUTES);
 		} catch (ExecutionException e) {
 			Throwable cause = e.getCause();
 			if (cause instanceof Error)
 				throw (Error) cause;
 			else if (cause instanceof RuntimeException)
 				throw (RuntimeException) cause;
+			else if (cause instanceof IOException)
+				throw (IOException) cause;
 			throw new AssertionError(cause);
 		}
 	}
@@ -104,36 +218,25 @@ public final class ControllerRunner implements AutoCloseable {
 	@Override
 	public void close() throws IOException {
 		try {
-			loader.close();
+			endMatch();
+			if (loader != null)
+				loader.close();
 		} finally {
 			try {
 				executor.shutdown();
 			} finally {
 				try {
-					try {
-						writer.close();
-					} finally {
-						outWriter.close();
-					}
+					writer.close();
 				} finally {
-					try {
-						jsonReader.close();
-					} finally {
-						try {
-							reader.close();
-						} finally {
-							inReader.close();
-						}
-					}
+					reader.close();
 				}
 			}
 		}
 	}
 
 	public static void main(String[] args) {
-		if (args.length != 2)
+		if (args.length != 2 && (args.length != 3 || !args[2].equals("persistent")))
 			return;
-		Logger logger = EngineLogger.INSTANCE;
 		Thread.setDefaultUncaughtExceptionHandler((t, e) -> {
 			logger.log(Level.SEVERE, "Problem running controller runner", e);
 		});
@@ -141,6 +244,12 @@ public final class ControllerRunner implements AutoCloseable {
 		Path jar = Paths.get(args[0]);
 		String mainClass = args[1];
 		try (ControllerRunner runner = new ControllerRunner(jar, mainClass)) {
+			runner.negotiate();
+			if (args.length == 3) {
+				runner.serve();
+				return;
+			}
+			runner.startMatch();
 			for (int i = 0, n = Field.TOTAL_TURNS; i < n; i++)
 				runner.runTurn();
 		} catch (IOException e) {
@@ -157,4 +266,6 @@ public final class ControllerRunner implements AutoCloseable {
 
 	}
 
+	private static final Logger logger = EngineLogger.INSTANCE;
+
 }
@@ -3,6 +3,7 @@ package org.bitbrawl.foodfight.runner;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -21,21 +22,25 @@ import org.bitbrawl.foodfight.field.Team;
 import net.jcip.annotations.NotThreadSafe;
 
 @NotThreadSafe
-public final class ControllerWrapper implements Controller {
+public final class ControllerWrapper implements Controller, AutoCloseable {
 
+	private final ControllerClock clock = new ControllerClock(Clock.TIME_LIMIT_NANOS, TimeUnit.NANOSECONDS);
 	private final JavaController wrapped;
+	private ForkJoinPool pool = newPool();
 	private volatile int turnNumber;
+	private volatile long timedCalls;
+	private volatile long overheadNanos;
+	private volatile int poolsReplaced;
 
 	public ControllerWrapper(Class<? extends JavaController> clazz) throws InterruptedException, ControllerException {
 
-		ControllerClock clock = new ControllerClock(Clock.TIME_LIMIT_NANOS, TimeUnit.NANOSECONDS);
 		Logger logger = new ControllerLogger(() -> turnNumber);
 
 		wrapped = runTimed(() -> {
 			@SuppressWarnings("deprecation")
 			JavaController result = JavaController.newInstance(clazz, logger, clock);
 			return result;
-		}, clock);
+		});
 
 	}
 
@@ -45,7 +50,7 @@ public final class ControllerWrapper implements Controller {
 		turnNumber = field.getTurnNumber();
 
 		try {
-			return runTimed(() -> wrapped.playAction(field, team, player), (ControllerClock) wrapped.getClock());
+			return runTimed(() -> wrapped.playAction(field, team, player));
 		} catch (InterruptedException e) {
 			wrapped.getLogger().log(Level.SEVERE, "Running thread interrupted", e);
 			return null;
@@ -56,40 +61,52 @@ public final class ControllerWrapper implements Controller {
 
 	}
 
-	private static <T> T runTimed(Callable<T> body, ControllerClock clock)
-			throws InterruptedException, ControllerException {
+	public long getTimedCalls() {
+		return timedCalls;
+	}
 
-		int parallelism = Runtime.getRuntime().availableProcessors();
-		ForkJoinWorkerThreadFactory factory = ForkJoinPool.defaultForkJoinWorkerThreadFactory;
-		ForkJoinPool pool = new ForkJoinPool(parallelism, factory, null, true);
+	public long getOverhead(TimeUnit unit) {
+		return unit.convert(overheadNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public int getPoolsReplaced() {
+		return poolsReplaced;
+	}
+
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	private <T> T runTimed(Callable<T> body) throws InterruptedException, ControllerException {
 
+		long startTime = System.nanoTime();
+		long clockBefore = clock.getTimeLeft(TimeUnit.NANOSECONDS);
 		long timeLeftSeconds = clock.getTimeLeft(TimeUnit.SECONDS);
+		boolean isQuiescent = false;
 
 		try {
 
+			// the clock keeps running until the controller's own tasks have
+			// finished, which is when the pool becomes quiescent again
 			T result = pool.submit(() -> {
-				assert pool.getActiveThreadCount() == 1;
 				clock.start();
-
-				T t = body.call();
-
-				if (pool.getActiveThreadCount() == 1)
+				try {
+					return body.call();
+				} finally {
+					ForkJoinTask.helpQuiesce();
 					clock.end();
-				return t;
-
+				}
 			}).get(timeLeftSeconds + 2L, TimeUnit.SECONDS);
+			isQuiescent = true;
 
-			timeLeftSeconds = clock.getTimeLeft(TimeUnit.SECONDS);
-			pool.shutdownNow();
-			if (!pool.awaitTermination(timeLeftSeconds + 2L, TimeUnit.SECONDS))
-				throw new TimeoutException("Took too long for the pool to shut down");
-			clock.end();
 			if (clock.getTimeLeft(TimeUnit.NANOSECONDS) < 0)
 				throw new TimeoutException("Ran out of time");
 
 			return result;
 
 		} catch (ExecutionException e) {
+			isQuiescent = true;
 			Throwable cause = e.getCause();
 			if (cause instanceof ControllerException)
 				throw (ControllerException) cause;
@@ -98,8 +115,26 @@ public final class ControllerWrapper implements Controller {
 			throw new ControllerException("Ran out of time", e);
 		} finally {
 			clock.end();
+			if (!isQuiescent)
+				replacePool();
+			long elapsed = System.nanoTime() - startTime;
+			long charged = clockBefore - clock.getTimeLeft(TimeUnit.NANOSECONDS);
+			overheadNanos += Math.max(elapsed - charged, 0L);
+			timedCalls++;
 		}
 
 	}
 
+	private void replacePool() {
+		pool.shutdownNow();
+		pool = newPool();
+		poolsReplaced++;
+	}
+
+	private static ForkJoinPool newPool() {
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		ForkJoinWorkerThreadFactory factory = ForkJoinPool.defaultForkJoinWorkerThreadFactory;
+		return new ForkJoinPool(parallelism, factory, null, true);
+	}
+
 }
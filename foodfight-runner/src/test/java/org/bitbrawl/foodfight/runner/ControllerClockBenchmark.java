@@ -0,0 +1,123 @@
+package org.bitbrawl.foodfight.runner;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Measures Clock.getTimeLeft polls from several threads at once, the way a
+ * controller's ForkJoin workers poll it during a turn. Run with main().
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControllerClockBenchmark {
+
+	private ControllerClock clock;
+	private LockingClock lockingClock;
+
+	@Setup
+	public void setUp() {
+		clock = new ControllerClock(1L, TimeUnit.HOURS);
+		clock.start();
+		lockingClock = new LockingClock(1L, TimeUnit.HOURS);
+		lockingClock.start();
+	}
+
+	@TearDown
+	public void tearDown() {
+		clock.end();
+		lockingClock.end();
+	}
+
+	@Benchmark
+	@Group("lockFree")
+	@GroupThreads(4)
+	public long pollLockFree() {
+		return clock.getTimeLeft(TimeUnit.NANOSECONDS);
+	}
+
+	@Benchmark
+	@Group("locking")
+	@GroupThreads(4)
+	public long pollLocking() {
+		return lockingClock.getTimeLeft(TimeUnit.NANOSECONDS);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ControllerClockBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	// the previous ControllerClock, kept as the baseline
+	private static final class LockingClock {
+
+		private volatile long timeLeft;
+		private volatile long startTime;
+
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+		LockingClock(long limit, TimeUnit unit) {
+			timeLeft = unit.toNanos(limit);
+			startTime = -1;
+		}
+
+		long getTimeLeft(TimeUnit unit) {
+			Lock readLock = lock.readLock();
+			readLock.lock();
+			try {
+				if (startTime < 0)
+					return unit.convert(timeLeft, TimeUnit.NANOSECONDS);
+				long timeSpentThisTurn = System.nanoTime() - startTime;
+				return unit.convert(timeLeft - timeSpentThisTurn, TimeUnit.NANOSECONDS);
+			} finally {
+				readLock.unlock();
+			}
+		}
+
+		void start() {
+			Lock writeLock = lock.writeLock();
+			writeLock.lock();
+			try {
+				startTime = System.nanoTime();
+			} finally {
+				writeLock.unlock();
+			}
+		}
+
+		void end() {
+			Lock writeLock = lock.writeLock();
+			writeLock.lock();
+			try {
+				if (startTime < 0)
+					return;
+				timeLeft -= System.nanoTime() - startTime;
+				startTime = -1;
+			} finally {
+				writeLock.unlock();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.bitbrawl.foodfight.runner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ControllerClockTest {
+
+	@Test
+	void testStoppedClockDoesNotRun() throws InterruptedException {
+
+		ControllerClock clock = new ControllerClock(2L, TimeUnit.SECONDS);
+		Thread.sleep(20L);
+
+		Assertions.assertEquals(TimeUnit.SECONDS.toNanos(2L), clock.getTimeLeft(TimeUnit.NANOSECONDS));
+
+	}
+
+	@Test
+	void testRunningClockCountsDown() throws InterruptedException {
+
+		ControllerClock clock = new ControllerClock(2L, TimeUnit.SECONDS);
+		clock.start();
+		Thread.sleep(20L);
+		long whileRunning = clock.getTimeLeft(TimeUnit.NANOSECONDS);
+		clock.end();
+		long afterEnd = clock.getTimeLeft(TimeUnit.NANOSECONDS);
+		Thread.sleep(20L);
+
+		Assertions.assertTrue(whileRunning <= TimeUnit.MILLISECONDS.toNanos(1980L));
+		Assertions.assertTrue(afterEnd <= whileRunning);
+		Assertions.assertEquals(afterEnd, clock.getTimeLeft(TimeUnit.NANOSECONDS));
+
+	}
+
+	@Test
+	void testEndIsIdempotent() {
+
+		ControllerClock clock = new ControllerClock(2L, TimeUnit.SECONDS);
+		clock.start();
+		clock.end();
+		long timeLeft = clock.getTimeLeft(TimeUnit.NANOSECONDS);
+		clock.end();
+
+		Assertions.assertEquals(timeLeft, clock.getTimeLeft(TimeUnit.NANOSECONDS));
+
+	}
+
+	@Test
+	void testTimeLeftCanBeNegative() throws InterruptedException {
+
+		ControllerClock clock = new ControllerClock(1L, TimeUnit.MILLISECONDS);
+		clock.start();
+		Thread.sleep(10L);
+		clock.end();
+
+		Assertions.assertTrue(clock.getTimeLeft(TimeUnit.NANOSECONDS) < 0L);
+
+	}
+
+}
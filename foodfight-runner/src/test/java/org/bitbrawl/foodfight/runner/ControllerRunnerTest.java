@@ -0,0 +1,148 @@
+package org.bitbrawl.foodfight.runner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeoutException;
+
+import org.bitbrawl.foodfight.controller.ControllerException;
+import org.bitbrawl.foodfight.controller.JavaController;
+import org.bitbrawl.foodfight.engine.field.FieldState;
+import org.bitbrawl.foodfight.engine.ipc.MessageReader;
+import org.bitbrawl.foodfight.engine.ipc.MessageType;
+import org.bitbrawl.foodfight.engine.ipc.MessageWriter;
+import org.bitbrawl.foodfight.engine.ipc.WireFormat;
+import org.bitbrawl.foodfight.engine.match.ArrayTurnRunner;
+import org.bitbrawl.foodfight.engine.match.FieldGenerator;
+import org.bitbrawl.foodfight.engine.match.MatchRandom;
+import org.bitbrawl.foodfight.field.Field;
+import org.bitbrawl.foodfight.field.MatchType;
+import org.bitbrawl.foodfight.field.Player;
+import org.bitbrawl.foodfight.field.Team;
+import org.bitbrawl.foodfighter.CountingController;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ControllerRunnerTest {
+
+	@Test
+	void testResync()
+			throws IOException, ClassNotFoundException, ControllerException, InterruptedException, TimeoutException {
+
+		MatchRandom random = new MatchRandom(19L);
+		FieldState first = new FieldGenerator(MatchType.DUEL, random).get();
+		FieldState second = new ArrayTurnRunner().runTurn(first, Collections.emptyMap(), random);
+		char player = first.getPlayers().iterator().next().getSymbol();
+		char team = first.getTeam(first.getPlayer(player)).getSymbol();
+
+		ByteArrayOutputStream negotiation = new ByteArrayOutputStream();
+		try (MessageWriter writer = WireFormat.JSON.newWriter(negotiation)) {
+			writer.writeText("format");
+			writer.writeText(WireFormat.DELTA.name());
+		}
+
+		ByteArrayOutputStream turns = new ByteArrayOutputStream();
+		MessageWriter writer = WireFormat.DELTA.newWriter(turns);
+		writer.writeTurn(first, team, player);
+		writer.writeTurn(second, team, player);
+		writer.resync();
+		writer.writeTurn(second, team, player);
+		writer.close();
+		// the second frame is a delta whose checksum no longer matches
+		byte[] corrupted = turns.toByteArray();
+		int checksumEnd = getFrameEnd(corrupted, 1) - 2 * Character.BYTES;
+		corrupted[checksumEnd - 1] ^= 1;
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ControllerRunner runner = new ControllerRunner(Paths.get("controller.jar"), Still.class.getName(),
+				new SequenceInputStream(new ByteArrayInputStream(negotiation.toByteArray()),
+						new ByteArrayInputStream(corrupted)),
+				out)) {
+			runner.negotiate();
+			runner.startMatch();
+			runner.runTurn();
+			runner.runTurn();
+		}
+
+		byte[] written = out.toByteArray();
+		byte[] reply = "\"DELTA\"".getBytes(StandardCharsets.UTF_8);
+		Assertions.assertArrayEquals(reply, Arrays.copyOf(written, reply.length));
+		try (MessageReader reader = WireFormat.DELTA.newReader(
+				new ByteArrayInputStream(written, reply.length, written.length - reply.length))) {
+			Assertions.assertEquals(JavaController.Action.EAT_LEFT, reader.readAction());
+			Assertions.assertEquals("resync", reader.readText());
+			Assertions.assertEquals(JavaController.Action.EAT_LEFT, reader.readAction());
+			Assertions.assertEquals(MessageType.END, reader.peek());
+		}
+
+	}
+
+	@Test
+	void testFreshClassPerMatch() throws IOException, ClassNotFoundException, InterruptedException, TimeoutException {
+
+		FieldState field = new FieldGenerator(MatchType.DUEL, new MatchRandom(19L)).get();
+		char player = field.getPlayers().iterator().next().getSymbol();
+		char team = field.getTeam(field.getPlayer(player)).getSymbol();
+
+		Path log = Files.createTempFile("controller-runner", ".log");
+		try {
+			ByteArrayOutputStream commands = new ByteArrayOutputStream();
+			try (MessageWriter writer = WireFormat.JSON.newWriter(commands)) {
+				writer.writeText("format");
+				writer.writeText(WireFormat.JSON.name());
+				for (int i = 0; i < 2; i++) {
+					writer.writeText("match");
+					writer.writeText(log.toString());
+					writer.writeTurn(field, team, player);
+				}
+				writer.writeText("exit");
+			}
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (ControllerRunner runner = new ControllerRunner(Paths.get("controller.jar"),
+					CountingController.class.getName(), new ByteArrayInputStream(commands.toByteArray()), out)) {
+				runner.negotiate();
+				runner.serve();
+			}
+
+			// the static turn count starts over in every match
+			try (MessageReader reader = WireFormat.JSON.newReader(new ByteArrayInputStream(out.toByteArray()))) {
+				Assertions.assertEquals(WireFormat.JSON.name(), reader.readText());
+				for (int i = 0; i < 2; i++) {
+					Assertions.assertEquals("ready", reader.readText());
+					Assertions.assertEquals(JavaController.Action.EAT_LEFT, reader.readAction());
+				}
+			}
+		} finally {
+			Files.delete(log);
+		}
+
+	}
+
+	private static int getFrameEnd(byte[] frames, int index) {
+		int position = 0;
+		for (int i = 0; i <= index; i++) {
+			int length = (frames[position + 1] & 0xFF) << 24 | (frames[position + 2] & 0xFF) << 16
+					| (frames[position + 3] & 0xFF) << 8 | frames[position + 4] & 0xFF;
+			position += 1 + Integer.BYTES + length;
+		}
+		return position;
+	}
+
+	public static final class Still extends JavaController {
+
+		@Override
+		public Action playAction(Field field, Team team, Player player) {
+			return Action.EAT_LEFT;
+		}
+
+	}
+
+}
@@ -0,0 +1,22 @@
+package org.bitbrawl.foodfighter;
+
+import org.bitbrawl.foodfight.controller.JavaController;
+import org.bitbrawl.foodfight.field.Field;
+import org.bitbrawl.foodfight.field.Player;
+import org.bitbrawl.foodfight.field.Team;
+
+/*
+ * Eats left on its first turn and right ever after, counting in a static
+ * field. Outside the org.bitbrawl.foodfight packages, so the controller loader
+ * loads it like a competitor's class.
+ */
+public final class CountingController extends JavaController {
+
+	private static int turns;
+
+	@Override
+	public Action playAction(Field field, Team team, Player player) {
+		return turns++ == 0 ? Action.EAT_LEFT : Action.EAT_RIGHT;
+	}
+
+}
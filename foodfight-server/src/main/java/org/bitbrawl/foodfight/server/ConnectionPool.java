@@ -0,0 +1,292 @@
+package org.bitbrawl.foodfight.server;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+
+/**
+ * A fixed number of database connections shared between the threads of the
+ * server. The connections returned by {@link #getConnection()} are used like
+ * ordinary connections, except that closing one hands it back to the pool.
+ * Each connection also keeps the statements prepared on it, so preparing the
+ * same SQL again returns the statement that was prepared before, with its
+ * parameters cleared. Closing such a statement leaves it open for the next
+ * caller. A statement that is still open when the same SQL is prepared again
+ * is not shared; the second caller gets a statement of its own.
+ * <p>
+ * A connection is only used by one thread at a time. If every connection is
+ * in use, {@link #getConnection()} waits for one to be handed back.
+ */
+final class ConnectionPool implements AutoCloseable {
+
+	private final String url;
+	private final String username;
+	private final String password;
+	private final int statementCacheSize;
+	private final Semaphore available;
+	// most recently returned first, so that rarely used connections time out
+	private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+	private volatile boolean closed;
+
+	public ConnectionPool(String url, Authentication auth, int size, int statementCacheSize) {
+
+		if (size < 1)
+			throw new IllegalArgumentException("size must be at least 1");
+		if (statementCacheSize < 0)
+			throw new IllegalArgumentException("statementCacheSize cannot be negative");
+
+		this.url = url;
+		username = auth.getUsername();
+		password = auth.getPassword();
+		this.statementCacheSize = statementCacheSize;
+		available = new Semaphore(size, true);
+
+	}
+
+	public Connection getConnection() throws SQLException {
+
+		if (closed)
+			throw new SQLException("Connection pool is closed");
+
+		try {
+			available.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a connection", e);
+		}
+
+		try {
+			PooledConnection pooled;
+			while ((pooled = idle.pollFirst()) != null) {
+				if (pooled.isUsable())
+					return pooled.borrow();
+				pooled.closeQuietly();
+			}
+			return new PooledConnection(DriverManager.getConnection(url, username, password)).borrow();
+		} catch (SQLException | RuntimeException e) {
+			available.release();
+			throw e;
+		}
+
+	}
+
+	private void giveBack(PooledConnection pooled) {
+		try {
+			if (closed || pooled.connection.isClosed() || !pooled.connection.getAutoCommit())
+				pooled.closeQuietly();
+			else
+				idle.offerFirst(pooled);
+		} catch (SQLException e) {
+			pooled.closeQuietly();
+		} finally {
+			available.release();
+		}
+	}
+
+	/**
+	 * Closes the idle connections. Connections that are in use are closed when
+	 * they are handed back.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		PooledConnection pooled;
+		while ((pooled = idle.pollFirst()) != null)
+			pooled.closeQuietly();
+	}
+
+	private final class PooledConnection implements InvocationHandler {
+
+		private final Connection connection;
+		private final Map<String, PreparedStatement> statements;
+		private final Set<PreparedStatement> inUse = Collections.newSetFromMap(new IdentityHashMap<>());
+		private Connection borrowed;
+		private long lastUsed;
+
+		PooledConnection(Connection connection) {
+			this.connection = connection;
+			statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75F, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+					// statements that are in use are kept until they are closed
+					if (size() <= statementCacheSize || inUse.contains(eldest.getValue()))
+						return false;
+					closeQuietly(eldest.getValue());
+					return true;
+				}
+
+			};
+		}
+
+		Connection borrow() {
+			inUse.clear();
+			borrowed = (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, this);
+			return borrowed;
+		}
+
+		/*
+		 * Connections that have been idle for a while are checked before they
+		 * are handed out, since the server may have dropped them.
+		 */
+		boolean isUsable() {
+			if (System.nanoTime() - lastUsed < VALIDATION_INTERVAL)
+				return true;
+			try {
+				return connection.isValid(VALIDATION_TIMEOUT);
+			} catch (SQLException e) {
+				return false;
+			}
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			if (method.getDeclaringClass() == Object.class)
+				return invokeObjectMethod(proxy, method, args, connection);
+
+			String name = method.getName();
+			if (name.equals("close")) {
+				if (borrowed == proxy) {
+					borrowed = null;
+					lastUsed = System.nanoTime();
+					giveBack(this);
+				}
+				return null;
+			}
+			if (name.equals("isClosed"))
+				return borrowed != proxy || connection.isClosed();
+			if (borrowed != proxy)
+				throw new SQLException("Connection has been handed back to the pool");
+			if (name.equals("prepareStatement") && args.length == 1)
+				return prepare((String) args[0]);
+
+			try {
+				return method.invoke(connection, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+
+		}
+
+		private PreparedStatement prepare(String sql) throws SQLException {
+			PreparedStatement statement = statements.get(sql);
+			if (statement != null && inUse.contains(statement))
+				return connection.prepareStatement(sql);
+			if (statement == null || statement.isClosed()) {
+				statement = connection.prepareStatement(sql);
+				if (statementCacheSize == 0)
+					return statement;
+				statements.put(sql, statement);
+			}
+			inUse.add(statement);
+			return (PreparedStatement) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, new CachedStatement(statement));
+		}
+
+		void closeQuietly() {
+			for (PreparedStatement statement : statements.values())
+				closeQuietly(statement);
+			statements.clear();
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				logger.log(Level.WARNING, "Unable to close database connection", e);
+			}
+		}
+
+		private void closeQuietly(PreparedStatement statement) {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				logger.log(Level.WARNING, "Unable to close prepared statement", e);
+			}
+		}
+
+		/*
+		 * A cached statement as seen by one caller. Closing it clears its
+		 * parameters instead, so that the next caller starts afresh.
+		 */
+		private final class CachedStatement implements InvocationHandler {
+
+			private final PreparedStatement statement;
+			private boolean closed;
+
+			CachedStatement(PreparedStatement statement) {
+				this.statement = statement;
+			}
+
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+				if (method.getDeclaringClass() == Object.class)
+					return invokeObjectMethod(proxy, method, args, statement);
+
+				String name = method.getName();
+				if (name.equals("close")) {
+					if (!closed) {
+						closed = true;
+						inUse.remove(statement);
+						statement.clearParameters();
+					}
+					return null;
+				}
+				if (name.equals("isClosed"))
+					return closed || statement.isClosed();
+				if (closed)
+					throw new SQLException("Statement is closed");
+
+				try {
+					return method.invoke(statement, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+
+			}
+
+		}
+
+	}
+
+	/*
+	 * Proxies are only equal to themselves, and are described by what they
+	 * stand for.
+	 */
+	private static Object invokeObjectMethod(Object proxy, Method method, Object[] args, Object target) {
+		switch (method.getName()) {
+		case "equals":
+			return proxy == args[0];
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		default:
+			return target.toString();
+		}
+	}
+
+	public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+	private static final long VALIDATION_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+	private static final int VALIDATION_TIMEOUT = 5;
+	private static final Logger logger = EngineLogger.INSTANCE;
+
+}
@@ -16,7 +16,6 @@ import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -39,19 +38,19 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.bitbrawl.foodfight.engine.field.FieldState;
-import org.bitbrawl.foodfight.engine.field.InventoryState;
 import org.bitbrawl.foodfight.engine.field.PlayerState;
-import org.bitbrawl.foodfight.engine.field.ScoreState;
+import org.bitbrawl.foodfight.engine.field.StateAdapterFactory;
 import org.bitbrawl.foodfight.engine.field.TeamState;
 import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+import org.bitbrawl.foodfight.engine.match.ActionTrace;
 import org.bitbrawl.foodfight.engine.match.CharFunction;
 import org.bitbrawl.foodfight.engine.match.FieldGenerator;
+import org.bitbrawl.foodfight.engine.match.ControllerPool;
 import org.bitbrawl.foodfight.engine.match.JarController;
 import org.bitbrawl.foodfight.engine.match.Match;
 import org.bitbrawl.foodfight.engine.match.MatchHistory;
+import org.bitbrawl.foodfight.engine.match.MatchRandom;
 import org.bitbrawl.foodfight.field.MatchType;
-import org.bitbrawl.foodfight.util.Direction;
-import org.bitbrawl.foodfight.util.Vector;
 
 import org.apache.commons.math3.stat.inference.AlternativeHypothesis;
 import org.apache.commons.math3.stat.inference.BinomialTest;
@@ -84,11 +83,13 @@ import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
-class Database {
+class Database implements AutoCloseable {
 
 	private final String insertVersionQuery, insertPairwiseQuery, selectPairingResultsQuery, selectPairingsQuery,
 			selectPairwiseQuery, selectResultsQuery, updateScoreQuery;
 	private final ServerConfig config;
+	private final ControllerPool controllerPool;
+	private final ConnectionPool connectionPool;
 
 	public Database(ServerConfig config) throws IOException {
 
@@ -100,6 +101,9 @@ class Database {
 		selectResultsQuery = sqlFileToString("select_results.sql");
 		updateScoreQuery = sqlFileToString("update_score.sql");
 		this.config = config;
+		controllerPool = new ControllerPool(config.getMatchesPerProcess(), config.getWireFormat());
+		connectionPool = new ConnectionPool(config.getDatabaseUrl(), config.getDatabase(), config.getDatabasePoolSize(),
+				config.getStatementCacheSize());
 
 	}
 
@@ -249,11 +253,12 @@ class Database {
 
 			for (Set<Set<Competitor>> matchGrouping : matchGroupings) {
 
-				FieldState field = new FieldGenerator(type).get();
+				MatchRandom random = new MatchRandom();
+				FieldState field = new FieldGenerator(type, random).get();
 				Map<Character, Competitor> assignment = assignCompetitors(field, matchGrouping);
 				logger.log(Level.INFO, "versionIds: {0}", versionIds);
 				int matchId = addPlaceholderMatch(connection, field, c -> versionIds.get(assignment.get(c)));
-				MatchTemplate template = new MatchTemplate(matchId, field, assignment::get);
+				MatchTemplate template = new MatchTemplate(matchId, field, assignment::get, random);
 				templates.add(template);
 
 			}
@@ -452,7 +457,7 @@ class Database {
 
 		Path jar = localRepo.resolve("target").resolve("foodfighter-" + username + "-1.0.0.jar");
 		Path log = matchFolder.resolve(username + ".log");
-		return new JarController(jar, competitorConfig.getMainClass(), log);
+		return controllerPool.acquire(jar, competitorConfig.getMainClass(), log);
 
 	}
 
@@ -460,14 +465,16 @@ class Database {
 		return config.getDataFolder().resolve(Match.getMatchName(matchNumber));
 	}
 
-	public boolean updateMatch(MatchHistory match) throws SQLException, IOException {
+	public boolean updateMatch(MatchHistory match, ActionTrace trace) throws SQLException, IOException {
 
 		int matchId = match.getMatchNumber();
 		String matchName = Match.getMatchName(matchId);
 		logger.log(Level.INFO, "Updating {0}", matchName);
 
-		Path traceFile = getMatchFolder(matchId).resolve("trace.json");
-		writeTraceFile(match, traceFile);
+		Path matchFolder = getMatchFolder(matchId);
+		// the match keeps only its final state, so the full trace is replayed
+		writeTraceFile(trace.toHistory(), matchFolder.resolve(TRACE_FILE), gson);
+		writeTraceFile(trace, matchFolder.resolve(ACTIONS_FILE), compactGson);
 
 		uploadToS3(matchId);
 
@@ -529,9 +536,9 @@ class Database {
 
 	}
 
-	private void writeTraceFile(MatchHistory history, Path traceFile) {
+	private void writeTraceFile(Object trace, Path traceFile, Gson traceGson) {
 		try (Writer writer = Files.newBufferedWriter(traceFile, StandardOpenOption.CREATE_NEW)) {
-			gson.toJson(history, writer);
+			traceGson.toJson(trace, writer);
 		} catch (IOException e) {
 			logger.log(Level.SEVERE, "Unable to create trace file", e);
 		}
@@ -543,13 +550,14 @@ class Database {
 		logger.log(Level.INFO, "Uploading to S3", matchName);
 
 		Path folder = config.getDataFolder().resolve(matchName);
-		Path traceFile = folder.resolve("trace.json");
 		Path zipPath = config.getDataFolder().resolve(matchName + ".zip");
 		URI uri = URI.create("jar:" + zipPath.toUri().toString());
 		Map<String, String> env = Collections.singletonMap("create", "true");
 		try (FileSystem zipSystem = FileSystems.newFileSystem(uri, env)) {
-			Path jarTrace = zipSystem.getPath("trace.json");
-			Files.copy(traceFile, jarTrace);
+			// the full trace stays for existing readers, with the compact
+			// action trace alongside it
+			for (String fileName : new String[] { TRACE_FILE, ACTIONS_FILE })
+				Files.copy(folder.resolve(fileName), zipSystem.getPath(fileName));
 			try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, "*.log")) {
 				for (Path file : stream)
 					Files.copy(file, zipSystem.getPath(file.getFileName().toString()));
@@ -837,9 +845,13 @@ class Database {
 
 	}
 
+	public Path getVideoFile(int matchId) {
+		return config.getDataFolder().resolve(Match.getMatchName(matchId) + ".mp4");
+	}
+
 	public void addVideo(int matchId) throws IOException, SQLException {
 
-		Path videoFile = config.getDataFolder().resolve(Match.getMatchName(matchId) + ".mp4");
+		Path videoFile = getVideoFile(matchId);
 
 		uploadVideo(matchId, videoFile);
 
@@ -854,20 +866,64 @@ class Database {
 		}
 	}
 
+	/**
+	 * Returns whether the video of the given match is waiting to be generated.
+	 * A match that no longer exists has no video to generate.
+	 */
+	public boolean isGeneratingVideo(int matchId) throws SQLException {
+
+		try (Connection connection = connect()) {
+
+			String query = "SELECT video_status FROM game_match WHERE id = ?";
+			try (PreparedStatement statement = connection.prepareStatement(query)) {
+				statement.setInt(1, matchId);
+				try (ResultSet result = statement.executeQuery()) {
+					return result.next() && "generating".equals(result.getString("video_status"));
+				}
+			}
+
+		}
+
+	}
+
+	public void failVideo(int matchId) throws SQLException {
+
+		try (Connection connection = connect()) {
+
+			String update = "UPDATE game_match SET video_status = 'failed' WHERE id = ?";
+			try (PreparedStatement statement = connection.prepareStatement(update)) {
+				statement.setInt(1, matchId);
+				statement.executeUpdate();
+			}
+
+		}
+
+	}
+
+	@Override
+	public void close() {
+		try {
+			controllerPool.close();
+		} finally {
+			connectionPool.close();
+		}
+	}
+
 	private Connection connect() throws SQLException {
-		Authentication dbAuth = config.getDatabase();
-		return DriverManager.getConnection(config.getDatabaseUrl(), dbAuth.getUsername(), dbAuth.getPassword());
+		return connectionPool.getConnection();
 	}
 
 	private static final <E> E randomElement(E[] array) {
 		return array[ThreadLocalRandom.current().nextInt(array.length)];
 	}
 
+	private static final Gson compactGson = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE).create();
 	private static final Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
-			.registerTypeAdapter(ScoreState.class, ScoreState.Serializer.INSTANCE)
-			.registerTypeAdapter(InventoryState.class, InventoryState.Serializer.INSTANCE)
-			.registerTypeAdapter(Vector.class, Vector.Serializer.INSTANCE)
-			.registerTypeAdapter(Direction.class, Direction.Serializer.INSTANCE).setPrettyPrinting().create();
+			.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE).setPrettyPrinting().create();
+	private static final String TRACE_FILE = "trace.json";
+	// the compact action trace; full states are rebuilt from it by replaying
+	private static final String ACTIONS_FILE = "actions.json";
 	private static final Logger logger = EngineLogger.INSTANCE;
 	private static final BinomialTest test = new BinomialTest();
 	private static final double ALPHA_LEVEL = 0.1;
@@ -2,17 +2,20 @@ package org.bitbrawl.foodfight.server;
 
 import org.bitbrawl.foodfight.engine.field.FieldState;
 import org.bitbrawl.foodfight.engine.match.CharFunction;
+import org.bitbrawl.foodfight.engine.match.MatchRandom;
 
 public final class MatchTemplate {
 
 	private final int matchId;
 	private final FieldState field;
 	private final CharFunction<Competitor> competitors;
+	private final MatchRandom random;
 
-	public MatchTemplate(int matchId, FieldState field, CharFunction<Competitor> competitors) {
+	public MatchTemplate(int matchId, FieldState field, CharFunction<Competitor> competitors, MatchRandom random) {
 		this.matchId = matchId;
 		this.field = field;
 		this.competitors = competitors;
+		this.random = random;
 	}
 
 	public int getMatchId() {
@@ -27,4 +30,8 @@ public final class MatchTemplate {
 		return competitors;
 	}
 
+	public MatchRandom getRandom() {
+		return random;
+	}
+
 }
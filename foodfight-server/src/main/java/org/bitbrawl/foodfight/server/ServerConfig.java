@@ -6,6 +6,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 
 import org.bitbrawl.foodfight.engine.config.PathDeserializer;
+import org.bitbrawl.foodfight.engine.ipc.WireFormat;
+import org.bitbrawl.foodfight.engine.video.VideoProfile;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -19,6 +21,14 @@ public final class ServerConfig {
 	private final Authentication database;
 	private final Authentication git;
 	private final Authentication aws;
+	private final int matchesPerProcess;
+	private final WireFormat wireFormat;
+	private final int videoWorkers;
+	private final VideoProfile.Mode videoMode;
+	private final int videoSpeedUp;
+	private final int databasePoolSize;
+	private final int statementCacheSize;
+	private final boolean arrayTurnRunner;
 
 	private ServerConfig() {
 		this.databaseUrl = null;
@@ -28,6 +38,14 @@ public final class ServerConfig {
 		this.database = null;
 		this.git = null;
 		this.aws = null;
+		this.matchesPerProcess = 0;
+		this.wireFormat = null;
+		this.videoWorkers = 0;
+		this.videoMode = null;
+		this.videoSpeedUp = 0;
+		this.databasePoolSize = 0;
+		this.statementCacheSize = 0;
+		this.arrayTurnRunner = false;
 	}
 
 	public static ServerConfig getInstance(Path file) throws IOException {
@@ -57,6 +75,18 @@ public final class ServerConfig {
 		return database;
 	}
 
+	/**
+	 * The number of database connections the server keeps open. By default,
+	 * the match runner and each video worker get a connection of their own.
+	 */
+	public int getDatabasePoolSize() {
+		return databasePoolSize > 0 ? databasePoolSize : getVideoWorkers() + 1;
+	}
+
+	public int getStatementCacheSize() {
+		return statementCacheSize > 0 ? statementCacheSize : ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE;
+	}
+
 	public Authentication getGit() {
 		return git;
 	}
@@ -65,4 +95,29 @@ public final class ServerConfig {
 		return aws;
 	}
 
+	public int getMatchesPerProcess() {
+		return matchesPerProcess > 0 ? matchesPerProcess : 1;
+	}
+
+	public WireFormat getWireFormat() {
+		return wireFormat == null ? WireFormat.DELTA : wireFormat;
+	}
+
+	public int getVideoWorkers() {
+		return videoWorkers > 0 ? videoWorkers : 1;
+	}
+
+	public VideoProfile getVideoProfile() {
+		VideoProfile.Mode mode = videoMode == null ? VideoProfile.Mode.FULL : videoMode;
+		return new VideoProfile(mode, videoSpeedUp > 0 ? videoSpeedUp : VideoProfile.DEFAULT_SPEED_UP);
+	}
+
+	public boolean isArrayTurnRunner() {
+		return arrayTurnRunner;
+	}
+
+	public Path getVideoQueueFolder() {
+		return dataFolder.resolve("video-queue");
+	}
+
 }
@@ -5,8 +5,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,11 +18,15 @@ import org.bitbrawl.foodfight.controller.Controller;
 import org.bitbrawl.foodfight.engine.field.FieldState;
 import org.bitbrawl.foodfight.engine.field.PlayerState;
 import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+import org.bitbrawl.foodfight.engine.match.ActionTrace;
+import org.bitbrawl.foodfight.engine.match.ArrayTurnRunner;
 import org.bitbrawl.foodfight.engine.match.CharFunction;
 import org.bitbrawl.foodfight.engine.match.DefaultTurnRunner;
+import org.bitbrawl.foodfight.engine.match.JarController;
 import org.bitbrawl.foodfight.engine.match.Match;
 import org.bitbrawl.foodfight.engine.match.MatchHistory;
-import org.bitbrawl.foodfight.engine.video.ImageEncoder;
+import org.bitbrawl.foodfight.engine.match.MatchRandom;
+import org.bitbrawl.foodfight.engine.match.TurnRunner;
 
 import org.apache.maven.shared.invoker.MavenInvocationException;
 import org.codehaus.plexus.util.cli.CommandLineException;
@@ -31,57 +39,99 @@ public enum ServerEngine {
 	public void runMatches() throws InterruptedException {
 
 		ServerConfig config;
-		Database database;
+		Database database = null;
+		VideoQueue videos;
 		try {
 			config = ServerConfig.getInstance(Paths.get("config.json"));
 			database = new Database(config);
+			videos = new VideoQueue(config.getVideoQueueFolder(), database, config.getVideoWorkers(),
+					config.getVideoProfile());
 		} catch (IOException e) {
 			logger.log(Level.SEVERE, "Unable to create config and database", e);
+			if (database != null)
+				database.close();
 			return;
 		}
 
-		while (true) {
+		ExecutorService dispatchExecutor = Executors.newCachedThreadPool();
+
+		try {
 
 			try {
+				int resumed = videos.resume();
+				if (resumed > 0)
+					logger.log(Level.INFO, "Resuming {0} videos", resumed);
+			} catch (IOException e) {
+				logger.log(Level.SEVERE, "Unable to resume videos", e);
+			}
+
+			while (true) {
+
+				try {
+
+					for (MatchTemplate template : database.createBestMatches()) {
+
+						int matchId = template.getMatchId();
+						String matchName = Match.getMatchName(matchId);
+						FieldState field = template.getField();
+						Path matchFolder = config.getDataFolder().resolve(matchName);
+						Files.createDirectories(matchFolder);
+						CharFunction<Competitor> competitors = template.getCompetitors();
+						CharFunction<String> names = c -> competitors.apply(c).getUsername();
+						Map<Character, Controller> controllers = new HashMap<>();
+						Collection<JarController> jarsToClose = new ArrayList<>();
+						MatchHistory history;
+						ActionTrace.Recorder recorder;
+						try {
+							for (PlayerState player : field.getPlayerStates()) {
+								char symbol = player.getSymbol();
+								JarController controller = database.createController(matchFolder,
+										competitors.apply(symbol));
+								jarsToClose.add(controller);
+								controllers.put(symbol, controller);
+							}
+							MatchRandom random = template.getRandom();
+							recorder = new ActionTrace.Recorder(matchId, random.getSeed(), names);
+							TurnRunner runner = config.isArrayTurnRunner() ? new ArrayTurnRunner()
+									: new DefaultTurnRunner();
+							Match match = new Match.Builder(matchId, field, controllers::get, names, runner)
+									.dispatchExecutor(dispatchExecutor).random(random).recorder(recorder)
+									.keepHistory(false).build();
+							logger.log(Level.INFO, "Running {0}", matchName);
+							history = match.run();
+						} finally {
+							for (JarController controller : jarsToClose)
+								controller.close();
+						}
+
+						// the trace is saved before the match is marked as
+						// generating, so a crash in between cannot lose the video
+						ActionTrace trace = recorder.build();
+						videos.save(trace);
+						if (database.updateMatch(history, trace))
+							videos.submit(matchId);
+						else
+							videos.discard(matchId);
 
-				for (MatchTemplate template : database.createBestMatches()) {
-
-					int matchId = template.getMatchId();
-					String matchName = Match.getMatchName(matchId);
-					FieldState field = template.getField();
-					Path matchFolder = config.getDataFolder().resolve(matchName);
-					Files.createDirectories(matchFolder);
-					CharFunction<Competitor> competitors = template.getCompetitors();
-					Map<Character, Controller> controllers = new HashMap<>();
-					for (PlayerState player : field.getPlayerStates()) {
-						char symbol = player.getSymbol();
-						controllers.put(symbol, database.createController(matchFolder, competitors.apply(symbol)));
-					}
-					CharFunction<String> names = c -> competitors.apply(c).getUsername();
-					Match match = new Match.Builder(matchId, field, controllers::get, names, new DefaultTurnRunner())
-							.build();
-					logger.log(Level.INFO, "Running {0}", matchName);
-					MatchHistory history = match.run();
-
-					if (database.updateMatch(history)) {
-						logger.info("Generating video");
-						Path videoFile = config.getDataFolder().resolve(matchName + ".mp4");
-						ImageEncoder.encode(history, names, videoFile);
-						database.addVideo(matchId);
 					}
 
+				} catch (IOException | TransportException e) {
+					logger.log(Level.SEVERE, "I/O problem", e);
+				} catch (GitAPIException e) {
+					logger.log(Level.SEVERE, "Git problem", e);
+				} catch (SQLException e) {
+					logger.log(Level.SEVERE, "SQL problem", e);
+				} catch (MavenInvocationException | CommandLineException e) {
+					logger.log(Level.SEVERE, "Maven problem", e);
 				}
 
-			} catch (IOException | TransportException e) {
-				logger.log(Level.SEVERE, "I/O problem", e);
-			} catch (GitAPIException e) {
-				logger.log(Level.SEVERE, "Git problem", e);
-			} catch (SQLException e) {
-				logger.log(Level.SEVERE, "SQL problem", e);
-			} catch (MavenInvocationException | CommandLineException e) {
-				logger.log(Level.SEVERE, "Maven problem", e);
 			}
 
+		} finally {
+			dispatchExecutor.shutdownNow();
+			// the videos still queued are generated on the next start
+			videos.close();
+			database.close();
 		}
 
 	}
@@ -0,0 +1,216 @@
+package org.bitbrawl.foodfight.server;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bitbrawl.foodfight.engine.field.StateAdapterFactory;
+import org.bitbrawl.foodfight.engine.logging.EngineLogger;
+import org.bitbrawl.foodfight.engine.match.ActionTrace;
+import org.bitbrawl.foodfight.engine.match.Match;
+import org.bitbrawl.foodfight.engine.video.ImageEncoder;
+import org.bitbrawl.foodfight.engine.video.VideoProfile;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+/**
+ * The matches whose videos are still to be generated, which are the matches
+ * with a video status of generating. Each queued match's action trace is kept
+ * in the queue's folder until its video has been uploaded, so videos that were
+ * still queued when the server stopped are generated once it starts again.
+ * Videos are encoded by a pool of workers, so that the server can run the next
+ * match in the meantime. A video that fails is retried a few times before its
+ * match is marked as failed.
+ */
+final class VideoQueue implements AutoCloseable {
+
+	private final Path folder;
+	private final Database database;
+	private final ExecutorService workers;
+	private final int renderThreads;
+	private final VideoProfile profile;
+
+	public VideoQueue(Path folder, Database database, int numWorkers, VideoProfile profile) throws IOException {
+
+		if (numWorkers < 1)
+			throw new IllegalArgumentException("numWorkers must be at least 1");
+
+		this.folder = folder;
+		this.database = database;
+		this.profile = profile;
+		// the workers share the processors between them
+		renderThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / numWorkers);
+		Files.createDirectories(folder);
+		AtomicInteger numThreads = new AtomicInteger();
+		workers = Executors.newFixedThreadPool(numWorkers,
+				r -> new Thread(r, "video-encoder-" + numThreads.incrementAndGet()));
+
+	}
+
+	/**
+	 * Queues the videos that a previous run of the server left unfinished,
+	 * oldest match first, and returns how many there were.
+	 */
+	public int resume() throws IOException {
+
+		List<Path> jobs = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, "*" + JOB_SUFFIX)) {
+			for (Path job : stream)
+				jobs.add(job);
+		}
+		// match names are zero-padded, so they sort by match number
+		Collections.sort(jobs);
+
+		for (Path job : jobs)
+			schedule(job, 1);
+		return jobs.size();
+
+	}
+
+	/**
+	 * Writes the trace of the given match to the queue's folder, without queuing
+	 * its video yet. Saving the trace before the match is marked as generating
+	 * means a crash in between cannot strand the match; a job whose match turns
+	 * out not to be generating is dropped when its turn comes.
+	 */
+	public void save(ActionTrace trace) throws IOException {
+
+		String matchName = Match.getMatchName(trace.getMatchNumber());
+		Path unfinished = folder.resolve(matchName + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(unfinished)) {
+			gson.toJson(trace, writer);
+		}
+		Files.move(unfinished, getJob(trace.getMatchNumber()), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+	}
+
+	/**
+	 * Queues the video of the given match, whose trace has been saved.
+	 */
+	public void submit(int matchNumber) {
+		schedule(getJob(matchNumber), 1);
+	}
+
+	/**
+	 * Deletes the saved trace of a match whose video is not wanted.
+	 */
+	public void discard(int matchNumber) throws IOException {
+		Files.deleteIfExists(getJob(matchNumber));
+	}
+
+	private Path getJob(int matchNumber) {
+		return folder.resolve(Match.getMatchName(matchNumber) + JOB_SUFFIX);
+	}
+
+	private void schedule(Path job, int attempt) {
+		workers.execute(() -> generate(job, attempt));
+	}
+
+	private void generate(Path job, int attempt) {
+
+		ActionTrace trace = null;
+		try {
+
+			try (Reader reader = Files.newBufferedReader(job)) {
+				trace = gson.fromJson(reader, ActionTrace.class);
+			}
+
+			int matchId = trace.getMatchNumber();
+			// the match may have been left unfinished, and so deleted, before
+			// it was marked as generating
+			if (!database.isGeneratingVideo(matchId)) {
+				logger.log(Level.INFO, "Dropping video job for {0}", Match.getMatchName(matchId));
+				Files.delete(job);
+				return;
+			}
+
+			logger.log(Level.INFO, "Generating video for {0}", Match.getMatchName(matchId));
+			Path videoFile = database.getVideoFile(matchId);
+			// a video left over from an interrupted upload is generated again
+			Files.deleteIfExists(videoFile);
+			ImageEncoder.encode(trace, trace.getNames()::get, videoFile, renderThreads, profile);
+			database.addVideo(matchId);
+
+			Files.delete(job);
+
+		} catch (IOException | JsonParseException e) {
+			logger.log(Level.SEVERE, "Unable to generate video from " + job, e);
+			retry(job, trace, attempt);
+		} catch (SQLException e) {
+			logger.log(Level.SEVERE, "SQL problem", e);
+			retry(job, trace, attempt);
+		} catch (InterruptedException e) {
+			// the job stays on disk for the next start
+			Thread.currentThread().interrupt();
+		}
+
+	}
+
+	private void retry(Path job, ActionTrace trace, int attempt) {
+
+		if (attempt < MAX_ATTEMPTS) {
+			try {
+				schedule(job, attempt + 1);
+			} catch (RejectedExecutionException e) {
+				// the queue is closing, and the job stays on disk for the next
+				// start
+			}
+			return;
+		}
+
+		if (trace == null) {
+			logger.log(Level.SEVERE, "Giving up on {0} until the server starts again", job);
+			return;
+		}
+		try {
+			database.failVideo(trace.getMatchNumber());
+			Files.delete(job);
+		} catch (IOException | SQLException e) {
+			logger.log(Level.SEVERE, "Unable to mark video as failed for " + job, e);
+		}
+
+	}
+
+	/**
+	 * Stops generating videos and waits for the workers to finish. The videos
+	 * that were not generated stay queued on disk, and are generated when the
+	 * server starts again.
+	 */
+	@Override
+	public void close() {
+		workers.shutdownNow();
+		try {
+			// the database is closed once the workers are done with it
+			while (!workers.awaitTermination(1L, TimeUnit.MINUTES))
+				logger.info("Waiting for video workers to stop");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static final int MAX_ATTEMPTS = 3;
+	private static final String JOB_SUFFIX = ".json";
+	private static final Gson gson = new GsonBuilder().enableComplexMapKeySerialization()
+			.registerTypeAdapter(ActionTrace.class, ActionTrace.Deserializer.INSTANCE)
+			.registerTypeAdapterFactory(StateAdapterFactory.INSTANCE).create();
+	private static final Logger logger = EngineLogger.INSTANCE;
+
+}
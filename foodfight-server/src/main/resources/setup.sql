@@ -101,7 +101,7 @@ CREATE TABLE game_match
      type_id      TINYINT UNSIGNED NOT NULL,
      is_finished  BOOLEAN NOT NULL,
      trace_link   VARCHAR(256),
-     video_status ENUM('none', 'generating', 'done'),
+     video_status ENUM('none', 'generating', 'done', 'failed'),
      video_link   VARCHAR(256),
      PRIMARY KEY(id),
      FOREIGN KEY(type_id) REFERENCES match_type(id)
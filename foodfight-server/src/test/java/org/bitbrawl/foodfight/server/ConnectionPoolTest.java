@@ -0,0 +1,127 @@
+package org.bitbrawl.foodfight.server;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import org.bitbrawl.foodfight.server.FakeDriver.FakeConnection;
+import org.bitbrawl.foodfight.server.FakeDriver.FakeStatement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+
+class ConnectionPoolTest {
+
+	private FakeDriver driver;
+	private ConnectionPool pool;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		String url = "jdbc:fake:" + UUID.randomUUID();
+		driver = new FakeDriver(url);
+		DriverManager.registerDriver(driver);
+		pool = new ConnectionPool(url, auth, 2, 1);
+	}
+
+	@AfterEach
+	void tearDown() throws SQLException {
+		pool.close();
+		DriverManager.deregisterDriver(driver);
+	}
+
+	@Test
+	void testReturnedOnClose() throws SQLException {
+
+		Connection first = pool.getConnection();
+		first.close();
+		Assertions.assertTrue(first.isClosed());
+		Assertions.assertThrows(SQLException.class, first::createStatement);
+
+		Connection second = pool.getConnection();
+		Assertions.assertFalse(second.isClosed());
+		Assertions.assertEquals(1, driver.getConnections().size());
+		FakeConnection connection = driver.getConnections().get(0);
+		Assertions.assertFalse(connection.closed);
+
+		// the statement outlives the caller that closed it
+		try (PreparedStatement statement = second.prepareStatement(SELECT)) {
+			Assertions.assertFalse(statement.isClosed());
+		}
+		try (PreparedStatement statement = second.prepareStatement(SELECT)) {
+			Assertions.assertFalse(statement.isClosed());
+		}
+		Assertions.assertEquals(1, connection.statements.size());
+		FakeStatement statement = connection.statements.get(0);
+		Assertions.assertFalse(statement.closed);
+		Assertions.assertEquals(2, statement.parametersCleared);
+
+		// a connection that is still in use is not handed out again
+		Connection third = pool.getConnection();
+		Assertions.assertEquals(2, driver.getConnections().size());
+		third.close();
+		second.close();
+
+		pool.close();
+		Assertions.assertTrue(connection.closed);
+		Assertions.assertTrue(statement.closed);
+
+	}
+
+	@Test
+	void testEvictionClosesStatement() throws SQLException {
+
+		try (Connection connection = pool.getConnection()) {
+			connection.prepareStatement(SELECT).close();
+			connection.prepareStatement(UPDATE).close();
+		}
+
+		FakeConnection connection = driver.getConnections().get(0);
+		Assertions.assertEquals(2, connection.statements.size());
+		Assertions.assertTrue(connection.statements.get(0).closed);
+		Assertions.assertFalse(connection.statements.get(1).closed);
+
+		// the evicted statement is prepared afresh
+		try (Connection reused = pool.getConnection()) {
+			reused.prepareStatement(SELECT).close();
+		}
+		Assertions.assertEquals(3, connection.statements.size());
+		Assertions.assertEquals(SELECT, connection.statements.get(2).sql);
+		Assertions.assertTrue(connection.statements.get(1).closed);
+
+	}
+
+	@Test
+	void testBrokenConnectionNotReused() throws SQLException {
+
+		// dropped by the server while it was in use
+		Connection first = pool.getConnection();
+		driver.getConnections().get(0).closed = true;
+		first.close();
+		try (Connection second = pool.getConnection()) {
+			Assertions.assertFalse(second.isClosed());
+		}
+		Assertions.assertEquals(2, driver.getConnections().size());
+
+		// left in the middle of a transaction
+		Connection third = pool.getConnection();
+		third.setAutoCommit(false);
+		third.close();
+		Assertions.assertTrue(driver.getConnections().get(1).closed);
+		try (Connection fourth = pool.getConnection()) {
+			Assertions.assertTrue(fourth.getAutoCommit());
+		}
+		Assertions.assertEquals(3, driver.getConnections().size());
+
+	}
+
+	private static final Authentication auth = new Gson()
+			.fromJson("{\"username\": \"user\", \"password\": \"pass\"}", Authentication.class);
+	private static final String SELECT = "SELECT 1";
+	private static final String UPDATE = "UPDATE game_match SET video_status = ? WHERE id = ?";
+
+}
@@ -0,0 +1,149 @@
+package org.bitbrawl.foodfight.server;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/*
+ * A JDBC driver whose connections and statements only remember how they were
+ * used, so that the connection pool can be tested without a database. Each
+ * instance answers to a URL of its own.
+ */
+final class FakeDriver implements Driver {
+
+	private final String url;
+	private final List<FakeConnection> connections = Collections.synchronizedList(new ArrayList<>());
+
+	FakeDriver(String url) {
+		this.url = url;
+	}
+
+	List<FakeConnection> getConnections() {
+		return connections;
+	}
+
+	@Override
+	public Connection connect(String url, Properties info) throws SQLException {
+		if (!acceptsURL(url))
+			return null;
+		FakeConnection connection = new FakeConnection();
+		connections.add(connection);
+		return connection.proxy;
+	}
+
+	@Override
+	public boolean acceptsURL(String url) {
+		return this.url.equals(url);
+	}
+
+	@Override
+	public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+		return new DriverPropertyInfo[0];
+	}
+
+	@Override
+	public int getMajorVersion() {
+		return 1;
+	}
+
+	@Override
+	public int getMinorVersion() {
+		return 0;
+	}
+
+	@Override
+	public boolean jdbcCompliant() {
+		return false;
+	}
+
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		throw new SQLFeatureNotSupportedException();
+	}
+
+	static final class FakeConnection {
+
+		final Connection proxy;
+		final List<FakeStatement> statements = new ArrayList<>();
+		volatile boolean closed;
+		volatile boolean valid = true;
+		private boolean autoCommit = true;
+
+		FakeConnection() {
+			proxy = (Connection) Proxy.newProxyInstance(FakeDriver.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, (p, method, args) -> {
+						switch (method.getName()) {
+						case "close":
+							closed = true;
+							return null;
+						case "isClosed":
+							return closed;
+						case "isValid":
+							return valid && !closed;
+						case "getAutoCommit":
+							return autoCommit;
+						case "setAutoCommit":
+							autoCommit = (Boolean) args[0];
+							return null;
+						case "prepareStatement":
+							FakeStatement statement = new FakeStatement((String) args[0]);
+							statements.add(statement);
+							return statement.proxy;
+						case "hashCode":
+							return System.identityHashCode(p);
+						case "equals":
+							return p == args[0];
+						case "toString":
+							return "FakeConnection";
+						default:
+							return null;
+						}
+					});
+		}
+
+	}
+
+	static final class FakeStatement {
+
+		final String sql;
+		final PreparedStatement proxy;
+		volatile boolean closed;
+		volatile int parametersCleared;
+
+		FakeStatement(String sql) {
+			this.sql = sql;
+			proxy = (PreparedStatement) Proxy.newProxyInstance(FakeDriver.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, (p, method, args) -> {
+						switch (method.getName()) {
+						case "close":
+							closed = true;
+							return null;
+						case "isClosed":
+							return closed;
+						case "clearParameters":
+							parametersCleared++;
+							return null;
+						case "hashCode":
+							return System.identityHashCode(p);
+						case "equals":
+							return p == args[0];
+						case "toString":
+							return "FakeStatement[" + sql + ']';
+						default:
+							return null;
+						}
+					});
+		}
+
+	}
+
+}